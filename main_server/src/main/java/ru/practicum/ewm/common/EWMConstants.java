@@ -5,5 +5,8 @@ public class EWMConstants {
     public static final String PAGE_START_FROM_DEFAULT_TEXT = "0";
     public static final String PAGE_SIZE_DEFAULT_TEXT = "10";
 
+    public static final String EVENT_URI_FORMAT = "/events/%d";
+    public static final int COMMENT_PREVIEW_SIZE = 3;
+
     public static final String EVENT_NOT_FOUND_MSG_FORMAT = "Event with id=%d was not found";
 }
@@ -1,7 +1,9 @@
 package ru.practicum.ewm.controllers;
 
 import lombok.RequiredArgsConstructor;
+import org.springframework.http.CacheControl;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
 import org.springframework.validation.annotation.Validated;
 import org.springframework.web.bind.annotation.DeleteMapping;
 import org.springframework.web.bind.annotation.GetMapping;
@@ -12,15 +14,18 @@ import org.springframework.web.bind.annotation.RequestBody;
 import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.ResponseStatus;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.context.request.WebRequest;
 import ru.practicum.ewm.controllers.dtos.CategoryDto;
 import ru.practicum.ewm.controllers.mappers.CategoryMapper;
 import ru.practicum.ewm.entities.Category;
 import ru.practicum.ewm.markers.Create;
 import ru.practicum.ewm.markers.Update;
 import ru.practicum.ewm.services.CategoryService;
+import ru.practicum.ewm.services.ContentVersion;
 
 import javax.validation.constraints.Min;
 import java.util.List;
+import java.util.concurrent.TimeUnit;
 import java.util.stream.Collectors;
 
 import static ru.practicum.ewm.common.EWMConstants.PAGE_SIZE_DEFAULT_TEXT;
@@ -31,6 +36,9 @@ import static ru.practicum.ewm.controllers.mappers.CategoryMapper.map;
 @RequiredArgsConstructor
 public class CategoriesController {
 
+    private static final CacheControl PUBLIC_CATEGORIES_CACHE_CONTROL =
+            CacheControl.maxAge(5, TimeUnit.MINUTES).cachePublic();
+
     private final CategoryService service;
 
     // Admin
@@ -63,18 +71,40 @@ public class CategoriesController {
     // Public
 
     @GetMapping("/categories/{categoryId}")
-    @ResponseStatus(HttpStatus.OK)
-    public CategoryDto getById(@PathVariable long categoryId) {
-        return map(service.get(categoryId));
+    public ResponseEntity<CategoryDto> getById(@PathVariable long categoryId, WebRequest webRequest) {
+        final Category category = service.get(categoryId);
+        final ContentVersion version = service.getVersion(category);
+        if (webRequest.checkNotModified(version.getEtag(), version.getLastModified())) {
+            return notModified();
+        }
+        return ok(version, map(category));
     }
 
     @GetMapping("/categories")
-    @ResponseStatus(HttpStatus.OK)
-    public List<CategoryDto> getAll(
+    public ResponseEntity<List<CategoryDto>> getAll(
             @RequestParam(defaultValue = PAGE_START_FROM_DEFAULT_TEXT, required = false) @Min(0) int from,
-            @RequestParam(defaultValue = PAGE_SIZE_DEFAULT_TEXT, required = false) @Min(1) int size) {
-        return service.getAll(from, size).stream()
+            @RequestParam(defaultValue = PAGE_SIZE_DEFAULT_TEXT, required = false) @Min(1) int size,
+            WebRequest webRequest) {
+        final ContentVersion version = service.getVersion();
+        if (webRequest.checkNotModified(version.getEtag(), version.getLastModified())) {
+            return notModified();
+        }
+        return ok(version, service.getAll(from, size).stream()
                 .map(CategoryMapper::map)
-                .collect(Collectors.toList());
+                .collect(Collectors.toList()));
+    }
+
+    private static <T> ResponseEntity<T> notModified() {
+        return ResponseEntity.status(HttpStatus.NOT_MODIFIED)
+                .cacheControl(PUBLIC_CATEGORIES_CACHE_CONTROL)
+                .build();
+    }
+
+    private static <T> ResponseEntity<T> ok(ContentVersion version, T body) {
+        return ResponseEntity.ok()
+                .eTag(version.getEtag())
+                .lastModified(version.getLastModified())
+                .cacheControl(PUBLIC_CATEGORIES_CACHE_CONTROL)
+                .body(body);
     }
 }
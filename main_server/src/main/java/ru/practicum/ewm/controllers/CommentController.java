@@ -2,6 +2,7 @@ package ru.practicum.ewm.controllers;
 
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.data.domain.Slice;
 import org.springframework.http.HttpStatus;
 import org.springframework.validation.annotation.Validated;
 import org.springframework.web.bind.annotation.*;
@@ -14,7 +15,9 @@ import ru.practicum.ewm.entities.Event;
 import ru.practicum.ewm.services.CommentService;
 import ru.practicum.ewm.services.EventService;
 import ru.practicum.ewm.services.UserService;
+import ru.practicum.ewm.utils.PageCursor;
 
+import javax.servlet.http.HttpServletResponse;
 import javax.validation.constraints.Min;
 import java.util.List;
 import java.util.stream.Collectors;
@@ -42,9 +45,16 @@ public class CommentController {
     @ResponseStatus(HttpStatus.OK)
     public List<CommentDto> getAll(
             @RequestParam(defaultValue = PAGE_START_FROM_DEFAULT_TEXT) @Min(0) int from,
-            @RequestParam(defaultValue = PAGE_SIZE_DEFAULT_TEXT) @Min(1) int size
+            @RequestParam(defaultValue = PAGE_SIZE_DEFAULT_TEXT) @Min(1) int size,
+            @RequestParam(required = false) String cursor,
+            HttpServletResponse response
     ) {
-        return commentService.getAll(from, size).stream()
+        final Slice<Comment> result = cursor == null
+                ? commentService.getAll(from, size)
+                : commentService.getAll(PageCursor.decode(cursor), size);
+        PageCursor.writeNext(response, result, c -> PageCursor.of(c.getId()));
+
+        return result.stream()
                 .map(CommentMapper::map)
                 .collect(Collectors.toList());
     }
@@ -83,7 +93,6 @@ public class CommentController {
                 .build();
 
         final Comment savedComment = commentService.create(comment);
-        eventService.addComment(savedComment, eventId);
 
         log.info("Create comment: {}", comment);
         return map(savedComment);
@@ -125,9 +134,16 @@ public class CommentController {
     public List<CommentDto> getAll(
             @PathVariable long eventId,
             @RequestParam(defaultValue = PAGE_START_FROM_DEFAULT_TEXT) @Min(0) int from,
-            @RequestParam(defaultValue = PAGE_SIZE_DEFAULT_TEXT) @Min(1) int size
+            @RequestParam(defaultValue = PAGE_SIZE_DEFAULT_TEXT) @Min(1) int size,
+            @RequestParam(required = false) String cursor,
+            HttpServletResponse response
     ) {
-        return commentService.getAllByEventId(eventId, from, size).stream()
+        final Slice<Comment> result = cursor == null
+                ? commentService.getAllByEventId(eventId, from, size)
+                : commentService.getAllByEventId(eventId, PageCursor.decode(cursor), size);
+        PageCursor.writeNext(response, result, c -> PageCursor.of(c.getId()));
+
+        return result.stream()
                 .map(CommentMapper::map)
                 .collect(Collectors.toList());
     }
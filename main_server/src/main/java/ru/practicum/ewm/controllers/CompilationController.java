@@ -1,8 +1,13 @@
 package ru.practicum.ewm.controllers;
 
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.CacheControl;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
 import org.springframework.validation.annotation.Validated;
 import org.springframework.web.bind.annotation.DeleteMapping;
 import org.springframework.web.bind.annotation.GetMapping;
@@ -13,20 +18,26 @@ import org.springframework.web.bind.annotation.RequestBody;
 import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.ResponseStatus;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.context.request.WebRequest;
 import ru.practicum.ewm.controllers.dtos.CompilationRequestDto;
 import ru.practicum.ewm.controllers.dtos.CompilationResponseDto;
+import ru.practicum.ewm.controllers.dtos.EventDto;
 import ru.practicum.ewm.controllers.mappers.CompilationMapper;
 import ru.practicum.ewm.entities.Compilation;
 import ru.practicum.ewm.entities.Event;
 import ru.practicum.ewm.markers.Create;
 import ru.practicum.ewm.markers.Update;
+import ru.practicum.ewm.services.CompilationCache;
 import ru.practicum.ewm.services.CompilationService;
 import ru.practicum.ewm.services.EventService;
 
 import javax.validation.constraints.Min;
+import java.io.UncheckedIOException;
 import java.util.Collections;
 import java.util.List;
 import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
 import java.util.stream.Collectors;
 
 import static ru.practicum.ewm.common.EWMConstants.PAGE_SIZE_DEFAULT_TEXT;
@@ -40,9 +51,13 @@ public class CompilationController {
 
     private static final String ADMIN_COMPILATIONS_ENDPOINT_PREFIX = "/admin/compilations";
     private static final String PUBLIC_COMPILATIONS_ENDPOINT_PREFIX = "/compilations";
+    private static final CacheControl PUBLIC_COMPILATIONS_CACHE_CONTROL =
+            CacheControl.maxAge(1, TimeUnit.MINUTES).cachePublic();
 
     private final EventService eventService;
     private final CompilationService compilationService;
+    private final CompilationCache compilationCache;
+    private final ObjectMapper objectMapper;
 
     // Admin
 
@@ -98,20 +113,53 @@ public class CompilationController {
     // Public
 
     @GetMapping(PUBLIC_COMPILATIONS_ENDPOINT_PREFIX)
-    @ResponseStatus(HttpStatus.OK)
-    public List<CompilationResponseDto> getById(
+    public ResponseEntity<byte[]> getById(
             @RequestParam(required = false) Boolean pinned,
             @RequestParam(defaultValue = PAGE_START_FROM_DEFAULT_TEXT, required = false) @Min(0) int from,
-            @RequestParam(defaultValue = PAGE_SIZE_DEFAULT_TEXT, required = false) @Min(1) int size
+            @RequestParam(defaultValue = PAGE_SIZE_DEFAULT_TEXT, required = false) @Min(1) int size,
+            WebRequest webRequest
     ) {
-        return compilationService.getAll(pinned, from, size).stream()
-                .map(CompilationMapper::map)
-                .collect(Collectors.toList());
+        final CompilationCache.Rendered rendered = compilationCache.getPage(pinned, from, size, () -> {
+            final List<CompilationResponseDto> compilations = compilationService.getAll(pinned, from, size).stream()
+                    .map(CompilationMapper::map)
+                    .collect(Collectors.toList());
+            return render(compilations, compilations);
+        });
+        return json(rendered, webRequest);
     }
 
     @GetMapping(PUBLIC_COMPILATIONS_ENDPOINT_PREFIX + "/{compId}")
-    @ResponseStatus(HttpStatus.OK)
-    public CompilationResponseDto getById(@PathVariable long compId) {
-        return map(compilationService.getById(compId));
+    public ResponseEntity<byte[]> getById(@PathVariable long compId, WebRequest webRequest) {
+        final CompilationCache.Rendered rendered = compilationCache.getById(compId, () -> {
+            final CompilationResponseDto compilation = map(compilationService.getById(compId));
+            return render(compilation, List.of(compilation));
+        });
+        return json(rendered, webRequest);
+    }
+
+    private CompilationCache.Rendered render(Object body, List<CompilationResponseDto> compilations) {
+        final Set<Long> eventIds = compilations.stream()
+                .flatMap(compilation -> compilation.getEvents().stream())
+                .map(EventDto::getId)
+                .collect(Collectors.toSet());
+        try {
+            return new CompilationCache.Rendered(objectMapper.writeValueAsBytes(body), eventIds);
+        } catch (JsonProcessingException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private static ResponseEntity<byte[]> json(CompilationCache.Rendered rendered, WebRequest webRequest) {
+        if (webRequest.checkNotModified(rendered.getEtag(), rendered.getLastModified())) {
+            return ResponseEntity.status(HttpStatus.NOT_MODIFIED)
+                    .cacheControl(PUBLIC_COMPILATIONS_CACHE_CONTROL)
+                    .build();
+        }
+        return ResponseEntity.ok()
+                .eTag(rendered.getEtag())
+                .lastModified(rendered.getLastModified())
+                .cacheControl(PUBLIC_COMPILATIONS_CACHE_CONTROL)
+                .contentType(MediaType.APPLICATION_JSON)
+                .body(rendered.getBody());
     }
 }
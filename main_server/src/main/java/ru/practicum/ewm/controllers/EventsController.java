@@ -3,7 +3,10 @@ package ru.practicum.ewm.controllers;
 import lombok.NonNull;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.data.domain.Slice;
+import org.springframework.http.CacheControl;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
 import org.springframework.validation.annotation.Validated;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.PatchMapping;
@@ -13,13 +16,15 @@ import org.springframework.web.bind.annotation.RequestBody;
 import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.ResponseStatus;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.context.request.WebRequest;
+import ru.practicum.ewm.controllers.dtos.CommentDto;
 import ru.practicum.ewm.controllers.dtos.SortType;
 import ru.practicum.ewm.controllers.dtos.UpdateEventStateAction;
 import ru.practicum.ewm.controllers.dtos.CreateEventRequestDto;
 import ru.practicum.ewm.controllers.dtos.EventDto;
 import ru.practicum.ewm.controllers.dtos.UpdateEventRequestDto;
+import ru.practicum.ewm.controllers.mappers.CommentMapper;
 import ru.practicum.ewm.controllers.mappers.EventMapper;
-import ru.practicum.ewm.dto.StatsDto;
 import ru.practicum.ewm.entities.Category;
 import ru.practicum.ewm.entities.Event;
 import ru.practicum.ewm.entities.EventStatus;
@@ -27,17 +32,19 @@ import ru.practicum.ewm.entities.User;
 import ru.practicum.ewm.markers.Create;
 import ru.practicum.ewm.markers.Update;
 import ru.practicum.ewm.services.CategoryService;
+import ru.practicum.ewm.services.CommentService;
 import ru.practicum.ewm.services.EventService;
 import ru.practicum.ewm.services.HitService;
 import ru.practicum.ewm.services.UserService;
 import ru.practicum.ewm.utils.DateTimeUtils;
+import ru.practicum.ewm.utils.PageCursor;
 
 import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
 import javax.validation.ValidationException;
 import javax.validation.constraints.Min;
 import javax.validation.constraints.NotNull;
 import java.time.LocalDateTime;
-import java.util.Comparator;
 import java.util.List;
 import java.util.Map;
 import java.util.Objects;
@@ -45,6 +52,8 @@ import java.util.Optional;
 import java.util.Set;
 import java.util.stream.Collectors;
 
+import static ru.practicum.ewm.common.EWMConstants.COMMENT_PREVIEW_SIZE;
+import static ru.practicum.ewm.common.EWMConstants.EVENT_URI_FORMAT;
 import static ru.practicum.ewm.common.EWMConstants.PAGE_SIZE_DEFAULT_TEXT;
 import static ru.practicum.ewm.common.EWMConstants.PAGE_START_FROM_DEFAULT_TEXT;
 import static ru.practicum.ewm.controllers.mappers.EventMapper.map;
@@ -58,6 +67,11 @@ public class EventsController {
     private static final String ADMIN_EVENTS_ENDPOINT_PREFIX = "/admin/events";
     private static final String PUBLIC_EVENTS_ENDPOINT_PREFIX = "/events";
 
+    /**
+     * Every request has to reach the server, as each one is a view recorded in the stats.
+     */
+    private static final CacheControl PUBLIC_EVENT_CACHE_CONTROL = CacheControl.noCache().cachePublic();
+
     private static final Set<UpdateEventStateAction> USER_ALLOWED_UPDATE_EVENT_STATE_ACTIONS
             = Set.of(UpdateEventStateAction.SEND_TO_REVIEW, UpdateEventStateAction.CANCEL_REVIEW);
     private static final Set<UpdateEventStateAction> ADMIN_ALLOWED_UPDATE_EVENT_STATE_ACTIONS
@@ -66,6 +80,7 @@ public class EventsController {
     private final UserService userService;
     private final EventService eventService;
     private final CategoryService categoryService;
+    private final CommentService commentService;
     private final HitService hitService;
 
     // Private
@@ -210,7 +225,12 @@ public class EventsController {
             @RequestParam(required = false) String rangeEnd,
             @RequestParam(defaultValue = PAGE_START_FROM_DEFAULT_TEXT, required = false) @Min(0) int from,
             @RequestParam(defaultValue = PAGE_SIZE_DEFAULT_TEXT, required = false) @Min(1) int size,
-            HttpServletRequest request
+            @RequestParam(required = false) String cursor,
+            @RequestParam(required = false) Double lat,
+            @RequestParam(required = false) Double lon,
+            @RequestParam(required = false) Double radius,
+            HttpServletRequest request,
+            HttpServletResponse response
     ) {
         LocalDateTime eventDateStart = Optional.ofNullable(rangeStart)
                 .map(DateTimeUtils::parse)
@@ -232,40 +252,79 @@ public class EventsController {
             eventDateStart = LocalDateTime.now();
         }
 
-        final List<Event> events = eventService.searchPublishedEvents(
-                        text, paid, onlyAvailable, categories, eventDateStart, eventDateEnd, from, size)
-                .stream()
-                .collect(Collectors.toList());
+        final String ip = request.getRemoteAddr();
+        final String uri = request.getRequestURI();
+
+        final boolean near = this.validateLocation(lat, lon, radius);
+        if (near && !SortType.EVENT_DATE.equals(sortType)) {
+            throw new ValidationException("'lat', 'lon' and 'radius' are only supported for sort=EVENT_DATE");
+        }
+
+        if (SortType.VIEWS.equals(sortType)) {
+            if (cursor != null) {
+                throw new ValidationException("'cursor' is not supported for sort=VIEWS");
+            }
+            // ordered and paginated by the views column synced from the stats server
+            final List<Event> events = eventService.searchPublishedEventsOrderByViews(
+                    text, paid, onlyAvailable, categories, eventDateStart, eventDateEnd, from, size)
+                    .getContent();
+            this.recordHitAndLog(uri, ip);
+
+            return events.stream()
+                    .map(e -> map(e, e.getViews()))
+                    .collect(Collectors.toList());
+        }
+
+        final Slice<Event> slice;
+        if (SortType.RELEVANCE.equals(sortType)) {
+            if (text == null || text.isBlank()) {
+                throw new ValidationException("'text' is required for sort=RELEVANCE");
+            }
+            if (cursor != null) {
+                throw new ValidationException("'cursor' is not supported for sort=RELEVANCE");
+            }
+            slice = eventService.searchPublishedEventsOrderByRelevance(
+                    text, paid, onlyAvailable, categories, eventDateStart, eventDateEnd, from, size);
+        } else if (near) {
+            slice = cursor == null
+                    ? eventService.searchPublishedEventsNear(
+                            text, paid, onlyAvailable, categories, eventDateStart, eventDateEnd,
+                            lat, lon, radius, from, size)
+                    : eventService.searchPublishedEventsNear(
+                            text, paid, onlyAvailable, categories, eventDateStart, eventDateEnd,
+                            lat, lon, radius, PageCursor.decode(cursor), size);
+            PageCursor.writeNext(response, slice, e -> PageCursor.of(e.getEventDate(), e.getId()));
+        } else {
+            slice = cursor == null
+                    ? eventService.searchPublishedEvents(
+                            text, paid, onlyAvailable, categories, eventDateStart, eventDateEnd, from, size)
+                    : eventService.searchPublishedEvents(
+                            text, paid, onlyAvailable, categories, eventDateStart, eventDateEnd,
+                            PageCursor.decode(cursor), size);
+            PageCursor.writeNext(response, slice, e -> PageCursor.of(e.getEventDate(), e.getId()));
+        }
+
+        final List<Event> events = slice.getContent();
 
         final List<String> uris = events.stream()
-                .map(e -> String.format("events/%d", e.getId()))
+                .map(e -> String.format(EVENT_URI_FORMAT, e.getId()))
                 .collect(Collectors.toList());
 
-        final Map<String, StatsDto> stats = hitService.getStats(uris);
+        final Map<String, Long> stats = hitService.getStats(uris);
         log.info("Stats {}", stats);
 
-        final String ip = request.getRemoteAddr();
-        final String uri = request.getRequestURI();
         this.recordHitAndLog(uri, ip);
 
-        List<EventDto> eventDtos = events.stream()
-                .map(e -> map(e, stats.get(String.format("events/%d", e.getId()))))
+        return events.stream()
+                .map(e -> map(e, stats.get(String.format(EVENT_URI_FORMAT, e.getId()))))
                 .collect(Collectors.toList());
-
-        if (SortType.VIEWS.equals(sortType)) {
-            eventDtos = eventDtos.stream()
-                    .sorted(Comparator.comparing(EventDto::getViews))
-                    .collect(Collectors.toList());
-        }
-
-        return eventDtos;
     }
 
     @GetMapping(PUBLIC_EVENTS_ENDPOINT_PREFIX + "/{eventId}")
-    @ResponseStatus(HttpStatus.OK)
-    public EventDto getById(
+    public ResponseEntity<EventDto> getById(
             @PathVariable long eventId,
-            HttpServletRequest request
+            HttpServletRequest request,
+            WebRequest webRequest
     ) {
         final Event event = eventService.getById(eventId, EventStatus.PUBLISHED);
 
@@ -273,10 +332,28 @@ public class EventsController {
         final String uri = request.getRequestURI();
         this.recordHitAndLog(uri, ip);
 
-        final Map<String, StatsDto> stats = hitService.getStats(List.of(uri));
+        final Map<String, Long> stats = hitService.getStats(List.of(uri));
         log.info("Stats {}", stats);
 
-        return map(event, stats.get(uri));
+        // views are not part of the version, so they go into the tag as well
+        final String etag = event.getVersion() + "-" + stats.getOrDefault(uri, 0L);
+        if (webRequest.checkNotModified(etag)) {
+            return ResponseEntity.status(HttpStatus.NOT_MODIFIED)
+                    .cacheControl(PUBLIC_EVENT_CACHE_CONTROL)
+                    .build();
+        }
+
+        final List<CommentDto> latestComments = commentService.getLatestByEventId(eventId, COMMENT_PREVIEW_SIZE)
+                .stream()
+                .map(CommentMapper::map)
+                .collect(Collectors.toList());
+
+        return ResponseEntity.ok()
+                .eTag(etag)
+                .cacheControl(PUBLIC_EVENT_CACHE_CONTROL)
+                .body(map(event, stats.get(uri)).toBuilder()
+                        .latestComments(latestComments)
+                        .build());
     }
 
     private void validateEventStateUpdateUserAction(
@@ -295,6 +372,26 @@ public class EventsController {
         }
     }
 
+    /**
+     * @return true if the search is limited to {@code radius} kilometers around {@code lat} and {@code lon}
+     */
+    private boolean validateLocation(Double lat, Double lon, Double radius) throws ValidationException {
+        if (lat == null && lon == null && radius == null) {
+            return false;
+        }
+        if (lat == null || lon == null || radius == null) {
+            throw new ValidationException("'lat', 'lon' and 'radius' must be given together");
+        }
+        // NaN fails every comparison, so non-finite values are rejected before the bounds are checked
+        if (!Double.isFinite(lat) || !Double.isFinite(lon) || lat < -90 || lat > 90 || lon < -180 || lon > 180) {
+            throw new ValidationException(String.format("Invalid location: lat=%s, lon=%s", lat, lon));
+        }
+        if (!Double.isFinite(radius) || radius <= 0) {
+            throw new ValidationException(String.format("Invalid value for 'radius': %s", radius));
+        }
+        return true;
+    }
+
     private void recordHitAndLog(@NotNull String uri, @NotNull String ip) {
         log.info("client ip: {}", ip);
         log.info("endpoint path: {}", uri);
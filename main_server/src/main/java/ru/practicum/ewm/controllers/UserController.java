@@ -2,7 +2,7 @@ package ru.practicum.ewm.controllers;
 
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
-import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Slice;
 import org.springframework.http.HttpStatus;
 import org.springframework.validation.annotation.Validated;
 import org.springframework.web.bind.annotation.DeleteMapping;
@@ -18,7 +18,9 @@ import ru.practicum.ewm.controllers.mappers.UserMapper;
 import ru.practicum.ewm.entities.User;
 import ru.practicum.ewm.markers.Create;
 import ru.practicum.ewm.services.UserService;
+import ru.practicum.ewm.utils.PageCursor;
 
+import javax.servlet.http.HttpServletResponse;
 import javax.validation.constraints.Min;
 import java.util.List;
 import java.util.stream.Collectors;
@@ -47,11 +49,22 @@ public class UserController {
     public List<UserDto> getAll(
             @RequestParam(required = false) List<Long> ids,
             @RequestParam(defaultValue = PAGE_START_FROM_DEFAULT_TEXT, required = false) @Min(0) int from,
-            @RequestParam(defaultValue = PAGE_SIZE_DEFAULT_TEXT, required = false) @Min(1) int size
+            @RequestParam(defaultValue = PAGE_SIZE_DEFAULT_TEXT, required = false) @Min(1) int size,
+            @RequestParam(required = false) String cursor,
+            HttpServletResponse response
     ) {
-        Page<User> result = ids != null && ids.size() > 0
-                ? userService.getAllWithUserIds(ids, from, size)
-                : userService.getAll(from, size);
+        final boolean filterByIds = ids != null && ids.size() > 0;
+        final Slice<User> result;
+        if (cursor == null) {
+            result = filterByIds
+                    ? userService.getAllWithUserIds(ids, from, size)
+                    : userService.getAll(from, size);
+        } else {
+            result = filterByIds
+                    ? userService.getAllWithUserIds(ids, PageCursor.decode(cursor), size)
+                    : userService.getAll(PageCursor.decode(cursor), size);
+        }
+        PageCursor.writeNext(response, result, u -> PageCursor.of(u.getId()));
 
         return result.stream()
                 .map(UserMapper::map)
@@ -1,5 +1,6 @@
 package ru.practicum.ewm.controllers.dtos;
 
+import com.fasterxml.jackson.annotation.JsonInclude;
 import lombok.AllArgsConstructor;
 import lombok.Getter;
 import lombok.experimental.SuperBuilder;
@@ -9,6 +10,7 @@ import javax.validation.constraints.NotBlank;
 import javax.validation.constraints.NotNull;
 import javax.validation.constraints.Positive;
 import javax.validation.constraints.PositiveOrZero;
+import java.util.List;
 
 @Getter
 @AllArgsConstructor
@@ -38,4 +40,13 @@ public class EventDto extends EventBaseDto {
 
     @PositiveOrZero
     private Long views;
+
+    @PositiveOrZero
+    private Integer commentsCount;
+
+    /**
+     * Latest comments, newest first, filled only where a single event is shown.
+     */
+    @JsonInclude(JsonInclude.Include.NON_NULL)
+    private List<CommentDto> latestComments;
 }
@@ -1,5 +1,5 @@
 package ru.practicum.ewm.controllers.dtos;
 
 public enum SortType {
-    EVENT_DATE, VIEWS
+    EVENT_DATE, VIEWS, RELEVANCE
 }
@@ -8,7 +8,6 @@ import ru.practicum.ewm.controllers.dtos.EventDto;
 import ru.practicum.ewm.controllers.dtos.LocationDto;
 import ru.practicum.ewm.controllers.dtos.UpdateEventRequestDto;
 import ru.practicum.ewm.controllers.dtos.UserShortDto;
-import ru.practicum.ewm.dto.StatsDto;
 import ru.practicum.ewm.entities.Category;
 import ru.practicum.ewm.entities.Event;
 import ru.practicum.ewm.entities.User;
@@ -62,11 +61,9 @@ public class EventMapper {
                 .build();
     }
 
-    public static EventDto map(final Event event, final StatsDto stats) {
+    public static EventDto map(final Event event, final Long views) {
         return map(event).toBuilder()
-                .views(Optional.ofNullable(stats)
-                        .map(StatsDto::getHits)
-                        .orElse(null))
+                .views(views)
                 .build();
     }
 
@@ -102,6 +99,7 @@ public class EventMapper {
                 .location(locationDto)
                 .participantLimit(event.getParticipantLimit())
                 .confirmedRequests(event.getConfirmedRequests())
+                .commentsCount(event.getCommentCount())
                 .paid(event.getPaid())
                 .requestModeration(event.getRequestModeration())
                 .build();
@@ -4,6 +4,7 @@ import lombok.AccessLevel;
 import lombok.NoArgsConstructor;
 import ru.practicum.ewm.controllers.dtos.EventRequestDto;
 import ru.practicum.ewm.entities.EventRequest;
+import ru.practicum.ewm.entities.EventRequestView;
 
 import static ru.practicum.ewm.utils.DateTimeUtils.format;
 
@@ -19,4 +20,14 @@ public class EventRequestMapper {
                 .requester(eventRequest.getRequester().getId())
                 .build();
     }
+
+    public static EventRequestDto map(final EventRequestView eventRequest) {
+        return EventRequestDto.builder()
+                .id(eventRequest.getId())
+                .created(format(eventRequest.getCreatedOn()))
+                .status(eventRequest.getStatus())
+                .event(eventRequest.getEventId())
+                .requester(eventRequest.getRequesterId())
+                .build();
+    }
 }
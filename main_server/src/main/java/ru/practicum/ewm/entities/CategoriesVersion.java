@@ -0,0 +1,17 @@
+package ru.practicum.ewm.entities;
+
+import lombok.AllArgsConstructor;
+import lombok.Value;
+
+import java.time.LocalDateTime;
+
+/**
+ * Number of categories and the last time one of them was saved. Any create, rename or delete changes one of them.
+ */
+@Value
+@AllArgsConstructor
+public class CategoriesVersion {
+
+    long count;
+    LocalDateTime updatedOn;
+}
@@ -43,8 +43,4 @@ public class Comment {
 
     @Column(name = "text", nullable = false)
     private String text;
-
-    public void setEvent(Event event) {
-        this.event = event;
-    }
 }
@@ -4,7 +4,6 @@ import lombok.AllArgsConstructor;
 import lombok.Builder;
 import lombok.Getter;
 import lombok.NoArgsConstructor;
-import lombok.Setter;
 import lombok.ToString;
 
 import javax.persistence.Column;
@@ -17,13 +16,17 @@ import javax.persistence.GenerationType;
 import javax.persistence.Id;
 import javax.persistence.JoinColumn;
 import javax.persistence.ManyToOne;
-import javax.persistence.OneToMany;
+import javax.persistence.NamedAttributeNode;
+import javax.persistence.NamedEntityGraph;
 import javax.persistence.Table;
 import java.time.LocalDateTime;
-import java.util.List;
 
 @Entity
 @Table(name = "events", schema = "public")
+@NamedEntityGraph(
+        name = Event.WITH_INITIATOR_AND_CATEGORY,
+        attributeNodes = {@NamedAttributeNode("initiator"), @NamedAttributeNode("category")}
+)
 @Getter
 @Builder(toBuilder = true)
 @ToString
@@ -31,6 +34,12 @@ import java.util.List;
 @AllArgsConstructor
 public class Event {
 
+    /**
+     * Fetches everything {@link ru.practicum.ewm.controllers.mappers.EventMapper} reads in the same query,
+     * so mapping a page of events does not issue a select per initiator and category.
+     */
+    public static final String WITH_INITIATOR_AND_CATEGORY = "Event.withInitiatorAndCategory";
+
     @Id
     @GeneratedValue(strategy = GenerationType.IDENTITY)
     private Long id;
@@ -60,8 +69,11 @@ public class Event {
     @Column(name = "participant_limit", nullable = false)
     private Integer participantLimit;
 
-    @Setter
-    @Column(name = "confirmed_requests", nullable = false)
+    /**
+     * Changed only by {@link ru.practicum.ewm.repositories.EventRepository#reserveParticipantSlots},
+     * never written back from the entity so that a stale copy cannot overwrite concurrent reservations.
+     */
+    @Column(name = "confirmed_requests", nullable = false, updatable = false)
     private Integer confirmedRequests;
 
     @Column(name = "longitude", nullable = false)
@@ -70,6 +82,13 @@ public class Event {
     @Column(name = "latitude", nullable = false)
     private Float latitude;
 
+    /**
+     * {@link ru.practicum.ewm.utils.GeoHash} of the location, set by
+     * {@link ru.practicum.ewm.services.EventServiceImpl} whenever the location changes.
+     */
+    @Column(name = "geohash")
+    private Long geohash;
+
     @Column(name = "paid", nullable = false)
     private Boolean paid;
 
@@ -84,11 +103,25 @@ public class Event {
     @JoinColumn(name = "category_id", nullable = false)
     private Category category;
 
-    @OneToMany(mappedBy = "event")
-    private List<Comment> comments;
-
-    public void addComment(Comment comment) {
-        comments.add(comment);
-        comment.setEvent(this);
-    }
+    /**
+     * Views copied from the stats server by {@link ru.practicum.ewm.services.EventViewsSynchronizer},
+     * may lag behind the stats server by the sync interval.
+     */
+    @Column(name = "views", nullable = false, insertable = false, updatable = false)
+    private Long views;
+
+    /**
+     * Changed only by {@link ru.practicum.ewm.repositories.EventRepository#addCommentCount} together with
+     * the comment itself, so that showing the count does not load the comments.
+     */
+    @Column(name = "comment_count", nullable = false, insertable = false, updatable = false)
+    private Integer commentCount;
+
+    /**
+     * Bumped by {@link ru.practicum.ewm.repositories.EventRepository} queries with every change to what the public
+     * representation of the event shows, except views, and used for its ETag. Not a {@code @Version}, so that
+     * counters changed in bulk do not fail concurrent edits of the event.
+     */
+    @Column(name = "version", nullable = false, insertable = false, updatable = false)
+    private Long version;
 }
@@ -0,0 +1,23 @@
+package ru.practicum.ewm.entities;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Value;
+
+import java.time.LocalDateTime;
+
+/**
+ * Read-only row of the requests table, selected with a constructor expression
+ * so that status transitions don't hydrate {@link EventRequest} entities.
+ */
+@Value
+@Builder(toBuilder = true)
+@AllArgsConstructor
+public class EventRequestView {
+
+    Long id;
+    LocalDateTime createdOn;
+    EventRequestState status;
+    Long eventId;
+    Long requesterId;
+}
@@ -1,7 +1,12 @@
 package ru.practicum.ewm.repositories;
 
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import ru.practicum.ewm.entities.CategoriesVersion;
 import ru.practicum.ewm.entities.Category;
 
 public interface CategoryRepository extends JpaRepository<Category, Long> {
+
+    @Query("SELECT new ru.practicum.ewm.entities.CategoriesVersion(COUNT(c), MAX(c.updatedOn)) FROM Category AS c")
+    CategoriesVersion findVersion();
 }
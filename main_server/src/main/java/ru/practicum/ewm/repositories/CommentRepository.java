@@ -1,15 +1,26 @@
 package ru.practicum.ewm.repositories;
 
-import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
 import ru.practicum.ewm.entities.Comment;
 
+import java.util.List;
 import java.util.Optional;
 
 public interface CommentRepository extends JpaRepository<Comment, Long> {
 
     Optional<Comment> findById(long commentId);
 
-    Page<Comment> findAllByEventId(long eventId, Pageable pageable);
+    Slice<Comment> findAllByOrderByIdAsc(Pageable pageable);
+
+    Slice<Comment> findByIdGreaterThanOrderByIdAsc(long afterId, Pageable pageable);
+
+    Slice<Comment> findAllByEventIdOrderByIdAsc(long eventId, Pageable pageable);
+
+    Slice<Comment> findAllByEventIdAndIdGreaterThanOrderByIdAsc(long eventId, long afterId, Pageable pageable);
+
+    @EntityGraph(attributePaths = "user")
+    List<Comment> findAllByEventIdOrderByCreatedOnDescIdDesc(long eventId, Pageable pageable);
 }
@@ -2,11 +2,20 @@ package ru.practicum.ewm.repositories;
 
 
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import ru.practicum.ewm.entities.CompilationEventLink;
 
 import java.util.List;
 
-public interface CompilationEventLinkRepository extends JpaRepository<CompilationEventLink, Long> {
+public interface CompilationEventLinkRepository extends JpaRepository<CompilationEventLink, Long>,
+        CompilationEventLinkRepositoryCustom {
 
-    List<CompilationEventLink> findAllByCompilationIdEqualsAndEventIdIn(long compId, List<Long> eventIds);
+    @Query("SELECT l.eventId FROM CompilationEventLink AS l WHERE l.compilationId = ?1 ORDER BY l.eventId")
+    List<Long> findEventIdsByCompilationId(long compId);
+
+    @Modifying(flushAutomatically = true)
+    @Query("DELETE FROM CompilationEventLink AS l WHERE l.compilationId = :compId AND l.eventId IN :eventIds")
+    int deleteLinks(@Param("compId") long compId, @Param("eventIds") List<Long> eventIds);
 }
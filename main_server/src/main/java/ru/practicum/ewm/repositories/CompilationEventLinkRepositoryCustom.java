@@ -0,0 +1,9 @@
+package ru.practicum.ewm.repositories;
+
+public interface CompilationEventLinkRepositoryCustom {
+
+    /**
+     * Links the events to the compilation in one batch, pairs that are already linked are skipped.
+     */
+    int insertLinks(long compId, long[] eventIds);
+}
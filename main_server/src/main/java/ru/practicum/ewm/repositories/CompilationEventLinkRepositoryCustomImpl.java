@@ -0,0 +1,41 @@
+package ru.practicum.ewm.repositories;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.stream.Collectors;
+
+@RequiredArgsConstructor
+public class CompilationEventLinkRepositoryCustomImpl implements CompilationEventLinkRepositoryCustom {
+
+    private static final String INSERT_LINK_SQL = "INSERT INTO compilations_events_link (compilation_id, event_id) " +
+            "SELECT ?, ? WHERE NOT EXISTS (" +
+            "SELECT 1 FROM compilations_events_link WHERE compilation_id = ? AND event_id = ?)";
+    private static final int BATCH_SIZE = 1000;
+
+    private final JdbcTemplate jdbcTemplate;
+
+    @Override
+    public int insertLinks(long compId, long[] eventIds) {
+        if (eventIds.length == 0) {
+            return 0;
+        }
+        final List<Long> rows = Arrays.stream(eventIds).boxed().collect(Collectors.toList());
+        final int[][] inserted = jdbcTemplate.batchUpdate(INSERT_LINK_SQL, rows, BATCH_SIZE, (ps, eventId) -> {
+            ps.setLong(1, compId);
+            ps.setLong(2, eventId);
+            ps.setLong(3, compId);
+            ps.setLong(4, eventId);
+        });
+
+        int total = 0;
+        for (final int[] batch : inserted) {
+            for (final int count : batch) {
+                total += Math.max(count, 0);
+            }
+        }
+        return total;
+    }
+}
@@ -1,8 +1,10 @@
 package ru.practicum.ewm.repositories;
 
-import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import ru.practicum.ewm.entities.Event;
@@ -12,7 +14,7 @@ import java.time.LocalDateTime;
 import java.util.List;
 import java.util.Optional;
 
-public interface EventRepository extends JpaRepository<Event, Long> {
+public interface EventRepository extends JpaRepository<Event, Long>, EventRepositoryCustom {
 
     String SEARCH_PUBLISHED_EVENTS_QUERY =
             "SELECT e " +
@@ -20,31 +22,46 @@ public interface EventRepository extends JpaRepository<Event, Long> {
             "JOIN e.initiator AS u " +
             "JOIN e.category AS c " +
             "WHERE e.state = 'PUBLISHED' " +
-            "  AND (:text IS NULL " +
-                    "OR (" +
-                        "UPPER(e.description) LIKE UPPER(CONCAT('%', :text, '%')) " +
-                        "OR UPPER(e.annotation) LIKE UPPER(CONCAT('%', :text, '%')) " +
-                    ") " +
-                ")" +
+            "  AND (:text IS NULL OR FUNCTION('fts_match', e.description, e.annotation, :text) = TRUE) " +
             "  AND (:paid IS NULL OR e.paid = :paid) " +
             "  AND (:onlyAvailable IS FALSE OR e.confirmedRequests < e.participantLimit) " +
             "  AND (:categories IS NULL OR c.id IN :categories) " +
             "  AND (CAST(:rangeStart AS timestamp) IS NULL OR e.eventDate >= :rangeStart) " +
             "  AND (CAST(:rangeEnd AS timestamp) IS NULL OR e.eventDate <= :rangeEnd) ";
 
-    String ORDER_BY_EVENT_DATE_ASC_CLAUSE = "ORDER BY e.eventDate ASC";
+    /**
+     * Seeks past the cursor; the redundant lower bound lets the (state, event_date, id) index start at the cursor
+     * instead of filtering every published event.
+     */
+    String AFTER_EVENT_DATE_CLAUSE =
+            "  AND e.eventDate >= :afterDate " +
+            "  AND (e.eventDate > :afterDate OR (e.eventDate = :afterDate AND e.id > :afterId)) ";
 
+    String ORDER_BY_EVENT_DATE_ASC_CLAUSE = "ORDER BY e.eventDate ASC, e.id ASC";
+    String ORDER_BY_VIEWS_DESC_CLAUSE = "ORDER BY e.views DESC, e.id ASC";
+    String ORDER_BY_RELEVANCE_DESC_CLAUSE =
+            "ORDER BY FUNCTION('fts_rank', e.description, e.annotation, :text) DESC, e.id ASC";
+
+    @Override
+    @EntityGraph(Event.WITH_INITIATOR_AND_CATEGORY)
+    List<Event> findAllById(Iterable<Long> ids);
+
+    @EntityGraph(Event.WITH_INITIATOR_AND_CATEGORY)
     Optional<Event> findByIdAndStateEquals(long eventId, final EventStatus state);
 
+    @EntityGraph(Event.WITH_INITIATOR_AND_CATEGORY)
     Optional<Event> findByIdAndInitiatorId(long eventId, long userId);
 
+    @EntityGraph(Event.WITH_INITIATOR_AND_CATEGORY)
     @Query("SELECT e " +
             "FROM Event AS e " +
             "JOIN e.initiator AS u " +
             "JOIN e.category AS c " +
-            "WHERE u.id = ?1")
-    Page<Event> findAllByInitiatorId(long userId, Pageable pageable);
+            "WHERE u.id = ?1 " +
+            "ORDER BY e.id")
+    Slice<Event> findAllByInitiatorId(long userId, Pageable pageable);
 
+    @EntityGraph(Event.WITH_INITIATOR_AND_CATEGORY)
     @Query("SELECT e " +
             "FROM Event AS e " +
             "JOIN e.initiator AS u " +
@@ -53,9 +70,10 @@ public interface EventRepository extends JpaRepository<Event, Long> {
             "  AND (:categories IS NULL OR c.id IN :categories) " +
             "  AND (CAST(:rangeStart AS timestamp) IS NULL OR e.eventDate >= :rangeStart) " +
             "  AND (CAST(:rangeEnd AS timestamp) IS NULL OR e.eventDate <= :rangeEnd) " +
-            "  AND (:states IS NULL OR e.state IN :states) "
+            "  AND (:states IS NULL OR e.state IN :states) " +
+            "ORDER BY e.id"
     )
-    Page<Event> findAllByInitiatorIdInAndCategoryIdInAndEventDateIsAfterAndEventDateIsBeforeAndStateIn(
+    Slice<Event> findAllByInitiatorIdInAndCategoryIdInAndEventDateIsAfterAndEventDateIsBeforeAndStateIn(
             @Param("users") final List<Long> users,
             @Param("categories") final List<Long> categories,
             @Param("rangeStart") final LocalDateTime rangeStart,
@@ -64,8 +82,9 @@ public interface EventRepository extends JpaRepository<Event, Long> {
             Pageable pageable
     );
 
+    @EntityGraph(Event.WITH_INITIATOR_AND_CATEGORY)
     @Query(SEARCH_PUBLISHED_EVENTS_QUERY + ORDER_BY_EVENT_DATE_ASC_CLAUSE)
-    Page<Event> searchPublishedEventsOrderByEventDateAsc(
+    Slice<Event> searchPublishedEventsOrderByEventDateAsc(
             @Param("text") final String text,
             @Param("paid") final Boolean paid,
             @Param("onlyAvailable") final Boolean onlyAvailable,
@@ -74,4 +93,90 @@ public interface EventRepository extends JpaRepository<Event, Long> {
             @Param("rangeEnd") final LocalDateTime rangeEnd,
             Pageable pageable
     );
+
+    @EntityGraph(Event.WITH_INITIATOR_AND_CATEGORY)
+    @Query(SEARCH_PUBLISHED_EVENTS_QUERY + AFTER_EVENT_DATE_CLAUSE + ORDER_BY_EVENT_DATE_ASC_CLAUSE)
+    Slice<Event> searchPublishedEventsAfterOrderByEventDateAsc(
+            @Param("text") final String text,
+            @Param("paid") final Boolean paid,
+            @Param("onlyAvailable") final Boolean onlyAvailable,
+            @Param("categories") final List<Long> categories,
+            @Param("rangeStart") final LocalDateTime rangeStart,
+            @Param("rangeEnd") final LocalDateTime rangeEnd,
+            @Param("afterDate") final LocalDateTime afterDate,
+            @Param("afterId") final long afterId,
+            Pageable pageable
+    );
+
+    @EntityGraph(Event.WITH_INITIATOR_AND_CATEGORY)
+    @Query(SEARCH_PUBLISHED_EVENTS_QUERY + ORDER_BY_VIEWS_DESC_CLAUSE)
+    Slice<Event> searchPublishedEventsOrderByViewsDesc(
+            @Param("text") final String text,
+            @Param("paid") final Boolean paid,
+            @Param("onlyAvailable") final Boolean onlyAvailable,
+            @Param("categories") final List<Long> categories,
+            @Param("rangeStart") final LocalDateTime rangeStart,
+            @Param("rangeEnd") final LocalDateTime rangeEnd,
+            Pageable pageable
+    );
+
+    @EntityGraph(Event.WITH_INITIATOR_AND_CATEGORY)
+    @Query(SEARCH_PUBLISHED_EVENTS_QUERY + ORDER_BY_RELEVANCE_DESC_CLAUSE)
+    Slice<Event> searchPublishedEventsOrderByRelevanceDesc(
+            @Param("text") final String text,
+            @Param("paid") final Boolean paid,
+            @Param("onlyAvailable") final Boolean onlyAvailable,
+            @Param("categories") final List<Long> categories,
+            @Param("rangeStart") final LocalDateTime rangeStart,
+            @Param("rangeEnd") final LocalDateTime rangeEnd,
+            Pageable pageable
+    );
+
+    /**
+     * Atomically takes {@code slots} participant slots of the event, all or none.
+     *
+     * @return 1 if the slots were taken, 0 if the event has fewer free slots left
+     */
+    @Modifying(flushAutomatically = true)
+    @Query("UPDATE Event AS e " +
+            "SET e.confirmedRequests = e.confirmedRequests + :slots, e.version = e.version + 1 " +
+            "WHERE e.id = :eventId AND e.confirmedRequests + :slots <= e.participantLimit")
+    int reserveParticipantSlots(@Param("eventId") long eventId, @Param("slots") int slots);
+
+    @Modifying(flushAutomatically = true)
+    @Query("UPDATE Event AS e SET e.version = e.version + 1 WHERE e.id = :eventId")
+    int incrementVersion(@Param("eventId") long eventId);
+
+    @Modifying(flushAutomatically = true)
+    @Query("UPDATE Event AS e SET e.version = e.version + 1 WHERE e.category.id = :categoryId")
+    int incrementVersionByCategoryId(@Param("categoryId") long categoryId);
+
+    /**
+     * Atomically adds {@code delta} to the comment count of the event.
+     */
+    @Modifying(flushAutomatically = true)
+    @Query("UPDATE Event AS e " +
+            "SET e.commentCount = e.commentCount + :delta, e.version = e.version + 1 " +
+            "WHERE e.id = :eventId")
+    int addCommentCount(@Param("eventId") long eventId, @Param("delta") int delta);
+
+    /**
+     * Takes the comments of the user off the comment counts, for the comments about to be deleted with the user.
+     */
+    @Modifying(flushAutomatically = true)
+    @Query("UPDATE Event AS e " +
+            "SET e.commentCount = e.commentCount - " +
+            "(SELECT COUNT(c) FROM Comment AS c WHERE c.event.id = e.id AND c.user.id = :userId), " +
+            "e.version = e.version + 1 " +
+            "WHERE e.id IN (SELECT c.event.id FROM Comment AS c WHERE c.user.id = :userId)")
+    int subtractCommentCountsOfUser(@Param("userId") long userId);
+
+    @Query("SELECT e.participantLimit - e.confirmedRequests FROM Event AS e WHERE e.id = ?1")
+    int countFreeParticipantSlots(long eventId);
+
+    @Query("SELECT e.id " +
+            "FROM Event AS e " +
+            "WHERE e.state = 'PUBLISHED' AND e.id > ?1 " +
+            "ORDER BY e.id")
+    List<Long> findPublishedIdsAfter(long afterId, Pageable pageable);
 }
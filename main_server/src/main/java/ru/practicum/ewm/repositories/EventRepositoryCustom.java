@@ -0,0 +1,44 @@
+package ru.practicum.ewm.repositories;
+
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import org.springframework.lang.Nullable;
+import ru.practicum.ewm.entities.Event;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+
+public interface EventRepositoryCustom {
+
+    /**
+     * Sets views of the given events, rows that already hold the same value are not touched.
+     */
+    int updateViews(Map<Long, Long> viewsByEventId);
+
+    /**
+     * Sets the geohash of events saved before it was stored, {@code batchSize} events per update.
+     * Returns the number of events updated.
+     */
+    int fillMissingGeohashes(int batchSize);
+
+    /**
+     * Published events within {@code radiusKm} of the point, read through the geohash index: only events in the
+     * cells around the point are checked against the exact distance. Rows after {@code afterDate} and
+     * {@code afterId} are returned when those are given.
+     */
+    Slice<Event> searchPublishedEventsNearOrderByEventDateAsc(
+            String text,
+            Boolean paid,
+            Boolean onlyAvailable,
+            List<Long> categories,
+            LocalDateTime rangeStart,
+            LocalDateTime rangeEnd,
+            double lat,
+            double lon,
+            double radiusKm,
+            @Nullable LocalDateTime afterDate,
+            @Nullable Long afterId,
+            Pageable pageable
+    );
+}
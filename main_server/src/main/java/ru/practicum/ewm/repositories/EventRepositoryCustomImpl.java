@@ -0,0 +1,145 @@
+package ru.practicum.ewm.repositories;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.domain.SliceImpl;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.lang.Nullable;
+import ru.practicum.ewm.entities.Event;
+import ru.practicum.ewm.utils.GeoHash;
+
+import javax.persistence.EntityManager;
+import javax.persistence.TypedQuery;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+import static ru.practicum.ewm.repositories.EventRepository.AFTER_EVENT_DATE_CLAUSE;
+import static ru.practicum.ewm.repositories.EventRepository.ORDER_BY_EVENT_DATE_ASC_CLAUSE;
+import static ru.practicum.ewm.repositories.EventRepository.SEARCH_PUBLISHED_EVENTS_QUERY;
+
+@RequiredArgsConstructor
+public class EventRepositoryCustomImpl implements EventRepositoryCustom {
+
+    private static final String UPDATE_VIEWS_SQL = "UPDATE events SET views = ? WHERE id = ? AND views <> ?";
+    private static final String MISSING_GEOHASH_SQL =
+            "SELECT id, latitude, longitude FROM events WHERE geohash IS NULL AND id > ? ORDER BY id " +
+            "FETCH FIRST ? ROWS ONLY";
+    // an event whose location changed meanwhile already has the geohash of its new location
+    private static final String UPDATE_GEOHASH_SQL = "UPDATE events SET geohash = ? WHERE id = ? AND geohash IS NULL";
+
+    private static final String WITHIN_RADIUS_CLAUSE =
+            "  AND FUNCTION('power', FUNCTION('sin', (FUNCTION('radians', e.latitude) - :latRadians) / 2), 2) " +
+            "    + FUNCTION('cos', FUNCTION('radians', e.latitude)) * :cosLat " +
+            "    * FUNCTION('power', FUNCTION('sin', (FUNCTION('radians', e.longitude) - :lonRadians) / 2), 2) " +
+            "    <= :maxHaversine ";
+    private static final String FETCH_GRAPH_HINT = "javax.persistence.fetchgraph";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final EntityManager entityManager;
+
+    @Override
+    public int updateViews(Map<Long, Long> viewsByEventId) {
+        if (viewsByEventId.isEmpty()) {
+            return 0;
+        }
+        final List<Map.Entry<Long, Long>> rows = new ArrayList<>(viewsByEventId.entrySet());
+        final int[][] updated = jdbcTemplate.batchUpdate(UPDATE_VIEWS_SQL, rows, rows.size(), (ps, row) -> {
+            ps.setLong(1, row.getValue());
+            ps.setLong(2, row.getKey());
+            ps.setLong(3, row.getValue());
+        });
+
+        int total = 0;
+        for (final int[] batch : updated) {
+            for (final int count : batch) {
+                total += Math.max(count, 0);
+            }
+        }
+        return total;
+    }
+
+    @Override
+    public int fillMissingGeohashes(int batchSize) {
+        long afterId = 0;
+        int total = 0;
+        while (true) {
+            final List<long[]> rows = jdbcTemplate.query(MISSING_GEOHASH_SQL, (rs, rowNum) -> new long[]{
+                    rs.getLong("id"), GeoHash.encode(rs.getFloat("latitude"), rs.getFloat("longitude"))
+            }, afterId, batchSize);
+            if (rows.isEmpty()) {
+                return total;
+            }
+            final int[][] updated = jdbcTemplate.batchUpdate(UPDATE_GEOHASH_SQL, rows, rows.size(), (ps, row) -> {
+                ps.setLong(1, row[1]);
+                ps.setLong(2, row[0]);
+            });
+            for (final int[] batch : updated) {
+                for (final int count : batch) {
+                    total += Math.max(count, 0);
+                }
+            }
+            afterId = rows.get(rows.size() - 1)[0];
+        }
+    }
+
+    @Override
+    public Slice<Event> searchPublishedEventsNearOrderByEventDateAsc(
+            String text,
+            Boolean paid,
+            Boolean onlyAvailable,
+            List<Long> categories,
+            LocalDateTime rangeStart,
+            LocalDateTime rangeEnd,
+            double lat,
+            double lon,
+            double radiusKm,
+            @Nullable LocalDateTime afterDate,
+            @Nullable Long afterId,
+            Pageable pageable
+    ) {
+        final List<GeoHash.Range> ranges = GeoHash.cover(lat, lon, radiusKm);
+        final String inCellsClause = IntStream.range(0, ranges.size())
+                .mapToObj(i -> String.format("e.geohash BETWEEN :from%d AND :to%d", i, i))
+                .collect(Collectors.joining(" OR ", "  AND (", ") "));
+        final boolean after = afterDate != null && afterId != null;
+
+        final TypedQuery<Event> query = entityManager.createQuery(SEARCH_PUBLISHED_EVENTS_QUERY
+                        + inCellsClause
+                        + WITHIN_RADIUS_CLAUSE
+                        + (after ? AFTER_EVENT_DATE_CLAUSE : "")
+                        + ORDER_BY_EVENT_DATE_ASC_CLAUSE, Event.class)
+                .setParameter("text", text)
+                .setParameter("paid", paid)
+                .setParameter("onlyAvailable", onlyAvailable)
+                .setParameter("categories", categories)
+                .setParameter("rangeStart", rangeStart)
+                .setParameter("rangeEnd", rangeEnd)
+                .setParameter("latRadians", Math.toRadians(lat))
+                .setParameter("lonRadians", Math.toRadians(lon))
+                .setParameter("cosLat", Math.cos(Math.toRadians(lat)))
+                .setParameter("maxHaversine", GeoHash.maxHaversine(radiusKm))
+                .setHint(FETCH_GRAPH_HINT, entityManager.getEntityGraph(Event.WITH_INITIATOR_AND_CATEGORY))
+                .setFirstResult((int) pageable.getOffset())
+                .setMaxResults(pageable.getPageSize() + 1);
+        for (int i = 0; i < ranges.size(); i++) {
+            query.setParameter("from" + i, ranges.get(i).getFrom());
+            query.setParameter("to" + i, ranges.get(i).getTo());
+        }
+        if (after) {
+            query.setParameter("afterDate", afterDate);
+            query.setParameter("afterId", afterId);
+        }
+
+        final List<Event> events = new ArrayList<>(query.getResultList());
+        final boolean hasNext = events.size() > pageable.getPageSize();
+        if (hasNext) {
+            events.remove(events.size() - 1);
+        }
+        return new SliceImpl<>(events, pageable, hasNext);
+    }
+}
@@ -1,10 +1,12 @@
 package ru.practicum.ewm.repositories;
 
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import ru.practicum.ewm.entities.EventRequest;
 import ru.practicum.ewm.entities.EventRequestState;
+import ru.practicum.ewm.entities.EventRequestView;
 
 import java.util.List;
 
@@ -27,4 +29,44 @@ public interface EventRequestRepository extends JpaRepository<EventRequest, Long
             @Param("initiatorId") long initiatorId,
             @Param("status") EventRequestState status
     );
+
+    @Query("SELECT new ru.practicum.ewm.entities.EventRequestView(r.id, r.createdOn, r.status, e.id, r.requester.id) " +
+            "FROM EventRequest AS r " +
+            "JOIN r.event AS e " +
+            "JOIN e.initiator AS u " +
+            "WHERE r.id IN :requestIds " +
+            "  AND e.id = :eventId " +
+            "  AND u.id = :initiatorId " +
+            "ORDER BY r.id"
+    )
+    List<EventRequestView> findAllViewsWhereRequestIdInAndEventIdEqualsAndInitiatorIdEquals(
+            @Param("requestIds") List<Long> requestIds,
+            @Param("eventId") long eventId,
+            @Param("initiatorId") long initiatorId
+    );
+
+    /**
+     * Moves the given requests from {@code from} to {@code to} status in one statement.
+     *
+     * @return number of requests moved, less than the number of ids if some were not in {@code from} status
+     */
+    @Modifying(flushAutomatically = true)
+    @Query("UPDATE EventRequest AS r " +
+            "SET r.status = :to " +
+            "WHERE r.id IN :requestIds AND r.status = :from")
+    int updateStatus(
+            @Param("requestIds") List<Long> requestIds,
+            @Param("from") EventRequestState from,
+            @Param("to") EventRequestState to
+    );
+
+    @Modifying(flushAutomatically = true)
+    @Query("UPDATE EventRequest AS r " +
+            "SET r.status = :to " +
+            "WHERE r.event.id = :eventId AND r.status = :from")
+    int updateStatusByEventId(
+            @Param("eventId") long eventId,
+            @Param("from") EventRequestState from,
+            @Param("to") EventRequestState to
+    );
 }
@@ -0,0 +1,57 @@
+package ru.practicum.ewm.repositories;
+
+import lombok.AccessLevel;
+import lombok.NoArgsConstructor;
+
+import java.util.Arrays;
+import java.util.Locale;
+import java.util.regex.Pattern;
+
+/**
+ * Naive stand-ins for the full-text search functions of schema-postgresql.sql, registered in H2 by
+ * schema-h2.sql. A document matches when it contains every word of the query; rank is the share
+ * of the document taken by query words. There is no stemming and no index, which is fine for tests.
+ */
+@NoArgsConstructor(access = AccessLevel.PRIVATE)
+public final class H2FullTextFunctions {
+
+    private static final Pattern WORD_SEPARATOR = Pattern.compile("[^\\p{L}\\p{N}]+");
+
+    public static Boolean match(String description, String annotation, String query) {
+        if (query == null) {
+            return null;
+        }
+        final String document = document(description, annotation);
+        final String[] words = words(query);
+        return words.length > 0 && Arrays.stream(words).allMatch(document::contains);
+    }
+
+    public static Float rank(String description, String annotation, String query) {
+        if (query == null) {
+            return null;
+        }
+        final String document = document(description, annotation);
+        if (document.isEmpty()) {
+            return 0f;
+        }
+
+        int matched = 0;
+        for (final String word : words(query)) {
+            for (int i = document.indexOf(word); i >= 0; i = document.indexOf(word, i + word.length())) {
+                matched += word.length();
+            }
+        }
+        return (float) matched / document.length();
+    }
+
+    private static String document(String description, String annotation) {
+        final String text = (annotation == null ? "" : annotation) + " " + (description == null ? "" : description);
+        return text.toLowerCase(Locale.ROOT);
+    }
+
+    private static String[] words(String query) {
+        return Arrays.stream(WORD_SEPARATOR.split(query.toLowerCase(Locale.ROOT)))
+                .filter(word -> !word.isEmpty())
+                .toArray(String[]::new);
+    }
+}
@@ -1,7 +1,7 @@
 package ru.practicum.ewm.repositories;
 
-import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
 import org.springframework.data.jpa.repository.JpaRepository;
 import ru.practicum.ewm.entities.User;
 
@@ -9,5 +9,11 @@ import java.util.List;
 
 public interface UserRepository extends JpaRepository<User, Long> {
 
-    Page<User> findByIdInOrderByIdDesc(List<Long> userIds, Pageable pageable);
+    Slice<User> findAllByOrderByIdAsc(Pageable pageable);
+
+    Slice<User> findByIdGreaterThanOrderByIdAsc(long afterId, Pageable pageable);
+
+    Slice<User> findByIdInOrderByIdDesc(List<Long> userIds, Pageable pageable);
+
+    Slice<User> findByIdInAndIdLessThanOrderByIdDesc(List<Long> userIds, long afterId, Pageable pageable);
 }
@@ -15,4 +15,12 @@ public interface CategoryService {
     Category update(Category category);
 
     void delete(long categoryId) throws NotFoundException;
+
+    /**
+     * Version of all categories, read from the database so that every instance gives the same one. Read it before
+     * the categories, so that the version is never newer than what was read.
+     */
+    ContentVersion getVersion();
+
+    ContentVersion getVersion(Category category);
 }
@@ -7,10 +7,16 @@ import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
+import ru.practicum.ewm.entities.CategoriesVersion;
 import ru.practicum.ewm.entities.Category;
 import ru.practicum.ewm.exceptions.NotFoundException;
 import ru.practicum.ewm.repositories.CategoryRepository;
+import ru.practicum.ewm.repositories.EventRepository;
 
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.time.temporal.ChronoUnit;
 import java.util.Optional;
 
 @Slf4j
@@ -21,11 +27,15 @@ public class CategoryServiceImpl implements CategoryService {
     private static final String NOT_FOUND_MSG_FORMAT = "Category with id=%d was not found";
 
     private final CategoryRepository repo;
+    private final EventRepository eventRepository;
+    private final CompilationCache compilationCache;
 
     @Override
     @Transactional
     public Category create(Category category) {
-        return repo.save(category);
+        return repo.save(category.toBuilder()
+                .updatedOn(now())
+                .build());
     }
 
     @Override
@@ -50,13 +60,47 @@ public class CategoryServiceImpl implements CategoryService {
     @Override
     @Transactional
     public Category update(Category category) {
-        return repo.save(category);
+        compilationCache.invalidateAll();
+        eventRepository.incrementVersionByCategoryId(category.getId());
+        return repo.save(category.toBuilder()
+                .updatedOn(now())
+                .build());
     }
 
     @Override
     @Transactional
     public void delete(long categoryId) throws NotFoundException {
         this.get(categoryId);
+        compilationCache.invalidateAll();
         repo.deleteById(categoryId);
     }
+
+    @Override
+    @Transactional(readOnly = true)
+    public ContentVersion getVersion() {
+        final CategoriesVersion categories = repo.findVersion();
+        if (categories.getUpdatedOn() == null) {
+            return new ContentVersion("0", -1);
+        }
+        return version(categories.getCount(), categories.getUpdatedOn());
+    }
+
+    @Override
+    public ContentVersion getVersion(Category category) {
+        return version(category.getId(), category.getUpdatedOn());
+    }
+
+    private static ContentVersion version(long prefix, LocalDateTime updatedOn) {
+        final Instant instant = updatedOn.atZone(ZoneId.systemDefault()).toInstant();
+        return new ContentVersion(prefix + "-" + ChronoUnit.MICROS.between(Instant.EPOCH, instant),
+                instant.toEpochMilli());
+    }
+
+    /**
+     * Current time at the precision the database keeps, so that the saved category gives the same version
+     * as the one read back.
+     */
+    private static LocalDateTime now() {
+        return LocalDateTime.now().truncatedTo(ChronoUnit.MICROS);
+    }
 }
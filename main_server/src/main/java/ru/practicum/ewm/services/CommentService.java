@@ -1,17 +1,26 @@
 package ru.practicum.ewm.services;
 
-import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Slice;
 import ru.practicum.ewm.entities.Comment;
 import ru.practicum.ewm.exceptions.ForbiddenOperation;
 import ru.practicum.ewm.exceptions.NotFoundException;
+import ru.practicum.ewm.utils.PageCursor;
+
+import java.util.List;
 
 public interface CommentService {
 
-    Comment create(final Comment comment);
+    Comment create(final Comment comment) throws ForbiddenOperation;
+
+    Slice<Comment> getAll(int from, int size);
+
+    Slice<Comment> getAll(PageCursor after, int size);
+
+    Slice<Comment> getAllByEventId(long eventId, int from, int size);
 
-    Page<Comment> getAll(int from, int size);
+    Slice<Comment> getAllByEventId(long eventId, PageCursor after, int size);
 
-    Page<Comment> getAllByEventId(long eventId, int from, int size);
+    List<Comment> getLatestByEventId(long eventId, int limit);
 
     Comment getById(long commentId) throws NotFoundException;
 
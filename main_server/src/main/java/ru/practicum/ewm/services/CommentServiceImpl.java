@@ -2,17 +2,22 @@ package ru.practicum.ewm.services;
 
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
-import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 import ru.practicum.ewm.entities.Comment;
+import ru.practicum.ewm.entities.Event;
+import ru.practicum.ewm.entities.EventStatus;
 import ru.practicum.ewm.exceptions.ForbiddenOperation;
 import ru.practicum.ewm.exceptions.NotFoundException;
 import ru.practicum.ewm.repositories.CommentRepository;
+import ru.practicum.ewm.repositories.EventRepository;
+import ru.practicum.ewm.utils.PageCursor;
 
 import java.time.LocalDateTime;
+import java.util.List;
 import java.util.Objects;
 import java.util.Optional;
 
@@ -24,33 +29,63 @@ public class CommentServiceImpl implements CommentService {
     private static final String NOT_FOUND_MSG_FORMAT = "Comment with id=%d was not found";
     private static final String NOT_ALLOWED_FOR_USER_ERROR_MSG_FORMAT = "Comment with id=%d is not owned by userId=%d";
     private static final String NOT_ALLOWED_FOR_EVENT_ERROR_MSG_FORMAT = "Comment with id=%d is not linked to eventId=%d";
+    private static final String COMMENT_TO_NON_PUBLISHED_ERROR_MSG_FORMAT = "коментировать можно только опубликованные события: %s";
 
     private final CommentRepository repo;
+    private final EventRepository eventRepository;
+    private final CompilationCache compilationCache;
 
     @Override
     @Transactional
-    public Comment create(final Comment comment) {
+    public Comment create(final Comment comment) throws ForbiddenOperation {
+        final Event event = comment.getEvent();
+        if (event.getState() != EventStatus.PUBLISHED) {
+            throw new ForbiddenOperation(
+                    String.format(COMMENT_TO_NON_PUBLISHED_ERROR_MSG_FORMAT, event.getState())
+            );
+        }
+
         final LocalDateTime now = LocalDateTime.now();
         final Comment newComment = comment.toBuilder()
                 .createdOn(now)
                 .editedOn(now)
                 .build();
 
+        eventRepository.addCommentCount(event.getId(), 1);
+        compilationCache.invalidateEvent(event.getId());
         return repo.save(newComment);
     }
 
     @Override
     @Transactional(readOnly = true)
-    public Page<Comment> getAll(int from, int size) {
+    public Slice<Comment> getAll(int from, int size) {
         Pageable pageable = PageRequest.of(from / size, size);
-        return repo.findAll(pageable);
+        return repo.findAllByOrderByIdAsc(pageable);
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public Slice<Comment> getAll(PageCursor after, int size) {
+        return repo.findByIdGreaterThanOrderByIdAsc(after.getId(), PageRequest.ofSize(size));
     }
 
     @Override
     @Transactional(readOnly = true)
-    public Page<Comment> getAllByEventId(long eventId, int from, int size) {
+    public Slice<Comment> getAllByEventId(long eventId, int from, int size) {
         Pageable pageable = PageRequest.of(from / size, size);
-        return repo.findAllByEventId(eventId, pageable);
+        return repo.findAllByEventIdOrderByIdAsc(eventId, pageable);
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public Slice<Comment> getAllByEventId(long eventId, PageCursor after, int size) {
+        return repo.findAllByEventIdAndIdGreaterThanOrderByIdAsc(eventId, after.getId(), PageRequest.ofSize(size));
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public List<Comment> getLatestByEventId(long eventId, int limit) {
+        return repo.findAllByEventIdOrderByCreatedOnDescIdDesc(eventId, PageRequest.ofSize(limit));
     }
 
     @Override
@@ -85,6 +120,7 @@ public class CommentServiceImpl implements CommentService {
         updatedCommentBuilder.text(updateComment.getText());
 
         final Comment updatedComment = updatedCommentBuilder.build();
+        eventRepository.incrementVersion(comment.getEvent().getId());
         return repo.save(updatedComment);
     }
 
@@ -109,13 +145,19 @@ public class CommentServiceImpl implements CommentService {
             throw new ForbiddenOperation(errorMessage);
         }
 
-        repo.deleteById(commentId);
+        this.delete(comment);
     }
 
     @Override
     @Transactional
     public void deleteById(long commentId) throws NotFoundException {
-        getById(commentId);
-        repo.deleteById(commentId);
+        this.delete(getById(commentId));
+    }
+
+    private void delete(Comment comment) {
+        final long eventId = comment.getEvent().getId();
+        repo.deleteById(comment.getId());
+        eventRepository.addCommentCount(eventId, -1);
+        compilationCache.invalidateEvent(eventId);
     }
 }
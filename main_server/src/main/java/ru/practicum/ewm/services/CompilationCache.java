@@ -0,0 +1,138 @@
+package ru.practicum.ewm.services;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import lombok.EqualsAndHashCode;
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.lang.Nullable;
+import org.springframework.stereotype.Component;
+import org.springframework.util.DigestUtils;
+
+import java.time.Duration;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Predicate;
+import java.util.function.Supplier;
+
+import static ru.practicum.ewm.utils.TransactionUtils.afterCommit;
+
+/**
+ * Serialized public compilation responses, single compilations and pages of them, so that a cached read
+ * does not query the database. Entries are dropped once a transaction that changes what they show commits:
+ * the compilation itself, one of its events, or the categories and users the events refer to.
+ * Only commits on this instance drop entries: a change made on another instance, or one written around
+ * the services (views sync, geohash backfill, manual SQL), shows once the entry expires after
+ * {@code compilation-cache.expire-after-write-ms}.
+ */
+@Component
+public class CompilationCache {
+
+    private static final String CACHE_NAME = "ewm.compilations";
+
+    private final Cache<Object, Rendered> cache;
+
+    /**
+     * Bumped by every invalidation, a response rendered while it changed may be stale and is not kept.
+     */
+    private final AtomicLong generation = new AtomicLong();
+
+    public CompilationCache(
+            MeterRegistry registry,
+            @Value("${compilation-cache.maximum-size:1000}") long maximumSize,
+            @Value("${compilation-cache.expire-after-write-ms:60000}") long expireAfterWriteMs
+    ) {
+        this.cache = Caffeine.newBuilder()
+                .maximumSize(maximumSize)
+                .expireAfterWrite(Duration.ofMillis(expireAfterWriteMs))
+                .recordStats()
+                .build();
+
+        CaffeineCacheMetrics.monitor(registry, cache, CACHE_NAME);
+    }
+
+    public Rendered getById(long compId, Supplier<Rendered> renderer) {
+        return get(new CompilationKey(compId), renderer);
+    }
+
+    public Rendered getPage(@Nullable Boolean pinned, int from, int size, Supplier<Rendered> renderer) {
+        return get(new PageKey(pinned, from, size), renderer);
+    }
+
+    /**
+     * Drops the compilation and all pages once the current transaction commits.
+     */
+    public void invalidateCompilation(@Nullable Long compId) {
+        afterCommit(() -> invalidate(key -> key instanceof PageKey
+                || (compId != null && key.equals(new CompilationKey(compId)))));
+    }
+
+    /**
+     * Drops the compilations and pages showing the event once the current transaction commits.
+     */
+    public void invalidateEvent(long eventId) {
+        afterCommit(() -> {
+            generation.incrementAndGet();
+            cache.asMap().entrySet().removeIf(entry -> entry.getValue().getEventIds().contains(eventId));
+        });
+    }
+
+    /**
+     * Drops everything once the current transaction commits, for changes that may show in any compilation.
+     */
+    public void invalidateAll() {
+        afterCommit(() -> invalidate(key -> true));
+    }
+
+    private Rendered get(Object key, Supplier<Rendered> renderer) {
+        final Rendered cached = cache.getIfPresent(key);
+        if (cached != null) {
+            return cached;
+        }
+
+        final long renderedAt = generation.get();
+        final Rendered rendered = renderer.get();
+        cache.put(key, rendered);
+        if (generation.get() != renderedAt) {
+            cache.asMap().remove(key, rendered);
+        }
+        return rendered;
+    }
+
+    private void invalidate(Predicate<Object> keys) {
+        generation.incrementAndGet();
+        cache.asMap().keySet().removeIf(keys);
+    }
+
+    @Getter
+    public static class Rendered {
+        private final byte[] body;
+        private final Set<Long> eventIds;
+        private final String etag;
+        private final long lastModified;
+
+        public Rendered(byte[] body, Set<Long> eventIds) {
+            this.body = body;
+            this.eventIds = eventIds;
+            this.etag = DigestUtils.md5DigestAsHex(body);
+            this.lastModified = System.currentTimeMillis();
+        }
+    }
+
+    @EqualsAndHashCode
+    @RequiredArgsConstructor
+    private static class CompilationKey {
+        private final long compId;
+    }
+
+    @EqualsAndHashCode
+    @RequiredArgsConstructor
+    private static class PageKey {
+        private final Boolean pinned;
+        private final int from;
+        private final int size;
+    }
+}
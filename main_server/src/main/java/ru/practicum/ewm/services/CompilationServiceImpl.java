@@ -8,13 +8,12 @@ import org.springframework.data.domain.Pageable;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 import ru.practicum.ewm.entities.Compilation;
-import ru.practicum.ewm.entities.CompilationEventLink;
 import ru.practicum.ewm.entities.Event;
 import ru.practicum.ewm.exceptions.NotFoundException;
 import ru.practicum.ewm.repositories.CompilationEventLinkRepository;
 import ru.practicum.ewm.repositories.CompilationRepository;
 
-import java.util.List;
+import java.util.Arrays;
 import java.util.Optional;
 import java.util.stream.Collectors;
 
@@ -27,10 +26,12 @@ public class CompilationServiceImpl implements CompilationService {
 
     private final CompilationRepository compilationRepository;
     private final CompilationEventLinkRepository compilationEventLinkRepository;
+    private final CompilationCache compilationCache;
 
     @Override
     @Transactional
     public Compilation create(Compilation compilation) {
+        compilationCache.invalidateCompilation(null);
         return compilationRepository.save(compilation);
     }
 
@@ -38,6 +39,7 @@ public class CompilationServiceImpl implements CompilationService {
     @Transactional
     public Compilation update(Compilation updateCompilation) throws NotFoundException {
         final Compilation compilation = this.getById(updateCompilation.getId());
+        compilationCache.invalidateCompilation(compilation.getId());
 
         // update compilation
         final Compilation.CompilationBuilder updatedCompilationBuilder = compilation.toBuilder();
@@ -52,44 +54,35 @@ public class CompilationServiceImpl implements CompilationService {
             updatedCompilationBuilder.pinned(updateCompilation.getPinned());
         }
 
-        if (updateCompilation.getEvents() != null
-                && !compilation.getEvents().equals(updateCompilation.getEvents())) {
-
-            final List<Long> oldEventIds = compilation.getEvents().stream()
-                    .map(Event::getId)
-                    .collect(Collectors.toList());
-            final List<Long> newEventIds = updateCompilation.getEvents().stream()
-                    .map(Event::getId)
-                    .collect(Collectors.toList());
-
-            final List<Long> addedEventIds = newEventIds.stream()
-                    .filter(id -> !oldEventIds.contains(id))
-                    .collect(Collectors.toList());
-            final List<Long> removedEventIds = oldEventIds.stream()
-                    .filter(id -> !newEventIds.contains(id))
-                    .collect(Collectors.toList());
-
-            // add new links
-            final List<CompilationEventLink> addedEventLinks = addedEventIds.stream()
-                    .map(eventId -> CompilationEventLink.builder()
-                            .compilationId(compilation.getId())
-                            .eventId(eventId)
-                            .build())
-                    .collect(Collectors.toList());
-            compilationEventLinkRepository.saveAll(addedEventLinks);
-
-            // remove old links
-            final List<CompilationEventLink> removedEventLinks = compilationEventLinkRepository
-                    .findAllByCompilationIdEqualsAndEventIdIn(
-                            compilation.getId(), removedEventIds
-                    );
-            compilationEventLinkRepository.deleteAll(removedEventLinks);
-
-            // skip already inserted links
-            updatedCompilationBuilder.events(null);
+        if (updateCompilation.getEvents() == null) {
+            return compilationRepository.save(updatedCompilationBuilder.build());
         }
 
-        return compilationRepository.save(updatedCompilationBuilder.build());
+        final long[] oldEventIds = compilationEventLinkRepository.findEventIdsByCompilationId(compilation.getId())
+                .stream()
+                .mapToLong(Long::longValue)
+                .toArray();
+        final long[] newEventIds = updateCompilation.getEvents().stream()
+                .mapToLong(Event::getId)
+                .sorted()
+                .distinct()
+                .toArray();
+
+        // add new links
+        compilationEventLinkRepository.insertLinks(compilation.getId(), difference(newEventIds, oldEventIds));
+
+        // remove old links
+        final long[] removedEventIds = difference(oldEventIds, newEventIds);
+        if (removedEventIds.length > 0) {
+            compilationEventLinkRepository.deleteLinks(compilation.getId(),
+                    Arrays.stream(removedEventIds).boxed().collect(Collectors.toList()));
+        }
+
+        // links are already written, the lazy collection is kept as is so that merge leaves it alone
+        final Compilation savedCompilation = compilationRepository.save(updatedCompilationBuilder.build());
+        return savedCompilation.toBuilder()
+                .events(updateCompilation.getEvents())
+                .build();
     }
 
     @Override
@@ -118,6 +111,25 @@ public class CompilationServiceImpl implements CompilationService {
     @Transactional
     public void delete(long compId) throws NotFoundException {
         this.getById(compId);
+        compilationCache.invalidateCompilation(compId);
         compilationRepository.deleteById(compId);
     }
+
+    /**
+     * Ids of the sorted {@code ids} that are not in the sorted {@code other}.
+     */
+    static long[] difference(long[] ids, long[] other) {
+        final long[] result = new long[ids.length];
+        int count = 0;
+        int j = 0;
+        for (final long id : ids) {
+            while (j < other.length && other[j] < id) {
+                j++;
+            }
+            if (j == other.length || other[j] != id) {
+                result[count++] = id;
+            }
+        }
+        return Arrays.copyOf(result, count);
+    }
 }
@@ -0,0 +1,12 @@
+package ru.practicum.ewm.services;
+
+import lombok.Value;
+
+/**
+ * ETag and last modification time of a resource, for conditional GET.
+ */
+@Value
+public class ContentVersion {
+    String etag;
+    long lastModified;
+}
@@ -0,0 +1,35 @@
+package ru.practicum.ewm.services;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.stereotype.Component;
+import ru.practicum.ewm.repositories.EventRepository;
+
+/**
+ * Sets the geohash of events created before it was stored, so that radius search finds them.
+ * Events created or moved since get their geohash from {@link EventServiceImpl}, so after the first run
+ * this finds nothing to do.
+ */
+@Slf4j
+@Component
+public class EventGeoHashBackfill implements ApplicationRunner {
+
+    private final EventRepository repo;
+    private final int batchSize;
+
+    public EventGeoHashBackfill(EventRepository repo,
+                                @Value("${event-geohash.backfill-batch-size:500}") int batchSize) {
+        this.repo = repo;
+        this.batchSize = batchSize;
+    }
+
+    @Override
+    public void run(ApplicationArguments args) {
+        final int updated = repo.fillMissingGeohashes(batchSize);
+        if (updated > 0) {
+            log.info("Set the geohash of {} events saved without one", updated);
+        }
+    }
+}
@@ -2,6 +2,7 @@ package ru.practicum.ewm.services;
 
 import lombok.NonNull;
 import ru.practicum.ewm.entities.EventRequest;
+import ru.practicum.ewm.entities.EventRequestView;
 import ru.practicum.ewm.exceptions.ForbiddenOperation;
 import ru.practicum.ewm.exceptions.NotFoundException;
 
@@ -23,13 +24,13 @@ public interface EventRequestService {
 
     EventRequest cancelEventRequest(long requestId, long userId) throws NotFoundException;
 
-    List<EventRequest> confirmEventRequests(
+    List<EventRequestView> confirmEventRequests(
             @NonNull List<Long> requestIds,
             long eventId,
             long userId
     ) throws NotFoundException, ForbiddenOperation;
 
-    List<EventRequest> rejectEventRequests(
+    List<EventRequestView> rejectEventRequests(
             @NonNull List<Long> requestIds,
             long eventId,
             long userId
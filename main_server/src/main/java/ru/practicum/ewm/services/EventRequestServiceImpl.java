@@ -8,6 +8,7 @@ import org.springframework.transaction.annotation.Transactional;
 import ru.practicum.ewm.entities.Event;
 import ru.practicum.ewm.entities.EventRequest;
 import ru.practicum.ewm.entities.EventRequestState;
+import ru.practicum.ewm.entities.EventRequestView;
 import ru.practicum.ewm.entities.EventStatus;
 import ru.practicum.ewm.exceptions.ForbiddenOperation;
 import ru.practicum.ewm.exceptions.NotFoundException;
@@ -15,10 +16,9 @@ import ru.practicum.ewm.repositories.EventRepository;
 import ru.practicum.ewm.repositories.EventRequestRepository;
 
 import java.time.LocalDateTime;
-import java.util.ArrayList;
 import java.util.List;
-import java.util.Objects;
 import java.util.Optional;
+import java.util.stream.Collectors;
 
 import static ru.practicum.ewm.common.EWMConstants.EVENT_NOT_FOUND_MSG_FORMAT;
 
@@ -32,9 +32,12 @@ public class EventRequestServiceImpl implements EventRequestService {
     private static final String USER_REQUEST_FOR_ITS_OWN_EVENT_IS_REJECTED_ERROR_MSG = "Event initiator couldn't create request to participate in its own event";
     private static final String USER_REQUEST_FOR_UNPUBLISHED_EVENT_IS_REJECTED_ERROR_MSG = "Event must be published to participate";
     private static final String USER_REQUEST_FOR_NOT_AVAILABLE_EVENT_IS_REJECTED_ERROR_MSG = "Event must have free slots to participate";
+    private static final String PARTICIPANT_LIMIT_REACHED_ERROR_MSG = "The participant limit has been reached";
+    private static final String REQUEST_NOT_PENDING_ERROR_MSG = "Request should be in non-terminal state";
 
     private final EventRequestRepository eventRequestRepository;
     private final EventRepository eventRepository;
+    private final CompilationCache compilationCache;
 
     @Override
     @Transactional
@@ -56,8 +59,10 @@ public class EventRequestServiceImpl implements EventRequestService {
         final EventRequest.EventRequestBuilder newEventRequestBuilder = request.toBuilder();
 
         if (isAutoApproval) {
-            event.setConfirmedRequests(event.getConfirmedRequests() + 1);
-            eventRepository.save(event);
+            if (eventRepository.reserveParticipantSlots(event.getId(), 1) == 0) {
+                throw new ForbiddenOperation(USER_REQUEST_FOR_NOT_AVAILABLE_EVENT_IS_REJECTED_ERROR_MSG);
+            }
+            compilationCache.invalidateEvent(event.getId());
 
             newEventRequestBuilder.status(EventRequestState.CONFIRMED);
         } else {
@@ -113,7 +118,7 @@ public class EventRequestServiceImpl implements EventRequestService {
 
     @Override
     @Transactional
-    public List<EventRequest> confirmEventRequests(
+    public List<EventRequestView> confirmEventRequests(
             @NonNull List<Long> requestIds,
             long eventId,
             long initiatorId
@@ -121,92 +126,87 @@ public class EventRequestServiceImpl implements EventRequestService {
         final Event event = eventRepository.findById(eventId)
                 .orElseThrow(() -> new NotFoundException(String.format(EVENT_NOT_FOUND_MSG_FORMAT, eventId)));
 
-        if (event.getParticipantLimit() == 0 || !event.getRequestModeration()) {
-            return this.getAllForEventIdByInitiator(
-                    requestIds, eventId, initiatorId
-            );
+        if (requestIds.isEmpty()) {
+            return List.of();
         }
 
-        final List<EventRequest> eventRequests = this.getAllForEventIdByInitiator(requestIds, eventId, initiatorId);
-        final List<EventRequest> confirmedEventRequests = new ArrayList<>();
-
-        for (final EventRequest eventRequest : eventRequests) {
-            if (!EventRequestState.PENDING.equals(eventRequest.getStatus())) {
-                throw new ForbiddenOperation("Request should be in non-terminal state");
-            }
+        final List<EventRequestView> eventRequests = eventRequestRepository
+                .findAllViewsWhereRequestIdInAndEventIdEqualsAndInitiatorIdEquals(requestIds, eventId, initiatorId);
 
-            // increment event confirmed requests
-            event.setConfirmedRequests(
-                    event.getConfirmedRequests() + 1
-            );
+        if (event.getParticipantLimit() == 0 || !event.getRequestModeration() || eventRequests.isEmpty()) {
+            return eventRequests;
+        }
 
-            // update eventRequest to Confirmed
-            final EventRequest updatedEventRequest = eventRequest.toBuilder()
-                    .status(EventRequestState.CONFIRMED)
-                    .build();
+        this.requirePending(eventRequests);
 
-            confirmedEventRequests.add(updatedEventRequest);
+        // take all slots at once or none, concurrent confirmations can't oversell the event
+        if (eventRepository.reserveParticipantSlots(eventId, eventRequests.size()) == 0) {
+            throw new ForbiddenOperation(PARTICIPANT_LIMIT_REACHED_ERROR_MSG);
         }
+        compilationCache.invalidateEvent(eventId);
 
-        // if succeeds it means no db constraints are violated
-        eventRepository.save(event);
-
-        // save confirmed eventRequests
-        eventRequestRepository.saveAll(confirmedEventRequests);
+        final List<EventRequestView> confirmedEventRequests =
+                this.updatePendingStatus(eventRequests, EventRequestState.CONFIRMED);
 
-        if (!Objects.equals(event.getConfirmedRequests(), event.getParticipantLimit())) {
+        if (eventRepository.countFreeParticipantSlots(eventId) > 0) {
             return confirmedEventRequests;
         }
 
         // auto-reject all other requests from any user
-        final List<EventRequest> rejectedEventRequests = new ArrayList<>();
-        final List<EventRequest> pendingEventRequests = eventRequestRepository
-                .findAllWhereRequestIdInAndEventIdEqualsAndInitiatorIdEqualsAndStatusEquals(
-                        null, eventId, initiatorId, EventRequestState.PENDING
-                );
-
-        for (final EventRequest eventRequest : pendingEventRequests) {
-
-            // update pending eventRequest to Rejected
-            final EventRequest updatedEventRequest = eventRequest.toBuilder()
-                    .status(EventRequestState.REJECTED)
-                    .build();
-
-            rejectedEventRequests.add(updatedEventRequest);
-        }
-
-        // save rejected eventRequests
-        eventRequestRepository.saveAll(rejectedEventRequests);
+        final int rejected = eventRequestRepository.updateStatusByEventId(
+                eventId, EventRequestState.PENDING, EventRequestState.REJECTED);
+        log.info("Participant limit of event id={} is reached, {} pending requests rejected", eventId, rejected);
 
         return confirmedEventRequests;
     }
 
     @Override
     @Transactional
-    public List<EventRequest> rejectEventRequests(
+    public List<EventRequestView> rejectEventRequests(
             @NonNull List<Long> requestIds,
             long eventId,
             long initiatorId
     ) throws NotFoundException, ForbiddenOperation {
-        final List<EventRequest> eventRequests = this.getAllForEventIdByInitiator(requestIds, eventId, initiatorId);
-        final List<EventRequest> rejectedEventRequests = new ArrayList<>();
+        if (requestIds.isEmpty()) {
+            return List.of();
+        }
 
-        for (final EventRequest eventRequest : eventRequests) {
-            if (!EventRequestState.PENDING.equals(eventRequest.getStatus())) {
-                throw new ForbiddenOperation("Request should be in non-terminal state");
-            }
+        final List<EventRequestView> eventRequests = eventRequestRepository
+                .findAllViewsWhereRequestIdInAndEventIdEqualsAndInitiatorIdEquals(requestIds, eventId, initiatorId);
+
+        if (eventRequests.isEmpty()) {
+            return eventRequests;
+        }
 
-            // update eventRequest to Rejected
-            final EventRequest updatedEventRequest = eventRequest.toBuilder()
-                    .status(EventRequestState.REJECTED)
-                    .build();
+        this.requirePending(eventRequests);
 
-            rejectedEventRequests.add(updatedEventRequest);
+        return this.updatePendingStatus(eventRequests, EventRequestState.REJECTED);
+    }
+
+    private void requirePending(@NonNull List<EventRequestView> eventRequests) throws ForbiddenOperation {
+        if (eventRequests.stream().anyMatch(r -> !EventRequestState.PENDING.equals(r.getStatus()))) {
+            throw new ForbiddenOperation(REQUEST_NOT_PENDING_ERROR_MSG);
         }
+    }
 
-        // save rejected eventRequests
-        eventRequestRepository.saveAll(rejectedEventRequests);
+    /**
+     * Moves all given requests out of PENDING with a single update, fails if any of them is not pending anymore.
+     */
+    private List<EventRequestView> updatePendingStatus(
+            @NonNull List<EventRequestView> eventRequests,
+            @NonNull EventRequestState status
+    ) throws ForbiddenOperation {
+        final List<Long> ids = eventRequests.stream()
+                .map(EventRequestView::getId)
+                .collect(Collectors.toList());
+
+        // a request changed concurrently since it was read, the transaction is rolled back
+        if (eventRequestRepository.updateStatus(ids, EventRequestState.PENDING, status) != ids.size()) {
+            throw new ForbiddenOperation(REQUEST_NOT_PENDING_ERROR_MSG);
+        }
 
-        return rejectedEventRequests;
+        return eventRequests.stream()
+                .map(r -> r.toBuilder().status(status).build())
+                .collect(Collectors.toList());
     }
 }
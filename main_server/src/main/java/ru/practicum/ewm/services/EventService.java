@@ -1,13 +1,14 @@
 package ru.practicum.ewm.services;
 
 import lombok.NonNull;
-import org.springframework.data.domain.Page;
-import ru.practicum.ewm.entities.Comment;
+import org.springframework.data.domain.Slice;
 import ru.practicum.ewm.entities.Event;
 import ru.practicum.ewm.entities.EventStatus;
 import ru.practicum.ewm.exceptions.ForbiddenOperation;
 import ru.practicum.ewm.exceptions.NotFoundException;
+import ru.practicum.ewm.utils.PageCursor;
 
+import javax.validation.ValidationException;
 import java.time.LocalDateTime;
 import java.util.List;
 
@@ -15,7 +16,7 @@ public interface EventService {
 
     Event create(final Event event);
 
-    Page<Event> search(
+    Slice<Event> search(
             final List<Long> users,
             final List<EventStatus> states,
             final List<Long> categories,
@@ -25,7 +26,7 @@ public interface EventService {
             int size
     );
 
-    Page<Event> searchPublishedEvents(
+    Slice<Event> searchPublishedEvents(
             final String text,
             final Boolean paid,
             final Boolean onlyAvailable,
@@ -36,9 +37,70 @@ public interface EventService {
             int size
     );
 
+    Slice<Event> searchPublishedEvents(
+            final String text,
+            final Boolean paid,
+            final Boolean onlyAvailable,
+            final List<Long> categories,
+            final LocalDateTime rangeStart,
+            final LocalDateTime rangeEnd,
+            final PageCursor after,
+            int size
+    ) throws ValidationException;
+
+    Slice<Event> searchPublishedEventsOrderByViews(
+            final String text,
+            final Boolean paid,
+            final Boolean onlyAvailable,
+            final List<Long> categories,
+            final LocalDateTime rangeStart,
+            final LocalDateTime rangeEnd,
+            int from,
+            int size
+    );
+
+    Slice<Event> searchPublishedEventsOrderByRelevance(
+            @NonNull final String text,
+            final Boolean paid,
+            final Boolean onlyAvailable,
+            final List<Long> categories,
+            final LocalDateTime rangeStart,
+            final LocalDateTime rangeEnd,
+            int from,
+            int size
+    );
+
+    Slice<Event> searchPublishedEventsNear(
+            final String text,
+            final Boolean paid,
+            final Boolean onlyAvailable,
+            final List<Long> categories,
+            final LocalDateTime rangeStart,
+            final LocalDateTime rangeEnd,
+            double lat,
+            double lon,
+            double radiusKm,
+            int from,
+            int size
+    );
+
+    Slice<Event> searchPublishedEventsNear(
+            final String text,
+            final Boolean paid,
+            final Boolean onlyAvailable,
+            final List<Long> categories,
+            final LocalDateTime rangeStart,
+            final LocalDateTime rangeEnd,
+            double lat,
+            double lon,
+            double radiusKm,
+            final PageCursor after,
+            int size
+    ) throws ValidationException;
+
     List<Event> getAllFilterByIds(@NonNull final List<Long> eventIds);
 
-    Page<Event> getAllByUserId(long userId, int from, int size);
+    Slice<Event> getAllByUserId(long userId, int from, int size);
 
     Event getById(long eventId) throws NotFoundException;
 
@@ -47,8 +109,6 @@ public interface EventService {
     Event updateById(final Event updateEvent, long eventId)
             throws NotFoundException, ForbiddenOperation;
 
-    Event addComment(final Comment comment, long eventId) throws NotFoundException, ForbiddenOperation;
-
     Event getByIdAndUserId(long eventId, long userId) throws NotFoundException;
 
     Event updateByEventIdAndUserId(final Event updateEvent, long eventId, long userId)
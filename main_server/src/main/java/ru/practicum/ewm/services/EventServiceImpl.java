@@ -3,18 +3,20 @@ package ru.practicum.ewm.services;
 import lombok.NonNull;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
-import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
-import ru.practicum.ewm.entities.Comment;
 import ru.practicum.ewm.entities.Event;
 import ru.practicum.ewm.entities.EventStatus;
 import ru.practicum.ewm.exceptions.ForbiddenOperation;
 import ru.practicum.ewm.exceptions.NotFoundException;
 import ru.practicum.ewm.repositories.EventRepository;
+import ru.practicum.ewm.utils.GeoHash;
+import ru.practicum.ewm.utils.PageCursor;
 
+import javax.validation.ValidationException;
 import java.time.LocalDateTime;
 import java.util.List;
 import java.util.Optional;
@@ -31,12 +33,12 @@ public class EventServiceImpl implements EventService {
     private static final String ADMIN_PUBLISH_EVENT_IS_REJECTED_ERROR_MSG_FORMAT = "Cannot publish the event because it's not in the right state: %s";
     private static final String ADMIN_CANCEL_EVENT_IS_REJECTED_ERROR_MSG_FORMAT = "Cannot cancel the event because it's not in the right state: %s";
     private static final String INVALID_EVENT_DATE_ERROR_MSG_FORMAT = "eventDate должно содержать дату после: %s";
-    private static final String COMMENT_TO_NON_PUBLISHED_ERROR_MSG_FORMAT = "коментировать можно только опубликованные события: %s";
 
     private static final int MINIMAL_EVENT_DATE_HOURS = 2;
     private static final int MINIMAL_PUBLISH_DATE_HOURS = 1;
 
     private final EventRepository repo;
+    private final CompilationCache compilationCache;
 
     @Override
     @Transactional
@@ -51,6 +53,11 @@ public class EventServiceImpl implements EventService {
                 .createdOn(now)
                 .state(EventStatus.PENDING)
                 .confirmedRequests(0)
+                // not inserted by Hibernate, set to the column defaults so the saved event reads like a loaded one
+                .views(0L)
+                .commentCount(0)
+                .version(0L)
+                .geohash(GeoHash.encode(event.getLatitude(), event.getLongitude()))
                 .build();
 
         return repo.save(newEvent);
@@ -58,7 +65,7 @@ public class EventServiceImpl implements EventService {
 
     @Override
     @Transactional(readOnly = true)
-    public Page<Event> search(
+    public Slice<Event> search(
             final List<Long> users,
             final List<EventStatus> states,
             final List<Long> categories,
@@ -80,7 +87,7 @@ public class EventServiceImpl implements EventService {
 
     @Override
     @Transactional(readOnly = true)
-    public Page<Event> searchPublishedEvents(
+    public Slice<Event> searchPublishedEvents(
             final String text,
             final Boolean paid,
             final Boolean onlyAvailable,
@@ -102,6 +109,142 @@ public class EventServiceImpl implements EventService {
          );
     }
 
+    @Override
+    @Transactional(readOnly = true)
+    public Slice<Event> searchPublishedEvents(
+            final String text,
+            final Boolean paid,
+            final Boolean onlyAvailable,
+            final List<Long> categories,
+            final LocalDateTime rangeStart,
+            final LocalDateTime rangeEnd,
+            final PageCursor after,
+            int size
+    ) throws ValidationException {
+        return repo.searchPublishedEventsAfterOrderByEventDateAsc(
+                text,
+                paid,
+                onlyAvailable,
+                categories,
+                rangeStart,
+                rangeEnd,
+                after.requireSortKey(),
+                after.getId(),
+                PageRequest.ofSize(size)
+        );
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public Slice<Event> searchPublishedEventsOrderByViews(
+            final String text,
+            final Boolean paid,
+            final Boolean onlyAvailable,
+            final List<Long> categories,
+            final LocalDateTime rangeStart,
+            final LocalDateTime rangeEnd,
+            int from,
+            int size
+    ) {
+        Pageable pageable = PageRequest.of(from / size, size);
+        return repo.searchPublishedEventsOrderByViewsDesc(
+                text,
+                paid,
+                onlyAvailable,
+                categories,
+                rangeStart,
+                rangeEnd,
+                pageable
+        );
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public Slice<Event> searchPublishedEventsOrderByRelevance(
+            @NonNull final String text,
+            final Boolean paid,
+            final Boolean onlyAvailable,
+            final List<Long> categories,
+            final LocalDateTime rangeStart,
+            final LocalDateTime rangeEnd,
+            int from,
+            int size
+    ) {
+        Pageable pageable = PageRequest.of(from / size, size);
+        return repo.searchPublishedEventsOrderByRelevanceDesc(
+                text,
+                paid,
+                onlyAvailable,
+                categories,
+                rangeStart,
+                rangeEnd,
+                pageable
+        );
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public Slice<Event> searchPublishedEventsNear(
+            final String text,
+            final Boolean paid,
+            final Boolean onlyAvailable,
+            final List<Long> categories,
+            final LocalDateTime rangeStart,
+            final LocalDateTime rangeEnd,
+            double lat,
+            double lon,
+            double radiusKm,
+            int from,
+            int size
+    ) {
+        Pageable pageable = PageRequest.of(from / size, size);
+        return repo.searchPublishedEventsNearOrderByEventDateAsc(
+                text,
+                paid,
+                onlyAvailable,
+                categories,
+                rangeStart,
+                rangeEnd,
+                lat,
+                lon,
+                radiusKm,
+                null,
+                null,
+                pageable
+        );
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public Slice<Event> searchPublishedEventsNear(
+            final String text,
+            final Boolean paid,
+            final Boolean onlyAvailable,
+            final List<Long> categories,
+            final LocalDateTime rangeStart,
+            final LocalDateTime rangeEnd,
+            double lat,
+            double lon,
+            double radiusKm,
+            final PageCursor after,
+            int size
+    ) throws ValidationException {
+        return repo.searchPublishedEventsNearOrderByEventDateAsc(
+                text,
+                paid,
+                onlyAvailable,
+                categories,
+                rangeStart,
+                rangeEnd,
+                lat,
+                lon,
+                radiusKm,
+                after.requireSortKey(),
+                after.getId(),
+                PageRequest.ofSize(size)
+        );
+    }
+
     @Override
     @Transactional(readOnly = true)
     public List<Event> getAllFilterByIds(@NonNull final List<Long> eventIds) {
@@ -110,7 +253,7 @@ public class EventServiceImpl implements EventService {
 
     @Override
     @Transactional(readOnly = true)
-    public Page<Event> getAllByUserId(long userId, int from, int size) {
+    public Slice<Event> getAllByUserId(long userId, int from, int size) {
         Pageable pageable = PageRequest.of(from / size, size);
         return repo.findAllByInitiatorId(userId, pageable);
     }
@@ -173,26 +316,11 @@ public class EventServiceImpl implements EventService {
         }
 
         final Event updatedEvent = this.updateEvent(event, updateEvent).build();
+        compilationCache.invalidateEvent(eventId);
+        repo.incrementVersion(eventId);
         return repo.save(updatedEvent);
     }
 
-    @Override
-    @Transactional
-    public Event addComment(
-            final Comment comment,
-            long eventId
-    ) throws NotFoundException, ForbiddenOperation {
-        final Event event = getById(eventId);
-        if (event.getState() != EventStatus.PUBLISHED) {
-            throw new ForbiddenOperation(
-                    String.format(COMMENT_TO_NON_PUBLISHED_ERROR_MSG_FORMAT, event.getState())
-            );
-        }
-
-        event.addComment(comment);
-        return repo.save(event);
-    }
-
     @Override
     @Transactional(readOnly = true)
     public Event getByIdAndUserId(long eventId, long userId) throws NotFoundException {
@@ -222,6 +350,8 @@ public class EventServiceImpl implements EventService {
         }
 
         final Event updatedEvent = this.updateEvent(event, updateEvent).build();
+        compilationCache.invalidateEvent(eventId);
+        repo.incrementVersion(eventId);
         return repo.save(updatedEvent);
     }
 
@@ -255,6 +385,11 @@ public class EventServiceImpl implements EventService {
                 && !event.getLongitude().equals(updateEvent.getLongitude())) {
             updatedEventBuilder.longitude(updateEvent.getLongitude());
         }
+        if (updateEvent.getLatitude() != null || updateEvent.getLongitude() != null) {
+            updatedEventBuilder.geohash(GeoHash.encode(
+                    Optional.ofNullable(updateEvent.getLatitude()).orElse(event.getLatitude()),
+                    Optional.ofNullable(updateEvent.getLongitude()).orElse(event.getLongitude())));
+        }
         if (updateEvent.getParticipantLimit() != null
                 && !event.getParticipantLimit().equals(updateEvent.getParticipantLimit())) {
             updatedEventBuilder.participantLimit(updateEvent.getParticipantLimit());
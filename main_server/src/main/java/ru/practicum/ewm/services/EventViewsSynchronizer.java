@@ -0,0 +1,89 @@
+package ru.practicum.ewm.services;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.web.client.RestClientException;
+import ru.practicum.ewm.client.StatsClient;
+import ru.practicum.ewm.repositories.EventRepository;
+
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+
+import static ru.practicum.ewm.common.EWMConstants.EVENT_URI_FORMAT;
+
+/**
+ * Periodically copies views of published events from the stats server into events.views,
+ * so that public search can be ordered and paginated by views in the database.
+ */
+@Slf4j
+@Component
+@ConditionalOnProperty(name = "event-views.sync-enabled", havingValue = "true", matchIfMissing = true)
+public class EventViewsSynchronizer {
+
+    private static final LocalDateTime UNIX_EPOCH = LocalDateTime.ofEpochSecond(0, 0, ZoneOffset.UTC);
+
+    private final EventRepository repo;
+    private final StatsClient client;
+    private final TransactionTemplate transactionTemplate;
+    private final int batchSize;
+
+    public EventViewsSynchronizer(
+            EventRepository repo,
+            StatsClient client,
+            TransactionTemplate transactionTemplate,
+            @Value("${event-views.sync-batch-size:500}") int batchSize
+    ) {
+        this.repo = repo;
+        this.client = client;
+        this.transactionTemplate = transactionTemplate;
+        this.batchSize = batchSize;
+    }
+
+    @Scheduled(
+            initialDelayString = "${event-views.sync-interval-ms:60000}",
+            fixedDelayString = "${event-views.sync-interval-ms:60000}"
+    )
+    public void sync() {
+        final LocalDateTime now = LocalDateTime.now();
+        long afterId = 0;
+        int updated = 0;
+
+        try {
+            List<Long> ids;
+            do {
+                ids = repo.findPublishedIdsAfter(afterId, PageRequest.of(0, batchSize));
+                if (ids.isEmpty()) {
+                    break;
+                }
+                afterId = ids.get(ids.size() - 1);
+                updated += syncBatch(ids, now);
+            } while (ids.size() == batchSize);
+        } catch (RestClientException exc) {
+            log.warn("Stats server is unavailable, views are synced up to event id={}: {}", afterId, exc.getMessage());
+            return;
+        }
+
+        log.info("Synced views of published events, {} changed", updated);
+    }
+
+    private int syncBatch(List<Long> ids, LocalDateTime now) {
+        final Map<String, Long> idsByUri = ids.stream()
+                .collect(Collectors.toMap(id -> String.format(EVENT_URI_FORMAT, id), id -> id));
+        final Map<String, Long> hitsByUri = client.getStats(UNIX_EPOCH, now, List.copyOf(idsByUri.keySet()));
+
+        final Map<Long, Long> viewsByEventId = new HashMap<>();
+        idsByUri.forEach((uri, id) -> viewsByEventId.put(id, hitsByUri.getOrDefault(uri, 0L)));
+
+        final Integer updated = transactionTemplate.execute(status -> repo.updateViews(viewsByEventId));
+        return updated == null ? 0 : updated;
+    }
+}
@@ -0,0 +1,327 @@
+package ru.practicum.ewm.services;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.ResponseEntity;
+import org.springframework.stereotype.Component;
+import org.springframework.web.client.RestClientException;
+import ru.practicum.ewm.client.StatsClient;
+import ru.practicum.ewm.dto.HitDto;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Write-behind buffer for hits sent to the stats server.
+ * Producers only touch a lock-free queue; a single background thread drains it
+ * in batches either when batch-size hits are waiting or every flush interval.
+ */
+@Slf4j
+@Component
+public class HitBuffer {
+
+    private static final String METRIC_PREFIX = "ewm.hits.buffer";
+    private static final long BLOCK_PARK_NANOS = TimeUnit.MILLISECONDS.toNanos(1);
+
+    private final StatsClient client;
+    private final ObjectMapper mapper;
+    private final int capacity;
+    private final int batchSize;
+    private final long flushIntervalMs;
+    private final long blockTimeoutMs;
+    private final HitBufferOverflowPolicy overflowPolicy;
+    private final Path spillPath;
+
+    private final ConcurrentLinkedQueue<HitDto> queue = new ConcurrentLinkedQueue<>();
+    private final AtomicInteger size = new AtomicInteger();
+    private final AtomicBoolean flushRequested = new AtomicBoolean();
+    private final Object spillLock = new Object();
+
+    private final Counter droppedHits;
+    private final Counter spilledHits;
+    private final Timer flushLatency;
+
+    private ScheduledExecutorService flusher;
+
+    public HitBuffer(
+            StatsClient client,
+            ObjectMapper mapper,
+            MeterRegistry registry,
+            @Value("${hit-buffer.capacity:10000}") int capacity,
+            @Value("${hit-buffer.batch-size:500}") int batchSize,
+            @Value("${hit-buffer.flush-interval-ms:1000}") long flushIntervalMs,
+            @Value("${hit-buffer.block-timeout-ms:100}") long blockTimeoutMs,
+            @Value("${hit-buffer.overflow-policy:DROP}") HitBufferOverflowPolicy overflowPolicy,
+            @Value("${hit-buffer.spill-path:${java.io.tmpdir}/ewm-hits.spill}") String spillPath
+    ) {
+        this.client = client;
+        this.mapper = mapper;
+        this.capacity = capacity;
+        this.batchSize = batchSize;
+        this.flushIntervalMs = flushIntervalMs;
+        this.blockTimeoutMs = blockTimeoutMs;
+        this.overflowPolicy = overflowPolicy;
+        this.spillPath = Paths.get(spillPath);
+
+        Gauge.builder(METRIC_PREFIX + ".depth", size, AtomicInteger::get)
+                .description("Hits waiting to be sent to the stats server")
+                .register(registry);
+        this.droppedHits = Counter.builder(METRIC_PREFIX + ".dropped")
+                .description("Hits lost because the buffer was full or the stats server failed")
+                .register(registry);
+        this.spilledHits = Counter.builder(METRIC_PREFIX + ".spilled")
+                .description("Hits written to the spill file")
+                .register(registry);
+        this.flushLatency = Timer.builder(METRIC_PREFIX + ".flush")
+                .description("Latency of a single batch sent to the stats server")
+                .register(registry);
+    }
+
+    @PostConstruct
+    public void start() {
+        flusher = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            final Thread thread = new Thread(runnable, "hit-buffer-flusher");
+            thread.setDaemon(true);
+            return thread;
+        });
+        flusher.scheduleWithFixedDelay(this::flush, flushIntervalMs, flushIntervalMs, TimeUnit.MILLISECONDS);
+    }
+
+    @PreDestroy
+    public void stop() throws InterruptedException {
+        flusher.shutdown();
+        if (flusher.awaitTermination(flushIntervalMs, TimeUnit.MILLISECONDS)) {
+            flush();
+        }
+    }
+
+    public void offer(HitDto hit) {
+        if (tryEnqueue(hit)) {
+            if (size.get() >= batchSize) {
+                requestFlush();
+            }
+            return;
+        }
+
+        switch (overflowPolicy) {
+            case BLOCK:
+                offerBlocking(hit);
+                break;
+            case SPILL:
+                spill(List.of(hit));
+                break;
+            default:
+                droppedHits.increment();
+        }
+    }
+
+    public int depth() {
+        return size.get();
+    }
+
+    void flush() {
+        flushRequested.set(false);
+        try {
+            replaySpill();
+
+            List<HitDto> batch = drain();
+            while (!batch.isEmpty()) {
+                if (!send(batch)) {
+                    requeue(batch);
+                    return;
+                }
+                batch = drain();
+            }
+        } catch (RuntimeException exc) {
+            // the scheduler silently stops a task that throws, so never let anything escape
+            log.error("Hit buffer flush failed", exc);
+        }
+    }
+
+    private boolean tryEnqueue(HitDto hit) {
+        int current;
+        do {
+            current = size.get();
+            if (current >= capacity) {
+                return false;
+            }
+        } while (!size.compareAndSet(current, current + 1));
+
+        queue.offer(hit);
+        return true;
+    }
+
+    private void offerBlocking(HitDto hit) {
+        final long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(blockTimeoutMs);
+        requestFlush();
+        while (!tryEnqueue(hit)) {
+            if (System.nanoTime() >= deadline) {
+                droppedHits.increment();
+                return;
+            }
+            LockSupport.parkNanos(BLOCK_PARK_NANOS);
+        }
+    }
+
+    private void requestFlush() {
+        if (flusher == null || !flushRequested.compareAndSet(false, true)) {
+            return;
+        }
+        try {
+            flusher.execute(this::flush);
+        } catch (RejectedExecutionException exc) {
+            // shutting down, the final flush in stop() picks the hits up
+            flushRequested.set(false);
+        }
+    }
+
+    private List<HitDto> drain() {
+        final List<HitDto> batch = new ArrayList<>(Math.min(batchSize, size.get()));
+        HitDto hit;
+        while (batch.size() < batchSize && (hit = queue.poll()) != null) {
+            batch.add(hit);
+        }
+        size.addAndGet(-batch.size());
+        return batch;
+    }
+
+    private boolean send(List<HitDto> batch) {
+        final long start = System.nanoTime();
+        try {
+            final ResponseEntity<Object> response = client.recordHits(batch);
+            if (!response.getStatusCode().is2xxSuccessful()) {
+                log.warn("Stats server rejected {} hits: {}", batch.size(), response.getStatusCode());
+                return false;
+            }
+            return true;
+        } catch (RestClientException exc) {
+            log.warn("Stats server is unavailable: {}", exc.getMessage());
+            return false;
+        } finally {
+            flushLatency.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+        }
+    }
+
+    private void requeue(List<HitDto> batch) {
+        final List<HitDto> overflow = new ArrayList<>();
+        for (final HitDto hit : batch) {
+            if (!tryEnqueue(hit)) {
+                overflow.add(hit);
+            }
+        }
+        if (overflow.isEmpty()) {
+            return;
+        }
+        if (HitBufferOverflowPolicy.SPILL.equals(overflowPolicy)) {
+            spill(overflow);
+        } else {
+            droppedHits.increment(overflow.size());
+        }
+    }
+
+    private void spill(List<HitDto> hits) {
+        synchronized (spillLock) {
+            try (BufferedWriter writer = Files.newBufferedWriter(spillPath, StandardCharsets.UTF_8,
+                    StandardOpenOption.CREATE, StandardOpenOption.APPEND)) {
+                for (final HitDto hit : hits) {
+                    writer.write(mapper.writeValueAsString(hit));
+                    writer.newLine();
+                }
+                spilledHits.increment(hits.size());
+            } catch (IOException exc) {
+                log.error("Failed to spill {} hits to {}", hits.size(), spillPath, exc);
+                droppedHits.increment(hits.size());
+            }
+        }
+    }
+
+    private void replaySpill() {
+        final Path replayPath = spillPath.resolveSibling(spillPath.getFileName() + ".replay");
+
+        synchronized (spillLock) {
+            if (!Files.exists(spillPath)) {
+                return;
+            }
+            try {
+                Files.move(spillPath, replayPath, StandardCopyOption.REPLACE_EXISTING);
+            } catch (IOException exc) {
+                log.error("Failed to take spill file {}", spillPath, exc);
+                return;
+            }
+        }
+
+        final ObjectReader reader = mapper.readerFor(HitDto.class);
+        try (BufferedReader lines = Files.newBufferedReader(replayPath, StandardCharsets.UTF_8)) {
+            List<HitDto> batch = new ArrayList<>(batchSize);
+            boolean failed = false;
+            String line;
+            while ((line = lines.readLine()) != null) {
+                if (line.isBlank()) {
+                    continue;
+                }
+                batch.add(reader.readValue(line));
+                if (batch.size() == batchSize) {
+                    if (!send(batch)) {
+                        failed = true;
+                        break;
+                    }
+                    batch = new ArrayList<>(batchSize);
+                }
+            }
+            if (!failed && !batch.isEmpty() && !send(batch)) {
+                failed = true;
+            }
+            if (failed) {
+                // stats server is still down: put everything not yet sent back into the spill file
+                spill(batch);
+                respill(lines);
+            }
+        } catch (IOException exc) {
+            log.error("Failed to replay spill file {}", replayPath, exc);
+        }
+
+        try {
+            Files.deleteIfExists(replayPath);
+        } catch (IOException exc) {
+            log.error("Failed to delete replayed spill file {}", replayPath, exc);
+        }
+    }
+
+    private void respill(BufferedReader lines) throws IOException {
+        synchronized (spillLock) {
+            try (BufferedWriter writer = Files.newBufferedWriter(spillPath, StandardCharsets.UTF_8,
+                    StandardOpenOption.CREATE, StandardOpenOption.APPEND)) {
+                String line;
+                while ((line = lines.readLine()) != null) {
+                    writer.write(line);
+                    writer.newLine();
+                }
+            }
+        }
+    }
+}
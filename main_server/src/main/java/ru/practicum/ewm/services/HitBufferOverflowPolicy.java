@@ -0,0 +1,5 @@
+package ru.practicum.ewm.services;
+
+public enum HitBufferOverflowPolicy {
+    DROP, BLOCK, SPILL
+}
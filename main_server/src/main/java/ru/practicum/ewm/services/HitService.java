@@ -1,8 +1,6 @@
 package ru.practicum.ewm.services;
 
 
-import ru.practicum.ewm.dto.StatsDto;
-
 import javax.validation.constraints.NotNull;
 import java.util.List;
 import java.util.Map;
@@ -11,5 +9,8 @@ public interface HitService {
 
     void recordHit(@NotNull String uri, @NotNull String ip);
 
-    Map<String, StatsDto> getStats(List<String> uris);
+    /**
+     * Returns views per uri, uris without views are absent from the result.
+     */
+    Map<String, Long> getStats(List<String> uris);
 }
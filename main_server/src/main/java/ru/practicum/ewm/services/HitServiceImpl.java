@@ -1,32 +1,71 @@
 package ru.practicum.ewm.services;
 
-import lombok.RequiredArgsConstructor;
+import com.github.benmanes.caffeine.cache.AsyncCacheLoader;
+import com.github.benmanes.caffeine.cache.AsyncLoadingCache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
 import lombok.extern.slf4j.Slf4j;
 
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 import ru.practicum.ewm.client.StatsClient;
 import ru.practicum.ewm.dto.HitDto;
-import ru.practicum.ewm.dto.StatsDto;
 
 import javax.validation.constraints.NotNull;
+import java.time.Duration;
 import java.time.LocalDateTime;
 import java.time.ZoneOffset;
+import java.util.ArrayList;
 import java.util.HashMap;
-import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executor;
+import java.util.function.Function;
 
 import static ru.practicum.ewm.common.EWMConstants.APP_NAME;
 import static ru.practicum.ewm.utils.DateTimeUtils.format;
 
 @Slf4j
 @Service
-@RequiredArgsConstructor
 public class HitServiceImpl implements HitService {
 
     private static final LocalDateTime UNIX_EPOCH = LocalDateTime.ofEpochSecond(0, 0, ZoneOffset.UTC);
+    private static final String VIEW_CACHE_NAME = "ewm.views";
 
     private final StatsClient client;
+    private final HitBuffer hitBuffer;
+
+    /**
+     * Views per event uri. Uris unknown to the stats server are cached as empty
+     * so that events without views do not go to the stats server on every request.
+     * The cache holds in-flight loads too, so concurrent lookups of the same uris
+     * wait for one stats server request instead of sending their own.
+     */
+    private final AsyncLoadingCache<String, Optional<Long>> viewCache;
+
+    public HitServiceImpl(
+            StatsClient client,
+            HitBuffer hitBuffer,
+            MeterRegistry registry,
+            @Value("${view-cache.maximum-size:10000}") long maximumSize,
+            @Value("${view-cache.expire-after-write-ms:60000}") long expireAfterWriteMs,
+            @Value("${view-cache.refresh-after-write-ms:10000}") long refreshAfterWriteMs
+    ) {
+        this.client = client;
+        this.hitBuffer = hitBuffer;
+        this.viewCache = Caffeine.newBuilder()
+                .maximumSize(maximumSize)
+                .expireAfterWrite(Duration.ofMillis(expireAfterWriteMs))
+                .refreshAfterWrite(Duration.ofMillis(refreshAfterWriteMs))
+                .recordStats()
+                .buildAsync(new ViewLoader());
+
+        CaffeineCacheMetrics.monitor(registry, viewCache, VIEW_CACHE_NAME);
+    }
 
     @Override
     public void recordHit(@NotNull String uri, @NotNull String ip) {
@@ -38,25 +77,66 @@ public class HitServiceImpl implements HitService {
                 .timestamp(format(now))
                 .build();
 
-        client.recordHit(hit);
+        hitBuffer.offer(hit);
     }
 
     @Override
-    public Map<String, StatsDto> getStats(List<String> uris) {
+    public Map<String, Long> getStats(List<String> uris) {
+        final Map<String, Optional<Long>> views;
+        try {
+            views = viewCache.getAll(uris).join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException) {
+                throw (RuntimeException) e.getCause();
+            }
+            throw e;
+        }
+
+        final Map<String, Long> viewsByUri = new HashMap<>();
+        views.forEach((uri, v) -> v.ifPresent(count -> viewsByUri.put(uri, count)));
+        return viewsByUri;
+    }
+
+    private CompletableFuture<Map<String, Long>> fetchStats(List<String> uris) {
         final LocalDateTime now = LocalDateTime.now();
-        final List<LinkedHashMap> stats =  client.getStats(UNIX_EPOCH, now, uris);
+        return client.getStatsAsync(UNIX_EPOCH, now, uris, null);
+    }
 
-        final Map<String, StatsDto> statsByUri = new HashMap<>();
-        for (final LinkedHashMap stat : stats) {
-            final StatsDto statsDto = StatsDto.builder()
-                    .app(stat.get("app").toString())
-                    .uri(stat.get("uri").toString())
-                    .hits(Long.parseLong(stat.get("hits").toString()))
-                    .build();
+    /**
+     * Loads are called only for uris that are neither cached nor being loaded; with the rest client the request
+     * runs on the calling thread, and callers asking for the same uris meanwhile wait for its result.
+     * Refreshes of stale uris run on the cache executor, so the caller gets the cached views without waiting.
+     */
+    private class ViewLoader implements AsyncCacheLoader<String, Optional<Long>> {
+
+        @Override
+        public CompletableFuture<Optional<Long>> asyncLoad(String uri, Executor executor) {
+            return fetchStats(List.of(uri))
+                    .thenApply(views -> Optional.ofNullable(views.get(uri)));
+        }
 
-            statsByUri.put(statsDto.getUri(), statsDto);
+        @Override
+        public CompletableFuture<Optional<Long>> asyncReload(String uri, Optional<Long> oldValue,
+                                                             Executor executor) {
+            return CompletableFuture.supplyAsync(() -> asyncLoad(uri, executor), executor)
+                    .thenCompose(Function.identity());
         }
 
-        return statsByUri;
+        @Override
+        public CompletableFuture<Map<String, Optional<Long>>> asyncLoadAll(Iterable<? extends String> keys,
+                                                                           Executor executor) {
+            final List<String> uris = new ArrayList<>();
+            keys.forEach(uris::add);
+
+            return fetchStats(uris).thenApply(fetched -> {
+                log.debug("Loaded stats for {} uris, {} known to the stats server", uris.size(), fetched.size());
+
+                final Map<String, Optional<Long>> result = new HashMap<>();
+                for (final String uri : uris) {
+                    result.put(uri, Optional.ofNullable(fetched.get(uri)));
+                }
+                return result;
+            });
+        }
     }
 }
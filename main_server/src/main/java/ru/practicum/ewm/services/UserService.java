@@ -1,8 +1,9 @@
 package ru.practicum.ewm.services;
 
-import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Slice;
 import ru.practicum.ewm.entities.User;
 import ru.practicum.ewm.exceptions.NotFoundException;
+import ru.practicum.ewm.utils.PageCursor;
 
 import java.util.List;
 
@@ -12,9 +13,13 @@ public interface UserService {
 
     User get(long userId) throws NotFoundException;
 
-    Page<User> getAll(int from, int size);
+    Slice<User> getAll(int from, int size);
 
-    Page<User> getAllWithUserIds(List<Long> userIds, int from, int size);
+    Slice<User> getAll(PageCursor after, int size);
+
+    Slice<User> getAllWithUserIds(List<Long> userIds, int from, int size);
+
+    Slice<User> getAllWithUserIds(List<Long> userIds, PageCursor after, int size);
 
     void delete(long userId) throws NotFoundException;
 }
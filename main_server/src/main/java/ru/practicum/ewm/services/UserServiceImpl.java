@@ -2,14 +2,16 @@ package ru.practicum.ewm.services;
 
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
-import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 import ru.practicum.ewm.entities.User;
 import ru.practicum.ewm.exceptions.NotFoundException;
+import ru.practicum.ewm.repositories.EventRepository;
 import ru.practicum.ewm.repositories.UserRepository;
+import ru.practicum.ewm.utils.PageCursor;
 
 import java.util.List;
 import java.util.Optional;
@@ -22,6 +24,8 @@ public class UserServiceImpl implements UserService {
     private static final String NOT_FOUND_MSG_FORMAT = "User with id=%d was not found";
 
     private final UserRepository repo;
+    private final EventRepository eventRepository;
+    private final CompilationCache compilationCache;
 
     @Override
     @Transactional
@@ -43,22 +47,36 @@ public class UserServiceImpl implements UserService {
 
     @Override
     @Transactional(readOnly = true)
-    public Page<User> getAll(int from, int size) {
+    public Slice<User> getAll(int from, int size) {
         Pageable pageable = PageRequest.of(from / size, size);
-        return repo.findAll(pageable);
+        return repo.findAllByOrderByIdAsc(pageable);
     }
 
     @Override
     @Transactional(readOnly = true)
-    public Page<User> getAllWithUserIds(List<Long> userIds, int from, int size) {
+    public Slice<User> getAll(PageCursor after, int size) {
+        return repo.findByIdGreaterThanOrderByIdAsc(after.getId(), PageRequest.ofSize(size));
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public Slice<User> getAllWithUserIds(List<Long> userIds, int from, int size) {
         Pageable pageable = PageRequest.of(from / size, size);
         return repo.findByIdInOrderByIdDesc(userIds, pageable);
     }
 
+    @Override
+    @Transactional(readOnly = true)
+    public Slice<User> getAllWithUserIds(List<Long> userIds, PageCursor after, int size) {
+        return repo.findByIdInAndIdLessThanOrderByIdDesc(userIds, after.getId(), PageRequest.ofSize(size));
+    }
+
     @Override
     @Transactional
     public void delete(long userId) throws NotFoundException {
         this.get(userId);
+        compilationCache.invalidateAll();
+        eventRepository.subtractCommentCountsOfUser(userId);
         repo.deleteById(userId);
     }
 }
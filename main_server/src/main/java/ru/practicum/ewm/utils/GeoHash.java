@@ -0,0 +1,108 @@
+package ru.practicum.ewm.utils;
+
+import lombok.AccessLevel;
+import lombok.NoArgsConstructor;
+import lombok.Value;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Binary geohash of a point: longitude and latitude bits interleaved into one {@code long}, so that every cell
+ * of the grid, at any level, is a contiguous range of values and can be read from a B-tree index.
+ */
+@NoArgsConstructor(access = AccessLevel.PRIVATE)
+public class GeoHash {
+
+    public static final double EARTH_RADIUS_KM = 6371.0;
+
+    private static final int BITS = 26;
+    private static final double KM_PER_DEGREE = Math.PI * EARTH_RADIUS_KM / 180;
+
+    public static long encode(double lat, double lon) {
+        return interleave(index(lon, -180, 360, BITS), index(lat, -90, 180, BITS), BITS);
+    }
+
+    /**
+     * Ranges of hashes that hold every point within {@code radiusKm} of the center: the cell of the center and
+     * its eight neighbours at the finest level where a cell is at least {@code radiusKm} across.
+     */
+    public static List<Range> cover(double lat, double lon, double radiusKm) {
+        final double maxLat = Math.min(90, Math.abs(lat) + radiusKm / KM_PER_DEGREE);
+        final double minCos = Math.cos(Math.toRadians(maxLat));
+        int level = 0;
+        while (level < BITS
+                && 180 / Math.pow(2, level + 1) * KM_PER_DEGREE >= radiusKm
+                && 360 / Math.pow(2, level + 1) * KM_PER_DEGREE * minCos >= radiusKm) {
+            level++;
+        }
+
+        final long cells = 1L << level;
+        final long lonIndex = index(lon, -180, 360, level);
+        final long latIndex = index(lat, -90, 180, level);
+        final int shift = 2 * (BITS - level);
+
+        final List<Long> prefixes = new ArrayList<>();
+        for (long latCell = Math.max(0, latIndex - 1); latCell <= Math.min(cells - 1, latIndex + 1); latCell++) {
+            for (long lonStep = -1; lonStep <= 1; lonStep++) {
+                final long prefix = interleave(Math.floorMod(lonIndex + lonStep, cells), latCell, level);
+                if (!prefixes.contains(prefix)) {
+                    prefixes.add(prefix);
+                }
+            }
+        }
+        prefixes.sort(Long::compare);
+
+        final List<Range> ranges = new ArrayList<>();
+        for (final long prefix : prefixes) {
+            final long from = prefix << shift;
+            final long to = from + (1L << shift) - 1;
+            final int last = ranges.size() - 1;
+            if (last >= 0 && ranges.get(last).getTo() + 1 == from) {
+                ranges.set(last, new Range(ranges.get(last).getFrom(), to));
+            } else {
+                ranges.add(new Range(from, to));
+            }
+        }
+        return ranges;
+    }
+
+    /**
+     * Haversine of the central angle of {@code radiusKm}, a point is within the radius when
+     * {@code sin²(Δlat/2) + cos(lat1)·cos(lat2)·sin²(Δlon/2)} does not exceed it.
+     */
+    public static double maxHaversine(double radiusKm) {
+        final double sin = Math.sin(Math.min(Math.PI, radiusKm / EARTH_RADIUS_KM) / 2);
+        return sin * sin;
+    }
+
+    public static double distanceKm(double lat1, double lon1, double lat2, double lon2) {
+        final double sinLat = Math.sin(Math.toRadians(lat2 - lat1) / 2);
+        final double sinLon = Math.sin(Math.toRadians(lon2 - lon1) / 2);
+        final double haversine = sinLat * sinLat
+                + Math.cos(Math.toRadians(lat1)) * Math.cos(Math.toRadians(lat2)) * sinLon * sinLon;
+        return 2 * EARTH_RADIUS_KM * Math.asin(Math.min(1, Math.sqrt(haversine)));
+    }
+
+    private static long index(double value, double min, double span, int level) {
+        final long cells = 1L << level;
+        return Math.min(cells - 1, (long) ((value - min) / span * cells));
+    }
+
+    private static long interleave(long lonIndex, long latIndex, int level) {
+        long hash = 0;
+        for (int bit = level - 1; bit >= 0; bit--) {
+            hash = (hash << 2) | ((lonIndex >>> bit & 1) << 1) | (latIndex >>> bit & 1);
+        }
+        return hash;
+    }
+
+    /**
+     * Inclusive range of hashes.
+     */
+    @Value
+    public static class Range {
+        long from;
+        long to;
+    }
+}
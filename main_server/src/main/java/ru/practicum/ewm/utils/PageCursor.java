@@ -0,0 +1,76 @@
+package ru.practicum.ewm.utils;
+
+import lombok.NonNull;
+import lombok.Value;
+import org.springframework.data.domain.Slice;
+import org.springframework.lang.Nullable;
+
+import javax.servlet.http.HttpServletResponse;
+import javax.validation.ValidationException;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeParseException;
+import java.util.Base64;
+import java.util.List;
+import java.util.function.Function;
+
+/**
+ * Position of the last row of a page for keyset pagination: an optional sort key plus the row id
+ * that breaks ties. Clients see it only as an opaque url-safe token.
+ */
+@Value
+public class PageCursor {
+
+    public static final String NEXT_CURSOR_HEADER = "X-Next-Cursor";
+
+    private static final String SEPARATOR = "|";
+    private static final String INVALID_CURSOR_MSG_FORMAT = "Invalid value for 'cursor': %s";
+
+    @Nullable
+    LocalDateTime sortKey;
+    long id;
+
+    public static PageCursor of(long id) {
+        return new PageCursor(null, id);
+    }
+
+    public static PageCursor of(@NonNull LocalDateTime sortKey, long id) {
+        return new PageCursor(sortKey, id);
+    }
+
+    public String encode() {
+        final String payload = sortKey == null ? String.valueOf(id) : sortKey + SEPARATOR + id;
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(payload.getBytes(StandardCharsets.UTF_8));
+    }
+
+    public static PageCursor decode(@NonNull String token) throws ValidationException {
+        try {
+            final String payload = new String(Base64.getUrlDecoder().decode(token), StandardCharsets.UTF_8);
+            final int separator = payload.indexOf(SEPARATOR);
+            if (separator < 0) {
+                return of(Long.parseLong(payload));
+            }
+            return of(LocalDateTime.parse(payload.substring(0, separator)),
+                    Long.parseLong(payload.substring(separator + 1)));
+        } catch (IllegalArgumentException | DateTimeParseException exc) {
+            throw new ValidationException(String.format(INVALID_CURSOR_MSG_FORMAT, token), exc);
+        }
+    }
+
+    public LocalDateTime requireSortKey() throws ValidationException {
+        if (sortKey == null) {
+            throw new ValidationException(String.format(INVALID_CURSOR_MSG_FORMAT, encode()));
+        }
+        return sortKey;
+    }
+
+    /**
+     * Puts the cursor of the last row into {@link #NEXT_CURSOR_HEADER} when there is a next page.
+     */
+    public static <T> void writeNext(HttpServletResponse response, Slice<T> slice, Function<T, PageCursor> cursor) {
+        final List<T> content = slice.getContent();
+        if (slice.hasNext() && !content.isEmpty()) {
+            response.setHeader(NEXT_CURSOR_HEADER, cursor.apply(content.get(content.size() - 1)).encode());
+        }
+    }
+}
@@ -0,0 +1,3 @@
+-- Java fallbacks for the PostgreSQL full-text search functions, see schema-postgresql.sql
+CREATE ALIAS IF NOT EXISTS fts_match FOR 'ru.practicum.ewm.repositories.H2FullTextFunctions.match';
+CREATE ALIAS IF NOT EXISTS fts_rank FOR 'ru.practicum.ewm.repositories.H2FullTextFunctions.rank';
@@ -0,0 +1,12 @@
+-- Full-text search over published events. The functions are plain SQL so the planner inlines them
+-- and matches the expression below against events_fts_idx.
+CREATE OR REPLACE FUNCTION fts_match(description TEXT, annotation TEXT, query TEXT) RETURNS BOOLEAN
+  AS 'SELECT to_tsvector(''russian'', coalesce($2, '''') || '' '' || $1) @@ plainto_tsquery(''russian'', $3)'
+  LANGUAGE sql IMMUTABLE;
+
+CREATE OR REPLACE FUNCTION fts_rank(description TEXT, annotation TEXT, query TEXT) RETURNS REAL
+  AS 'SELECT ts_rank(to_tsvector(''russian'', coalesce($2, '''') || '' '' || $1), plainto_tsquery(''russian'', $3))'
+  LANGUAGE sql IMMUTABLE;
+
+CREATE INDEX IF NOT EXISTS events_fts_idx ON events
+  USING GIN (to_tsvector('russian', coalesce(annotation, '') || ' ' || description));
@@ -10,9 +10,13 @@ CREATE TABLE IF NOT EXISTS categories
 (
   id BIGINT GENERATED ALWAYS AS IDENTITY PRIMARY KEY,
   name VARCHAR(255) NOT NULL,
+  updated_on TIMESTAMP WITHOUT TIME ZONE NOT NULL DEFAULT LOCALTIMESTAMP,
   CONSTRAINT UNIQ_CATEGORY_NAME UNIQUE (name)
 );
 
+-- added after the first release, categories saved before it count as updated at the upgrade
+ALTER TABLE categories ADD COLUMN IF NOT EXISTS updated_on TIMESTAMP WITHOUT TIME ZONE NOT NULL DEFAULT LOCALTIMESTAMP;
+
 CREATE TABLE IF NOT EXISTS events
 (
   id BIGINT GENERATED ALWAYS AS IDENTITY PRIMARY KEY,
@@ -27,14 +31,27 @@ CREATE TABLE IF NOT EXISTS events
   confirmed_requests INTEGER NOT NULL,
   longitude FLOAT NOT NULL,
   latitude FLOAT NOT NULL,
+  geohash BIGINT,
   paid BOOL NOT NULL,
   request_moderation BOOL NOT NULL,
   initiator_id BIGINT NOT NULL REFERENCES users(id) ON DELETE CASCADE,
   category_id BIGINT NOT NULL REFERENCES categories(id),
+  views BIGINT NOT NULL DEFAULT 0,
+  comment_count INTEGER NOT NULL DEFAULT 0,
+  version BIGINT NOT NULL DEFAULT 0,
 
   CHECK (confirmed_requests <= participant_limit)
 );
 
+-- columns added after the first release, events saved before them get their geohash from EventGeoHashBackfill
+ALTER TABLE events ADD COLUMN IF NOT EXISTS geohash BIGINT;
+ALTER TABLE events ADD COLUMN IF NOT EXISTS views BIGINT NOT NULL DEFAULT 0;
+ALTER TABLE events ADD COLUMN IF NOT EXISTS version BIGINT NOT NULL DEFAULT 0;
+
+CREATE INDEX IF NOT EXISTS events_state_views_idx ON events (state, views DESC, id);
+CREATE INDEX IF NOT EXISTS events_state_event_date_idx ON events (state, event_date, id);
+CREATE INDEX IF NOT EXISTS events_geohash_idx ON events (geohash);
+
 CREATE TABLE IF NOT EXISTS requests
 (
   id BIGINT GENERATED ALWAYS AS IDENTITY PRIMARY KEY,
@@ -69,3 +86,12 @@ CREATE TABLE IF NOT EXISTS comments
   edited_on TIMESTAMP WITHOUT TIME ZONE NOT NULL,
   text TEXT NOT NULL
 );
+
+CREATE INDEX IF NOT EXISTS comments_event_id_created_on_idx ON comments (event_id, created_on DESC);
+
+-- comment_count added after the first release, counted once for the comments events already have
+ALTER TABLE events ADD COLUMN IF NOT EXISTS comment_count INTEGER;
+UPDATE events e SET comment_count = (SELECT COUNT(*) FROM comments c WHERE c.event_id = e.id)
+  WHERE comment_count IS NULL;
+ALTER TABLE events ALTER COLUMN comment_count SET DEFAULT 0;
+ALTER TABLE events ALTER COLUMN comment_count SET NOT NULL;
@@ -13,6 +13,7 @@ import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
 import org.springframework.boot.test.mock.mockito.MockBean;
 import org.springframework.dao.DataIntegrityViolationException;
 import org.springframework.data.domain.PageImpl;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.MediaType;
 import org.springframework.test.web.servlet.MockMvc;
 import org.springframework.test.web.servlet.MvcResult;
@@ -21,6 +22,7 @@ import ru.practicum.ewm.controllers.mappers.CategoryMapper;
 import ru.practicum.ewm.entities.Category;
 import ru.practicum.ewm.exceptions.NotFoundException;
 import ru.practicum.ewm.services.CategoryService;
+import ru.practicum.ewm.services.ContentVersion;
 
 import java.nio.charset.StandardCharsets;
 import java.util.ArrayList;
@@ -41,10 +43,12 @@ import static org.springframework.test.web.servlet.request.MockMvcRequestBuilder
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.patch;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
 import static ru.practicum.ewm.utils.CategoriesTestUtils.CATEGORY_ID;
 import static ru.practicum.ewm.utils.CategoriesTestUtils.generateCategories;
+import static ru.practicum.ewm.utils.CategoriesTestUtils.getDefaultCategory;
 import static ru.practicum.ewm.utils.CategoriesTestUtils.getDefaultCategoryDto;
 import static ru.practicum.ewm.utils.JsonTestUtils.configJsonProvider;
 import static ru.practicum.ewm.exceptions.ErrorCode.BAD_REQUEST;
@@ -60,6 +64,9 @@ class CategoriesControllerTest {
     private static final String PUBLIC_ENDPOINT = "/categories";
     private static final int PAGE_START_FROM = 0;
     private static final int PAGE_SIZE = 10;
+    private static final ContentVersion VERSION = new ContentVersion("3-1600000000000000", 1_600_000_000_000L);
+    private static final ContentVersion CATEGORY_VERSION =
+            new ContentVersion(CATEGORY_ID + "-1600000000000000", 1_600_000_000_000L);
 
     @Autowired
     private MockMvc mockMvc;
@@ -74,6 +81,9 @@ class CategoriesControllerTest {
         mapper.enable(DeserializationFeature.USE_LONG_FOR_INTS);
 
         configJsonProvider(mapper);
+
+        when(categoryService.getVersion()).thenReturn(VERSION);
+        when(categoryService.getVersion(any(Category.class))).thenReturn(CATEGORY_VERSION);
     }
 
     @Test
@@ -166,6 +176,7 @@ class CategoriesControllerTest {
 
         verify(categoryService, times(1))
                 .get(CATEGORY_ID);
+        verify(categoryService, times(1)).getVersion(category);
         verifyNoMoreInteractions(categoryService);
     }
 
@@ -188,6 +199,15 @@ class CategoriesControllerTest {
         verifyNoMoreInteractions(categoryService);
     }
 
+    @Test
+    void get_whenCategoryNotFoundWithListEtag_return404() throws Exception {
+        when(categoryService.get(CATEGORY_ID)).thenThrow(new NotFoundException("test"));
+
+        mockMvc.perform(get(PUBLIC_ENDPOINT + "/" + CATEGORY_ID)
+                        .header(HttpHeaders.IF_NONE_MATCH, "\"" + VERSION.getEtag() + "\""))
+                .andExpect(status().isNotFound());
+    }
+
     @Test
     void update_whenCategoryValid_return200() throws Exception {
         CategoryDto categoryDto = CategoryDto.builder()
@@ -340,6 +360,7 @@ class CategoriesControllerTest {
                 .andExpect(status().isOk())
                 .andExpect(jsonPath("$", hasSize(categories.size())));
 
+        verify(categoryService, times(1)).getVersion();
         verify(categoryService, times(1)).getAll(PAGE_START_FROM, PAGE_SIZE);
         verifyNoMoreInteractions(categoryService);
     }
@@ -356,10 +377,37 @@ class CategoriesControllerTest {
                 .andExpect(status().isOk())
                 .andExpect(jsonPath("$", hasSize(categories.size())));
 
+        verify(categoryService, times(1)).getVersion();
         verify(categoryService, times(1)).getAll(PAGE_START_FROM, PAGE_SIZE);
         verifyNoMoreInteractions(categoryService);
     }
 
+    @Test
+    void getAll_whenVersionMatches_return304WithoutLoading() throws Exception {
+        mockMvc.perform(get(PUBLIC_ENDPOINT)
+                        .header(HttpHeaders.IF_NONE_MATCH, "\"" + VERSION.getEtag() + "\""))
+                .andExpect(status().isNotModified())
+                .andExpect(header().string(HttpHeaders.ETAG, "\"" + VERSION.getEtag() + "\""))
+                .andExpect(header().string(HttpHeaders.CACHE_CONTROL, "max-age=300, public"));
+
+        verify(categoryService, times(1)).getVersion();
+        verifyNoMoreInteractions(categoryService);
+    }
+
+    @Test
+    void get_whenNotModifiedSince_return304() throws Exception {
+        Category category = getDefaultCategory();
+        when(categoryService.get(CATEGORY_ID)).thenReturn(category);
+
+        mockMvc.perform(get(PUBLIC_ENDPOINT + "/" + CATEGORY_ID)
+                        .header(HttpHeaders.IF_MODIFIED_SINCE, CATEGORY_VERSION.getLastModified()))
+                .andExpect(status().isNotModified());
+
+        verify(categoryService, times(1)).get(CATEGORY_ID);
+        verify(categoryService, times(1)).getVersion(category);
+        verifyNoMoreInteractions(categoryService);
+    }
+
     @Test
     void getAll_whenParamsAreNotValid_return400() throws Exception {
         MvcResult result = mockMvc.perform(get(PUBLIC_ENDPOINT)
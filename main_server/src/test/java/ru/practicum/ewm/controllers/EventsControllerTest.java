@@ -0,0 +1,59 @@
+package ru.practicum.ewm.controllers;
+
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.CsvSource;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.test.web.servlet.MockMvc;
+import ru.practicum.ewm.services.CategoryService;
+import ru.practicum.ewm.services.CommentService;
+import ru.practicum.ewm.services.EventService;
+import ru.practicum.ewm.services.HitService;
+import ru.practicum.ewm.services.UserService;
+
+import static org.mockito.Mockito.verifyNoInteractions;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+import static ru.practicum.ewm.exceptions.ErrorCode.BAD_REQUEST;
+
+@WebMvcTest(controllers = EventsController.class)
+class EventsControllerTest {
+
+    private static final String PUBLIC_ENDPOINT = "/events";
+
+    @Autowired
+    private MockMvc mockMvc;
+    @MockBean
+    private UserService userService;
+    @MockBean
+    private EventService eventService;
+    @MockBean
+    private CategoryService categoryService;
+    @MockBean
+    private CommentService commentService;
+    @MockBean
+    private HitService hitService;
+
+    @ParameterizedTest
+    @CsvSource({
+            "NaN, 37.62, 5",
+            "55.75, NaN, 5",
+            "55.75, 37.62, NaN",
+            "Infinity, 37.62, 5",
+            "55.75, 37.62, Infinity",
+            "91, 37.62, 5",
+            "55.75, 37.62, 0"
+    })
+    void search_whenLocationInvalid_return400(String lat, String lon, String radius) throws Exception {
+        mockMvc.perform(get(PUBLIC_ENDPOINT)
+                        .param("lat", lat)
+                        .param("lon", lon)
+                        .param("radius", radius))
+                .andExpect(status().isBadRequest())
+                .andExpect(jsonPath("$.status").value(BAD_REQUEST.name()));
+
+        verifyNoInteractions(eventService);
+    }
+}
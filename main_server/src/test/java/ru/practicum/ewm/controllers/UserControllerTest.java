@@ -13,6 +13,8 @@ import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
 import org.springframework.boot.test.mock.mockito.MockBean;
 import org.springframework.dao.DataIntegrityViolationException;
 import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.SliceImpl;
 import org.springframework.http.MediaType;
 import org.springframework.test.web.servlet.MockMvc;
 import org.springframework.test.web.servlet.MvcResult;
@@ -21,6 +23,7 @@ import ru.practicum.ewm.controllers.mappers.UserMapper;
 import ru.practicum.ewm.entities.User;
 import ru.practicum.ewm.exceptions.NotFoundException;
 import ru.practicum.ewm.services.UserService;
+import ru.practicum.ewm.utils.PageCursor;
 
 import java.nio.charset.StandardCharsets;
 import java.util.ArrayList;
@@ -40,6 +43,7 @@ import static org.mockito.Mockito.when;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.delete;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
 import static ru.practicum.ewm.utils.JsonTestUtils.configJsonProvider;
@@ -239,6 +243,34 @@ class UserControllerTest {
         verifyNoMoreInteractions(userService);
     }
 
+    @Test
+    void getAll_whenCursorGiven_returnNextCursor() throws Exception {
+        List<User> users = generateUsers(PAGE_SIZE);
+        PageCursor cursor = PageCursor.of(USER_ID);
+        when(userService.getAll(cursor, PAGE_SIZE))
+                .thenReturn(new SliceImpl<>(users, PageRequest.ofSize(PAGE_SIZE), true));
+
+        mockMvc.perform(get(ADMIN_ENDPOINT)
+                        .param("cursor", cursor.encode())
+                        .param("size", String.valueOf(PAGE_SIZE)))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$", hasSize(users.size())))
+                .andExpect(header().string(PageCursor.NEXT_CURSOR_HEADER,
+                        PageCursor.of(users.get(users.size() - 1).getId()).encode()));
+
+        verify(userService, times(1)).getAll(cursor, PAGE_SIZE);
+        verifyNoMoreInteractions(userService);
+    }
+
+    @Test
+    void getAll_whenCursorIsNotValid_return400() throws Exception {
+        mockMvc.perform(get(ADMIN_ENDPOINT)
+                        .param("cursor", "not a cursor"))
+                .andExpect(status().isBadRequest());
+
+        verifyNoMoreInteractions(userService);
+    }
+
     @Test
     void getAll_whenParamsAreNotValid_return400() throws Exception {
         MvcResult result = mockMvc.perform(get(ADMIN_ENDPOINT)
@@ -0,0 +1,117 @@
+package ru.practicum.ewm.repositories;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.domain.Sort;
+import org.springframework.jdbc.core.JdbcTemplate;
+import ru.practicum.ewm.entities.Event;
+import ru.practicum.ewm.utils.GeoHash;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+@DataJpaTest
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+class EventRepositoryTest {
+
+    private static final double LAT = 55.75;
+    private static final double LON = 37.62;
+
+    @Autowired
+    private EventRepository eventRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @BeforeEach
+    void setUp() {
+        jdbcTemplate.update("INSERT INTO users (name, email) VALUES ('user', 'user@mail.ru')");
+        jdbcTemplate.update("INSERT INTO categories (name) VALUES ('category')");
+        // 1 km, 4 km and 20 km north of the center, and one 3 km away that is not published
+        insert("near", LAT + 0.009, LON, "PUBLISHED", 1);
+        insert("middle", LAT + 0.036, LON, "PUBLISHED", 2);
+        insert("far", LAT + 0.18, LON, "PUBLISHED", 3);
+        insert("pending", LAT, LON + 0.045, "PENDING", 4);
+    }
+
+    @Test
+    void searchPublishedEventsNear_returnsEventsWithinRadiusByEventDate() {
+        final Slice<Event> events = search(5, null, null, PageRequest.ofSize(10));
+
+        assertEquals(List.of("near", "middle"), titles(events));
+        assertFalse(events.hasNext());
+    }
+
+    @Test
+    void searchPublishedEventsNear_afterCursor_returnsNextPage() {
+        final Slice<Event> first = search(50, null, null, PageRequest.ofSize(2));
+        final Event last = first.getContent().get(1);
+        final Slice<Event> next = search(50, last.getEventDate(), last.getId(), PageRequest.ofSize(2));
+
+        assertEquals(List.of("near", "middle"), titles(first));
+        assertTrue(first.hasNext());
+        assertEquals(List.of("far"), titles(next));
+    }
+
+    @Test
+    void fillMissingGeohashes_eventsSavedWithoutGeohash_foundBySearch() {
+        jdbcTemplate.update("UPDATE events SET geohash = NULL");
+
+        assertEquals(4, eventRepository.fillMissingGeohashes(3));
+        assertEquals(0, eventRepository.fillMissingGeohashes(3));
+        assertEquals(List.of("near", "middle"), titles(search(5, null, null, PageRequest.ofSize(10))));
+    }
+
+    @Test
+    void searchPublishedEventsAfter_sameEventDate_continuesById() {
+        final List<Event> events = eventRepository.findAll(Sort.by("id"));
+        final LocalDateTime eventDate = events.get(0).getEventDate();
+        jdbcTemplate.update("UPDATE events SET event_date = ?", eventDate);
+
+        final Slice<Event> next = eventRepository.searchPublishedEventsAfterOrderByEventDateAsc(
+                null, null, false, null, null, null, eventDate, events.get(0).getId(), PageRequest.ofSize(10));
+
+        assertEquals(List.of("middle", "far"), titles(next));
+    }
+
+    @Test
+    void searchPublishedEventsAfter_seeksOnEventDateIndex() {
+        final String plan = jdbcTemplate.queryForObject(
+                "EXPLAIN SELECT id FROM events WHERE state = 'PUBLISHED' AND event_date >= ? " +
+                        "AND (event_date > ? OR (event_date = ? AND id > ?)) ORDER BY event_date, id",
+                String.class, LocalDateTime.now(), LocalDateTime.now(), LocalDateTime.now(), 1L);
+
+        assertTrue(plan.toUpperCase().contains("EVENTS_STATE_EVENT_DATE_IDX"), plan);
+    }
+
+    private Slice<Event> search(double radiusKm, LocalDateTime afterDate, Long afterId, PageRequest pageable) {
+        return eventRepository.searchPublishedEventsNearOrderByEventDateAsc(
+                null, null, false, null, null, null, LAT, LON, radiusKm, afterDate, afterId, pageable);
+    }
+
+    private void insert(String title, double lat, double lon, String state, int days) {
+        jdbcTemplate.update("INSERT INTO events (created_on, published_on, event_date, state, title, description, " +
+                        "annotation, participant_limit, confirmed_requests, longitude, latitude, geohash, paid, " +
+                        "request_moderation, initiator_id, category_id) " +
+                        "VALUES (?, ?, ?, ?, ?, 'description', 'annotation', 0, 0, ?, ?, ?, false, false, " +
+                        "(SELECT id FROM users), (SELECT id FROM categories))",
+                LocalDateTime.now(), LocalDateTime.now(), LocalDateTime.now().plusDays(days), state, title,
+                lon, lat, GeoHash.encode(lat, lon));
+    }
+
+    private static List<String> titles(Slice<Event> events) {
+        return events.stream()
+                .map(Event::getTitle)
+                .collect(Collectors.toList());
+    }
+}
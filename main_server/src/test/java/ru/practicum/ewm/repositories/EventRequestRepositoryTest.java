@@ -0,0 +1,92 @@
+package ru.practicum.ewm.repositories;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import ru.practicum.ewm.entities.EventRequestState;
+import ru.practicum.ewm.entities.EventRequestView;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+@DataJpaTest
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+class EventRequestRepositoryTest {
+
+    private static final int REQUESTERS = 5;
+
+    @Autowired
+    private EventRequestRepository eventRequestRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    private long eventId;
+    private long initiatorId;
+    private List<Long> requestIds;
+
+    @BeforeEach
+    void setUp() {
+        jdbcTemplate.update("INSERT INTO users (name, email) VALUES ('initiator', 'initiator@mail.ru')");
+        for (int i = 0; i < REQUESTERS; i++) {
+            jdbcTemplate.update("INSERT INTO users (name, email) VALUES (?, ?)", "requester" + i, "requester" + i + "@mail.ru");
+        }
+        jdbcTemplate.update("INSERT INTO categories (name) VALUES ('category')");
+        jdbcTemplate.update("INSERT INTO events (created_on, published_on, event_date, state, title, description, " +
+                        "annotation, participant_limit, confirmed_requests, longitude, latitude, paid, " +
+                        "request_moderation, initiator_id, category_id) " +
+                        "VALUES (?, ?, ?, 'PUBLISHED', 'title', 'description', 'annotation', 10, 0, 0, 0, " +
+                        "false, true, " +
+                        "(SELECT id FROM users WHERE name = 'initiator'), (SELECT id FROM categories))",
+                LocalDateTime.now(), LocalDateTime.now(), LocalDateTime.now().plusDays(1));
+        jdbcTemplate.update("INSERT INTO requests (created_on, status, event_id, requester_id) " +
+                "SELECT ?, 'PENDING', e.id, u.id FROM events AS e CROSS JOIN users AS u WHERE u.name LIKE 'requester%'",
+                LocalDateTime.now());
+
+        eventId = jdbcTemplate.queryForObject("SELECT id FROM events", Long.class);
+        initiatorId = jdbcTemplate.queryForObject("SELECT id FROM users WHERE name = 'initiator'", Long.class);
+        requestIds = jdbcTemplate.queryForList("SELECT id FROM requests ORDER BY id", Long.class);
+    }
+
+    @Test
+    void findAllViews_selectsRequestedIdsOfInitiatorEvent() {
+        final List<EventRequestView> views = eventRequestRepository
+                .findAllViewsWhereRequestIdInAndEventIdEqualsAndInitiatorIdEquals(requestIds.subList(0, 2), eventId, initiatorId);
+
+        assertEquals(requestIds.subList(0, 2), views.stream().map(EventRequestView::getId).collect(Collectors.toList()));
+        assertEquals(EventRequestState.PENDING, views.get(0).getStatus());
+        assertEquals(eventId, views.get(0).getEventId());
+
+        assertEquals(0, eventRequestRepository
+                .findAllViewsWhereRequestIdInAndEventIdEqualsAndInitiatorIdEquals(requestIds, eventId, initiatorId + 100)
+                .size());
+    }
+
+    @Test
+    void updateStatus_movesOnlyRequestsInFromStatus() {
+        assertEquals(2, eventRequestRepository.updateStatus(
+                requestIds.subList(0, 2), EventRequestState.PENDING, EventRequestState.CONFIRMED));
+        assertEquals(1, eventRequestRepository.updateStatus(
+                requestIds.subList(1, 3), EventRequestState.PENDING, EventRequestState.REJECTED));
+
+        assertEquals(List.of("CONFIRMED", "CONFIRMED", "REJECTED", "PENDING", "PENDING"),
+                jdbcTemplate.queryForList("SELECT status FROM requests ORDER BY id", String.class));
+    }
+
+    @Test
+    void updateStatusByEventId_rejectsAllRemainingPending() {
+        eventRequestRepository.updateStatus(requestIds.subList(0, 1), EventRequestState.PENDING, EventRequestState.CONFIRMED);
+
+        assertEquals(REQUESTERS - 1, eventRequestRepository.updateStatusByEventId(
+                eventId, EventRequestState.PENDING, EventRequestState.REJECTED));
+
+        assertEquals(List.of("CONFIRMED", "REJECTED", "REJECTED", "REJECTED", "REJECTED"),
+                jdbcTemplate.queryForList("SELECT status FROM requests ORDER BY id", String.class));
+    }
+}
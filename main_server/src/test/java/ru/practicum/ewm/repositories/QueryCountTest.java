@@ -0,0 +1,119 @@
+package ru.practicum.ewm.repositories;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.TestPropertySource;
+import ru.practicum.ewm.controllers.mappers.CompilationMapper;
+import ru.practicum.ewm.controllers.mappers.EventMapper;
+import ru.practicum.ewm.entities.EventStatus;
+import ru.practicum.ewm.utils.QueryCounter;
+
+import javax.persistence.EntityManager;
+import javax.persistence.EntityManagerFactory;
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * Mapping a page to DTOs must take the same number of queries whatever the page size,
+ * see {@link ru.practicum.ewm.entities.Event#WITH_INITIATOR_AND_CATEGORY}.
+ */
+@DataJpaTest
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@TestPropertySource(properties = "spring.jpa.properties.hibernate.generate_statistics=true")
+class QueryCountTest {
+
+    private static final int EVENTS = 10;
+    private static final int COMPILATIONS = 3;
+
+    @Autowired
+    private EventRepository eventRepository;
+
+    @Autowired
+    private CompilationRepository compilationRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private EntityManager entityManager;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    private QueryCounter queryCounter;
+
+    @BeforeEach
+    void setUp() {
+        queryCounter = new QueryCounter(entityManagerFactory);
+
+        for (int i = 0; i < EVENTS; i++) {
+            jdbcTemplate.update("INSERT INTO users (name, email) VALUES (?, ?)", "user" + i, "user" + i + "@mail.ru");
+            jdbcTemplate.update("INSERT INTO categories (name) VALUES (?)", "category" + i);
+            jdbcTemplate.update("INSERT INTO events (created_on, published_on, event_date, state, title, description, " +
+                            "annotation, participant_limit, confirmed_requests, longitude, latitude, paid, " +
+                            "request_moderation, initiator_id, category_id) " +
+                            "VALUES (?, ?, ?, 'PUBLISHED', 'title', 'description', 'annotation', 0, 0, 0, 0, " +
+                            "false, false, " +
+                            "(SELECT id FROM users WHERE name = ?), (SELECT id FROM categories WHERE name = ?))",
+                    LocalDateTime.now(), LocalDateTime.now(), LocalDateTime.now().plusDays(1 + i),
+                    "user" + i, "category" + i);
+        }
+        for (int i = 0; i < COMPILATIONS; i++) {
+            jdbcTemplate.update("INSERT INTO compilations (title, pinned) VALUES (?, true)", "compilation" + i);
+            jdbcTemplate.update("INSERT INTO compilations_events_link (compilation_id, event_id) " +
+                    "SELECT c.id, e.id FROM compilations AS c CROSS JOIN events AS e WHERE c.title = ?",
+                    "compilation" + i);
+        }
+        entityManager.clear();
+    }
+
+    @Test
+    void searchPublishedEvents_mapsPageInOneQuery() {
+        queryCounter.assertQueryCount(1, () -> {
+            final var events = eventRepository.searchPublishedEventsOrderByEventDateAsc(
+                    null, null, false, null, LocalDateTime.now(), null, PageRequest.of(0, EVENTS));
+            events.forEach(EventMapper::map);
+            assertEquals(EVENTS, events.getNumberOfElements());
+        });
+    }
+
+    @Test
+    void findAllByInitiatorId_mapsPageInOneQuery() {
+        final long userId = jdbcTemplate.queryForObject("SELECT MIN(id) FROM users", Long.class);
+
+        queryCounter.assertQueryCount(1, () -> eventRepository.findAllByInitiatorId(userId, PageRequest.of(0, EVENTS))
+                .forEach(EventMapper::map));
+    }
+
+    @Test
+    void findAllForAdmin_mapsPageInOneQuery() {
+        queryCounter.assertQueryCount(1, () ->
+                eventRepository.findAllByInitiatorIdInAndCategoryIdInAndEventDateIsAfterAndEventDateIsBeforeAndStateIn(
+                        null, null, null, null, List.of(EventStatus.PUBLISHED), PageRequest.of(0, EVENTS))
+                        .forEach(EventMapper::map));
+    }
+
+    @Test
+    void findAllById_mapsEventsInOneQuery() {
+        final List<Long> ids = jdbcTemplate.queryForList("SELECT id FROM events", Long.class);
+
+        queryCounter.assertQueryCount(1, () -> eventRepository.findAllById(ids).forEach(EventMapper::map));
+    }
+
+    @Test
+    void findAllCompilations_mapsPageInFixedNumberOfQueries() {
+        // compilations, their events, the events' initiators, the events' categories, and the page count
+        queryCounter.assertQueryCount(5, () -> {
+            final var compilations = compilationRepository.findAllByPinnedEquals(true, PageRequest.of(0, 2));
+            compilations.forEach(CompilationMapper::map);
+            assertEquals(2, compilations.getNumberOfElements());
+        });
+    }
+}
@@ -0,0 +1,111 @@
+package ru.practicum.ewm.repositories;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+import org.springframework.jdbc.datasource.init.ResourceDatabasePopulator;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+/**
+ * Runs the current schema scripts over a database created by the first released schema.
+ */
+class SchemaMigrationTest {
+
+    private DriverManagerDataSource dataSource;
+    private JdbcTemplate jdbcTemplate;
+    private long eventId;
+
+    @BeforeEach
+    void setUp() {
+        dataSource = new DriverManagerDataSource("jdbc:h2:mem:" + UUID.randomUUID() + ";DB_CLOSE_DELAY=-1");
+        jdbcTemplate = new JdbcTemplate(dataSource);
+        new ResourceDatabasePopulator(new ClassPathResource("schema-baseline.sql")).execute(dataSource);
+
+        jdbcTemplate.update("INSERT INTO users (name, email) VALUES ('user', 'user@mail.ru')");
+        jdbcTemplate.update("INSERT INTO categories (name) VALUES ('category')");
+        jdbcTemplate.update("INSERT INTO events (created_on, event_date, state, title, description, " +
+                        "participant_limit, confirmed_requests, longitude, latitude, paid, request_moderation, " +
+                        "initiator_id, category_id) " +
+                        "VALUES (?, ?, 'PUBLISHED', 'title', 'description', 0, 0, 37.62, 55.75, false, false, " +
+                        "(SELECT id FROM users), (SELECT id FROM categories))",
+                LocalDateTime.now(), LocalDateTime.now().plusDays(1));
+        eventId = jdbcTemplate.queryForObject("SELECT id FROM events", Long.class);
+    }
+
+    @AfterEach
+    void tearDown() {
+        jdbcTemplate.execute("DROP ALL OBJECTS");
+    }
+
+    @Test
+    void schema_existingEvents_geohashAddedEmptyAndIndexed() {
+        migrate();
+
+        assertNull(jdbcTemplate.queryForObject("SELECT geohash FROM events WHERE id = ?", Long.class, eventId));
+        assertEquals(1, jdbcTemplate.queryForObject("SELECT COUNT(*) FROM information_schema.indexes " +
+                "WHERE index_name = 'EVENTS_GEOHASH_IDX'", Integer.class));
+    }
+
+    @Test
+    void schema_existingEvents_viewsStartAtZero() {
+        migrate();
+
+        assertEquals(0L, jdbcTemplate.queryForObject("SELECT views FROM events WHERE id = ?", Long.class, eventId));
+    }
+
+    @Test
+    void schema_existingEvents_versionStartsAtZero() {
+        migrate();
+
+        assertEquals(0L, jdbcTemplate.queryForObject("SELECT version FROM events WHERE id = ?", Long.class, eventId));
+    }
+
+    @Test
+    void schema_existingComments_counted() {
+        jdbcTemplate.batchUpdate("INSERT INTO comments (user_id, event_id, created_on, edited_on, text) " +
+                "VALUES ((SELECT id FROM users), " + eventId + ", NOW(), NOW(), ?)", List.of(
+                new Object[]{"first"}, new Object[]{"second"}));
+
+        migrate();
+        jdbcTemplate.update("INSERT INTO events (created_on, event_date, state, title, description, " +
+                "participant_limit, confirmed_requests, longitude, latitude, paid, request_moderation, " +
+                "initiator_id, category_id) " +
+                "SELECT created_on, event_date, state, title, description, participant_limit, confirmed_requests, " +
+                "longitude, latitude, paid, request_moderation, initiator_id, category_id FROM events");
+
+        assertEquals(2, jdbcTemplate.queryForObject(
+                "SELECT comment_count FROM events WHERE id = ?", Integer.class, eventId));
+        assertEquals(0, jdbcTemplate.queryForObject(
+                "SELECT comment_count FROM events WHERE id <> ?", Integer.class, eventId));
+    }
+
+    @Test
+    void schema_existingCategories_updatedOnSet() {
+        migrate();
+
+        assertEquals(0, jdbcTemplate.queryForObject(
+                "SELECT COUNT(*) FROM categories WHERE updated_on IS NULL", Integer.class));
+    }
+
+    @Test
+    void schema_runTwice_succeeds() {
+        migrate();
+        migrate();
+
+        assertEquals(1, jdbcTemplate.queryForObject("SELECT COUNT(*) FROM events", Integer.class));
+    }
+
+    private void migrate() {
+        new ResourceDatabasePopulator(new ClassPathResource("schema.sql"), new ClassPathResource("schema-h2.sql"))
+                .execute(dataSource);
+    }
+}
@@ -9,18 +9,25 @@ import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageImpl;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
+import ru.practicum.ewm.entities.CategoriesVersion;
 import ru.practicum.ewm.entities.Category;
 import ru.practicum.ewm.exceptions.NotFoundException;
 import ru.practicum.ewm.repositories.CategoryRepository;
+import ru.practicum.ewm.repositories.EventRepository;
 
+import java.time.LocalDateTime;
+import java.time.ZoneId;
 import java.util.List;
 import java.util.Optional;
 import java.util.stream.Collectors;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
 import static org.junit.jupiter.api.Assertions.assertThrows;
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.AdditionalAnswers.returnsFirstArg;
 import static org.mockito.Mockito.doNothing;
 import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
@@ -38,6 +45,12 @@ class CategoryServiceImplTest {
     @Mock
     private CategoryRepository repository;
 
+    @Mock
+    private EventRepository eventRepository;
+
+    @Mock
+    private CompilationCache compilationCache;
+
     @InjectMocks
     private CategoryServiceImpl subject;
 
@@ -45,12 +58,13 @@ class CategoryServiceImplTest {
     void create() {
         Category category = getDefaultCategory();
 
-        when(repository.save(category)).thenReturn(category);
+        when(repository.save(any(Category.class))).then(returnsFirstArg());
 
         Category result = subject.create(category);
 
-        assertEquals(result, category);
-        verify(repository, times(1)).save(category);
+        assertEquals(category.getName(), result.getName());
+        assertNotNull(result.getUpdatedOn());
+        verify(repository, times(1)).save(any(Category.class));
         verifyNoMoreInteractions(repository);
     }
 
@@ -82,15 +96,53 @@ class CategoryServiceImplTest {
     void update() {
         Category category = getDefaultCategory();
 
-        when(repository.save(category)).thenReturn(category);
+        when(repository.save(any(Category.class))).then(returnsFirstArg());
 
         Category result = subject.update(category);
 
-        assertEquals(result, category);
-        verify(repository, times(1)).save(category);
+        assertEquals(category.getId(), result.getId());
+        assertEquals(category.getName(), result.getName());
+        assertNotNull(result.getUpdatedOn());
+        verify(repository, times(1)).save(any(Category.class));
         verifyNoMoreInteractions(repository);
     }
 
+    @Test
+    void getVersion_derivedFromCountAndLastUpdate() {
+        final LocalDateTime updatedOn = LocalDateTime.of(2024, 5, 1, 12, 0, 0, 123_456_000);
+        when(repository.findVersion()).thenReturn(
+                new CategoriesVersion(3, updatedOn),
+                new CategoriesVersion(3, updatedOn),
+                new CategoriesVersion(2, updatedOn),
+                new CategoriesVersion(3, updatedOn.plusNanos(1_000)));
+
+        final ContentVersion version = subject.getVersion();
+
+        assertEquals(version, subject.getVersion());
+        assertNotEquals(version.getEtag(), subject.getVersion().getEtag());
+        assertNotEquals(version.getEtag(), subject.getVersion().getEtag());
+        assertEquals(updatedOn.atZone(ZoneId.systemDefault()).toInstant().toEpochMilli(), version.getLastModified());
+    }
+
+    @Test
+    void getVersion_noCategories_noLastModified() {
+        when(repository.findVersion()).thenReturn(new CategoriesVersion(0, null));
+
+        assertEquals(-1, subject.getVersion().getLastModified());
+    }
+
+    @Test
+    void getVersion_ofCategory_changesWithUpdate() {
+        final Category category = getDefaultCategory().toBuilder()
+                .updatedOn(LocalDateTime.of(2024, 5, 1, 12, 0))
+                .build();
+
+        assertEquals(subject.getVersion(category), subject.getVersion(category.toBuilder().build()));
+        assertNotEquals(subject.getVersion(category).getEtag(), subject.getVersion(category.toBuilder()
+                .updatedOn(category.getUpdatedOn().plusSeconds(1))
+                .build()).getEtag());
+    }
+
     @Test
     void delete_whenCategoryExists_deleteCategory() {
         Category category = getDefaultCategory();
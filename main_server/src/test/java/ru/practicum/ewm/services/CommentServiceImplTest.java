@@ -0,0 +1,123 @@
+package ru.practicum.ewm.services;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.context.annotation.Import;
+import org.springframework.jdbc.core.JdbcTemplate;
+import ru.practicum.ewm.entities.Comment;
+import ru.practicum.ewm.entities.Event;
+import ru.practicum.ewm.exceptions.ForbiddenOperation;
+import ru.practicum.ewm.repositories.EventRepository;
+import ru.practicum.ewm.repositories.UserRepository;
+
+import javax.persistence.EntityManager;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+@DataJpaTest
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@Import(CommentServiceImpl.class)
+class CommentServiceImplTest {
+
+    @Autowired
+    private CommentService commentService;
+
+    @Autowired
+    private EventRepository eventRepository;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private EntityManager entityManager;
+
+    @MockBean
+    private CompilationCache compilationCache;
+
+    private long eventId;
+    private long userId;
+
+    @BeforeEach
+    void setUp() {
+        jdbcTemplate.update("INSERT INTO users (name, email) VALUES ('user', 'user@mail.ru')");
+        jdbcTemplate.update("INSERT INTO categories (name) VALUES ('category')");
+        jdbcTemplate.update("INSERT INTO events (created_on, published_on, event_date, state, title, description, " +
+                        "annotation, participant_limit, confirmed_requests, longitude, latitude, paid, " +
+                        "request_moderation, initiator_id, category_id) " +
+                        "VALUES (?, ?, ?, 'PUBLISHED', 'title', 'description', 'annotation', 0, 0, 0, 0, " +
+                        "false, false, (SELECT id FROM users), (SELECT id FROM categories))",
+                LocalDateTime.now(), LocalDateTime.now(), LocalDateTime.now().plusDays(1));
+        eventId = jdbcTemplate.queryForObject("SELECT id FROM events", Long.class);
+        userId = jdbcTemplate.queryForObject("SELECT id FROM users", Long.class);
+    }
+
+    @Test
+    void createAndDelete_updateCommentCount() {
+        final Comment first = create("first");
+        create("second");
+
+        assertEquals(2, commentCount());
+
+        commentService.deleteById(first.getId(), userId, eventId);
+
+        assertEquals(1, commentCount());
+        assertEquals(3, jdbcTemplate.queryForObject("SELECT version FROM events WHERE id = ?", Long.class, eventId));
+    }
+
+    @Test
+    void create_toNotPublishedEvent_rejected() {
+        jdbcTemplate.update("UPDATE events SET state = 'PENDING' WHERE id = ?", eventId);
+        entityManager.clear();
+
+        assertThrows(ForbiddenOperation.class, () -> create("text"));
+        assertEquals(0, commentCount());
+    }
+
+    @Test
+    void getLatestByEventId_returnsNewestFirst() {
+        create("first");
+        create("second");
+        create("third");
+
+        final List<String> texts = commentService.getLatestByEventId(eventId, 2).stream()
+                .map(Comment::getText)
+                .collect(Collectors.toList());
+
+        assertEquals(List.of("third", "second"), texts);
+    }
+
+    @Test
+    void subtractCommentCountsOfUser_removesUserComments() {
+        create("first");
+        create("second");
+
+        eventRepository.subtractCommentCountsOfUser(userId);
+
+        assertEquals(0, commentCount());
+    }
+
+    private Comment create(String text) {
+        final Event event = eventRepository.findById(eventId).orElseThrow();
+        return commentService.create(Comment.builder()
+                .event(event)
+                .user(userRepository.getReferenceById(userId))
+                .text(text)
+                .build());
+    }
+
+    private int commentCount() {
+        entityManager.flush();
+        return jdbcTemplate.queryForObject("SELECT comment_count FROM events WHERE id = ?", Integer.class, eventId);
+    }
+}
@@ -0,0 +1,97 @@
+package ru.practicum.ewm.services;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class CompilationCacheTest {
+
+    private CompilationCache cache;
+    private AtomicInteger renders;
+
+    @BeforeEach
+    void setUp() {
+        cache = new CompilationCache(new SimpleMeterRegistry(), 100, 60_000);
+        renders = new AtomicInteger();
+    }
+
+    @Test
+    void getById_cached_rendersOnce() {
+        cache.getById(1L, renderer("first", 10L));
+        byte[] body = cache.getById(1L, renderer("second", 10L)).getBody();
+
+        assertArrayEquals(bytes("first"), body);
+        assertEquals(1, renders.get());
+    }
+
+    @Test
+    void getById_expired_rendersAgain() {
+        cache = new CompilationCache(new SimpleMeterRegistry(), 100, 0);
+
+        cache.getById(1L, renderer("first", 10L));
+        byte[] body = cache.getById(1L, renderer("second", 10L)).getBody();
+
+        assertArrayEquals(bytes("second"), body);
+        assertEquals(2, renders.get());
+    }
+
+    @Test
+    void invalidateEvent_dropsOnlyEntriesShowingEvent() {
+        cache.getById(1L, renderer("one", 10L));
+        cache.getById(2L, renderer("two", 20L));
+        cache.getPage(true, 0, 10, renderer("page", 10L, 20L));
+
+        cache.invalidateEvent(10L);
+        cache.getById(1L, renderer("one", 10L));
+        cache.getById(2L, renderer("two", 20L));
+        cache.getPage(true, 0, 10, renderer("page", 10L, 20L));
+
+        assertEquals(5, renders.get());
+    }
+
+    @Test
+    void invalidateCompilation_dropsCompilationAndPages() {
+        cache.getById(1L, renderer("one"));
+        cache.getById(2L, renderer("two"));
+        cache.getPage(null, 0, 10, renderer("page"));
+
+        cache.invalidateCompilation(1L);
+        cache.getById(1L, renderer("one"));
+        cache.getById(2L, renderer("two"));
+        cache.getPage(null, 0, 10, renderer("page"));
+
+        assertEquals(5, renders.get());
+    }
+
+    @Test
+    void get_invalidatedWhileRendering_notKept() {
+        cache.getById(1L, () -> {
+            renders.incrementAndGet();
+            cache.invalidateAll();
+            return new CompilationCache.Rendered(bytes("stale"), Set.of());
+        });
+        byte[] body = cache.getById(1L, renderer("fresh")).getBody();
+
+        assertArrayEquals(bytes("fresh"), body);
+        assertEquals(2, renders.get());
+    }
+
+    private Supplier<CompilationCache.Rendered> renderer(String body, Long... eventIds) {
+        return () -> {
+            renders.incrementAndGet();
+            return new CompilationCache.Rendered(bytes(body), Set.of(eventIds));
+        };
+    }
+
+    private static byte[] bytes(String body) {
+        return body.getBytes(StandardCharsets.UTF_8);
+    }
+}
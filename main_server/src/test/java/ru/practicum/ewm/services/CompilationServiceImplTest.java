@@ -0,0 +1,107 @@
+package ru.practicum.ewm.services;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.context.annotation.Import;
+import org.springframework.jdbc.core.JdbcTemplate;
+import ru.practicum.ewm.entities.Compilation;
+import ru.practicum.ewm.entities.Event;
+import ru.practicum.ewm.repositories.EventRepository;
+
+import javax.persistence.EntityManager;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+@DataJpaTest
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@Import(CompilationServiceImpl.class)
+class CompilationServiceImplTest {
+
+    private static final int LINKED_EVENTS = 10_000;
+    private static final int REPLACED_EVENTS = 5_000;
+
+    @Autowired
+    private CompilationService compilationService;
+
+    @Autowired
+    private EventRepository eventRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private EntityManager entityManager;
+
+    @MockBean
+    private CompilationCache compilationCache;
+
+    private long compId;
+    private List<Long> eventIds;
+
+    @BeforeEach
+    void setUp() {
+        jdbcTemplate.update("INSERT INTO users (name, email) VALUES ('initiator', 'initiator@mail.ru')");
+        jdbcTemplate.update("INSERT INTO categories (name) VALUES ('category')");
+        jdbcTemplate.batchUpdate("INSERT INTO events (created_on, published_on, event_date, state, title, " +
+                        "description, annotation, participant_limit, confirmed_requests, longitude, latitude, paid, " +
+                        "request_moderation, initiator_id, category_id) " +
+                        "VALUES (?, ?, ?, 'PUBLISHED', 'title', 'description', 'annotation', 0, 0, 0, 0, " +
+                        "false, false, (SELECT id FROM users), (SELECT id FROM categories))",
+                IntStream.range(0, LINKED_EVENTS + REPLACED_EVENTS)
+                        .mapToObj(i -> new Object[]{LocalDateTime.now(), LocalDateTime.now(),
+                                LocalDateTime.now().plusDays(1)})
+                        .collect(Collectors.toList()));
+        eventIds = jdbcTemplate.queryForList("SELECT id FROM events ORDER BY id", Long.class);
+
+        jdbcTemplate.update("INSERT INTO compilations (title, pinned) VALUES ('compilation', false)");
+        compId = jdbcTemplate.queryForObject("SELECT id FROM compilations", Long.class);
+        jdbcTemplate.batchUpdate("INSERT INTO compilations_events_link (compilation_id, event_id) VALUES (?, ?)",
+                eventIds.subList(0, LINKED_EVENTS).stream()
+                        .map(eventId -> new Object[]{compId, eventId})
+                        .collect(Collectors.toList()));
+        entityManager.clear();
+    }
+
+    @Test
+    void update_withTenThousandLinkedEvents_replacesChangedLinksOnly() {
+        final List<Long> newEventIds = eventIds.subList(REPLACED_EVENTS, LINKED_EVENTS + REPLACED_EVENTS);
+        final List<Event> newEvents = newEventIds.stream()
+                .map(eventRepository::getReferenceById)
+                .collect(Collectors.toList());
+        final Long keptLinkId = jdbcTemplate.queryForObject(
+                "SELECT id FROM compilations_events_link WHERE compilation_id = ? AND event_id = ?",
+                Long.class, compId, newEventIds.get(0));
+
+        final Compilation updated = compilationService.update(Compilation.builder()
+                .id(compId)
+                .title("updated")
+                .events(newEvents)
+                .build());
+        entityManager.flush();
+
+        assertEquals("updated", updated.getTitle());
+        assertEquals(LINKED_EVENTS, updated.getEvents().size());
+        assertEquals(newEventIds, jdbcTemplate.queryForList(
+                "SELECT event_id FROM compilations_events_link WHERE compilation_id = ? ORDER BY event_id",
+                Long.class, compId));
+        assertEquals(keptLinkId, jdbcTemplate.queryForObject(
+                "SELECT id FROM compilations_events_link WHERE compilation_id = ? AND event_id = ?",
+                Long.class, compId, newEventIds.get(0)));
+    }
+
+    @Test
+    void difference_sortedArrays_returnsMissingIds() {
+        assertArrayEquals(new long[]{1, 4, 6},
+                CompilationServiceImpl.difference(new long[]{1, 2, 4, 5, 6}, new long[]{0, 2, 3, 5}));
+        assertArrayEquals(new long[]{}, CompilationServiceImpl.difference(new long[]{}, new long[]{1}));
+    }
+}
@@ -0,0 +1,137 @@
+package ru.practicum.ewm.services;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.context.annotation.Import;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+import ru.practicum.ewm.entities.Event;
+import ru.practicum.ewm.entities.EventRequest;
+import ru.practicum.ewm.entities.EventRequestState;
+import ru.practicum.ewm.exceptions.ForbiddenOperation;
+import ru.practicum.ewm.repositories.EventRepository;
+import ru.practicum.ewm.repositories.UserRepository;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+@DataJpaTest
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@Import(EventRequestServiceImpl.class)
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+class EventRequestServiceImplConcurrencyTest {
+
+    private static final int REQUESTERS = 1000;
+    private static final int PARTICIPANT_LIMIT = 100;
+    private static final int THREADS = 32;
+
+    @Autowired
+    private EventRequestService eventRequestService;
+
+    @MockBean
+    private CompilationCache compilationCache;
+
+    @Autowired
+    private EventRepository eventRepository;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    private long eventId;
+    private List<Long> requesterIds;
+
+    @BeforeEach
+    void setUp() {
+        jdbcTemplate.update("INSERT INTO users (name, email) VALUES ('initiator', 'initiator@mail.ru')");
+        jdbcTemplate.batchUpdate("INSERT INTO users (name, email) VALUES (?, ?)",
+                IntStream.range(0, REQUESTERS)
+                        .mapToObj(i -> new Object[]{"requester" + i, "requester" + i + "@mail.ru"})
+                        .collect(Collectors.toList()));
+        jdbcTemplate.update("INSERT INTO categories (name) VALUES ('category')");
+        jdbcTemplate.update("INSERT INTO events (created_on, published_on, event_date, state, title, description, " +
+                        "annotation, participant_limit, confirmed_requests, longitude, latitude, paid, " +
+                        "request_moderation, initiator_id, category_id) " +
+                        "VALUES (?, ?, ?, 'PUBLISHED', 'title', 'description', 'annotation', ?, 0, 0, 0, " +
+                        "false, false, " +
+                        "(SELECT id FROM users WHERE name = 'initiator'), (SELECT id FROM categories))",
+                LocalDateTime.now(), LocalDateTime.now(), LocalDateTime.now().plusDays(1), PARTICIPANT_LIMIT);
+
+        eventId = jdbcTemplate.queryForObject("SELECT id FROM events", Long.class);
+        requesterIds = jdbcTemplate.queryForList("SELECT id FROM users WHERE name LIKE 'requester%'", Long.class);
+    }
+
+    @AfterEach
+    void tearDown() {
+        jdbcTemplate.update("DELETE FROM requests");
+        jdbcTemplate.update("DELETE FROM events");
+        jdbcTemplate.update("DELETE FROM categories");
+        jdbcTemplate.update("DELETE FROM users");
+    }
+
+    @Test
+    void create_withParallelRequesters_neverExceedsParticipantLimit() throws Exception {
+        final TransactionTemplate transactionTemplate = new TransactionTemplate(transactionManager);
+        final ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+        final CountDownLatch start = new CountDownLatch(1);
+
+        final List<Future<Boolean>> results = new ArrayList<>();
+        for (final long requesterId : requesterIds) {
+            results.add(executor.submit(() -> {
+                start.await();
+                try {
+                    return transactionTemplate.execute(status -> {
+                        final Event event = eventRepository.findById(eventId).orElseThrow();
+                        eventRequestService.create(EventRequest.builder()
+                                .event(event)
+                                .requester(userRepository.getReferenceById(requesterId))
+                                .build());
+                        return true;
+                    });
+                } catch (ForbiddenOperation e) {
+                    return false;
+                }
+            }));
+        }
+        start.countDown();
+
+        int confirmed = 0;
+        for (final Future<Boolean> result : results) {
+            if (result.get()) {
+                confirmed++;
+            }
+        }
+        executor.shutdown();
+        assertTrue(executor.awaitTermination(10, TimeUnit.SECONDS));
+
+        assertEquals(PARTICIPANT_LIMIT, confirmed);
+        assertEquals(PARTICIPANT_LIMIT, jdbcTemplate.queryForObject(
+                "SELECT confirmed_requests FROM events WHERE id = ?", Integer.class, eventId));
+        assertEquals(PARTICIPANT_LIMIT, jdbcTemplate.queryForObject(
+                "SELECT COUNT(*) FROM requests WHERE status = ?", Integer.class, EventRequestState.CONFIRMED.name()));
+    }
+}
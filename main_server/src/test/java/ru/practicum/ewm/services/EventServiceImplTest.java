@@ -0,0 +1,46 @@
+package ru.practicum.ewm.services;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import ru.practicum.ewm.entities.Event;
+import ru.practicum.ewm.entities.EventStatus;
+import ru.practicum.ewm.repositories.EventRepository;
+
+import java.time.LocalDateTime;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class EventServiceImplTest {
+
+    @Mock
+    private EventRepository repo;
+    @Mock
+    private CompilationCache compilationCache;
+
+    @InjectMocks
+    private EventServiceImpl subject;
+
+    @Test
+    void create_countersStartAtZero() {
+        when(repo.save(any(Event.class))).thenAnswer(invocation -> invocation.getArgument(0));
+
+        Event created = subject.create(Event.builder()
+                .title("title")
+                .eventDate(LocalDateTime.now().plusDays(1))
+                .latitude(55.75f)
+                .longitude(37.62f)
+                .build());
+
+        assertEquals(EventStatus.PENDING, created.getState());
+        assertEquals(0, created.getConfirmedRequests());
+        assertEquals(0, created.getCommentCount());
+        assertEquals(0L, created.getViews());
+        assertEquals(0L, created.getVersion());
+    }
+}
@@ -0,0 +1,72 @@
+package ru.practicum.ewm.services;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.domain.Pageable;
+import org.springframework.transaction.support.TransactionCallback;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.web.client.ResourceAccessException;
+import ru.practicum.ewm.client.StatsClient;
+import ru.practicum.ewm.repositories.EventRepository;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.lenient;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class EventViewsSynchronizerTest {
+
+    private static final int BATCH_SIZE = 2;
+
+    @Mock
+    private EventRepository repo;
+    @Mock
+    private StatsClient client;
+    @Mock
+    private TransactionTemplate transactionTemplate;
+
+    private EventViewsSynchronizer subject;
+
+    @BeforeEach
+    void setUp() {
+        subject = new EventViewsSynchronizer(repo, client, transactionTemplate, BATCH_SIZE);
+        lenient().when(transactionTemplate.execute(any()))
+                .thenAnswer(invocation -> invocation.<TransactionCallback<Integer>>getArgument(0).doInTransaction(null));
+    }
+
+    @Test
+    void sync_copiesViewsOfAllPublishedEventsInBatches() {
+        when(repo.findPublishedIdsAfter(eq(0L), any(Pageable.class))).thenReturn(List.of(1L, 2L));
+        when(repo.findPublishedIdsAfter(eq(2L), any(Pageable.class))).thenReturn(List.of(3L));
+        when(client.getStats(any(LocalDateTime.class), any(LocalDateTime.class), anyList()))
+                .thenReturn(Map.of("/events/1", 5L), Map.of());
+
+        subject.sync();
+
+        verify(repo).updateViews(Map.of(1L, 5L, 2L, 0L));
+        verify(repo).updateViews(Map.of(3L, 0L));
+    }
+
+    @Test
+    void sync_whenStatsServerUnavailable_nothingUpdated() {
+        when(repo.findPublishedIdsAfter(anyLong(), any(Pageable.class))).thenReturn(List.of(1L));
+        when(client.getStats(any(LocalDateTime.class), any(LocalDateTime.class), anyList()))
+                .thenThrow(new ResourceAccessException("connection refused"));
+
+        subject.sync();
+
+        verify(repo, never()).updateViews(any());
+    }
+}
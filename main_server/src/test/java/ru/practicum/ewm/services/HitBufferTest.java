@@ -0,0 +1,130 @@
+package ru.practicum.ewm.services;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.module.paramnames.ParameterNamesModule;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.junit.jupiter.api.io.TempDir;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.client.ResourceAccessException;
+import ru.practicum.ewm.client.StatsClient;
+import ru.practicum.ewm.dto.HitDto;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
+import static org.mockito.Mockito.verifyNoMoreInteractions;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class HitBufferTest {
+
+    private static final int CAPACITY = 3;
+    private static final int BATCH_SIZE = 2;
+
+    @Mock
+    private StatsClient client;
+
+    @TempDir
+    Path tempDir;
+
+    private final MeterRegistry registry = new SimpleMeterRegistry();
+
+    private HitBuffer buffer(HitBufferOverflowPolicy policy) {
+        return new HitBuffer(client, new ObjectMapper().registerModule(new ParameterNamesModule()), registry, CAPACITY, BATCH_SIZE, 1000, 0,
+                policy, tempDir.resolve("hits.spill").toString());
+    }
+
+    private static HitDto hit(int i) {
+        return HitDto.builder()
+                .app("ewm-main-service")
+                .uri("/events/" + i)
+                .ip("127.0.0.1")
+                .timestamp("2022-09-06 11:00:23")
+                .build();
+    }
+
+    @Test
+    void offer_doesNotCallStatsServer() {
+        HitBuffer subject = buffer(HitBufferOverflowPolicy.DROP);
+
+        subject.offer(hit(1));
+
+        assertEquals(1, subject.depth());
+        verifyNoInteractions(client);
+    }
+
+    @Test
+    void flush_sendsHitsInBatches() {
+        HitBuffer subject = buffer(HitBufferOverflowPolicy.DROP);
+        when(client.recordHits(anyList())).thenReturn(new ResponseEntity<>(HttpStatus.CREATED));
+
+        subject.offer(hit(1));
+        subject.offer(hit(2));
+        subject.offer(hit(3));
+        subject.flush();
+
+        assertEquals(0, subject.depth());
+        verify(client, times(1)).recordHits(List.of(hit(1), hit(2)));
+        verify(client, times(1)).recordHits(List.of(hit(3)));
+        verifyNoMoreInteractions(client);
+    }
+
+    @Test
+    void offer_whenFullAndDropPolicy_countsDroppedHits() {
+        HitBuffer subject = buffer(HitBufferOverflowPolicy.DROP);
+
+        for (int i = 0; i < CAPACITY + 2; i++) {
+            subject.offer(hit(i));
+        }
+
+        assertEquals(CAPACITY, subject.depth());
+        assertEquals(2.0, registry.counter("ewm.hits.buffer.dropped").count());
+    }
+
+    @Test
+    void flush_whenStatsServerFails_keepsHits() {
+        HitBuffer subject = buffer(HitBufferOverflowPolicy.DROP);
+        when(client.recordHits(anyList())).thenThrow(new ResourceAccessException("connection refused"));
+
+        subject.offer(hit(1));
+        subject.offer(hit(2));
+        subject.flush();
+
+        assertEquals(2, subject.depth());
+    }
+
+    @Test
+    void offer_whenFullAndSpillPolicy_replaysSpilledHitsOnFlush() {
+        HitBuffer subject = buffer(HitBufferOverflowPolicy.SPILL);
+        Path spillFile = tempDir.resolve("hits.spill");
+        when(client.recordHits(anyList())).thenReturn(new ResponseEntity<>(HttpStatus.CREATED));
+
+        for (int i = 0; i < CAPACITY + 1; i++) {
+            subject.offer(hit(i));
+        }
+        assertTrue(Files.exists(spillFile));
+
+        subject.flush();
+
+        assertFalse(Files.exists(spillFile));
+        assertEquals(0, subject.depth());
+        verify(client, times(1)).recordHits(List.of(hit(CAPACITY)));
+        verify(client, times(1)).recordHits(List.of(hit(0), hit(1)));
+        verify(client, times(1)).recordHits(List.of(hit(2)));
+        verifyNoMoreInteractions(client);
+    }
+}
@@ -0,0 +1,160 @@
+package ru.practicum.ewm.services;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import ru.practicum.ewm.client.StatsClient;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static java.util.concurrent.CompletableFuture.completedFuture;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.argThat;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.ArgumentMatchers.isNull;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoMoreInteractions;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class HitServiceImplTest {
+
+    private static final String URI_1 = "events/1";
+    private static final String URI_2 = "events/2";
+
+    @Mock
+    private StatsClient client;
+    @Mock
+    private HitBuffer hitBuffer;
+
+    private final MeterRegistry registry = new SimpleMeterRegistry();
+
+    private HitServiceImpl subject;
+
+    @BeforeEach
+    void setUp() {
+        subject = new HitServiceImpl(client, hitBuffer, registry, 100, 60_000, 60_000);
+    }
+
+    @Test
+    void getStats_onlyMissesFetchedInOneCall() {
+        when(client.getStatsAsync(any(LocalDateTime.class), any(LocalDateTime.class), eq(List.of(URI_1)), isNull()))
+                .thenReturn(completedFuture(Map.of(URI_1, 5L)));
+        when(client.getStatsAsync(any(LocalDateTime.class), any(LocalDateTime.class), eq(List.of(URI_2)), isNull()))
+                .thenReturn(completedFuture(Map.of()));
+
+        subject.getStats(List.of(URI_1));
+        Map<String, Long> result = subject.getStats(List.of(URI_1, URI_2));
+
+        assertEquals(5L, result.get(URI_1));
+        assertFalse(result.containsKey(URI_2));
+        verify(client, times(1))
+                .getStatsAsync(any(LocalDateTime.class), any(LocalDateTime.class), eq(List.of(URI_1)), isNull());
+        verify(client, times(1))
+                .getStatsAsync(any(LocalDateTime.class), any(LocalDateTime.class), eq(List.of(URI_2)), isNull());
+        verifyNoMoreInteractions(client);
+    }
+
+    @Test
+    void getStats_unknownUrisCached() {
+        when(client.getStatsAsync(any(LocalDateTime.class), any(LocalDateTime.class),
+                argThat((List<String> uris) -> uris.size() == 2), isNull()))
+                .thenReturn(completedFuture(Map.of(URI_1, 1L)));
+
+        subject.getStats(List.of(URI_1, URI_2));
+        Map<String, Long> result = subject.getStats(List.of(URI_2, URI_1));
+
+        assertEquals(1, result.size());
+        assertEquals(2.0, registry.get("cache.gets").tag("cache", "ewm.views").tag("result", "hit")
+                .functionCounter().count());
+        verify(client, times(1)).getStatsAsync(any(LocalDateTime.class), any(LocalDateTime.class),
+                argThat((List<String> uris) -> uris.size() == 2), isNull());
+    }
+
+    @Test
+    void getStats_concurrentLookups_shareOneRequestPerUri() throws Exception {
+        final int callers = 200;
+        final Map<String, Integer> requestedUris = new ConcurrentHashMap<>();
+        final AtomicInteger requests = new AtomicInteger();
+        when(client.getStatsAsync(any(LocalDateTime.class), any(LocalDateTime.class), anyList(), isNull()))
+                .thenAnswer(invocation -> {
+                    requests.incrementAndGet();
+                    List<String> uris = invocation.getArgument(2);
+                    uris.forEach(uri -> requestedUris.merge(uri, 1, Integer::sum));
+                    // stands for the round trip to the stats server
+                    return CompletableFuture.supplyAsync(() -> Map.of(URI_1, 5L),
+                            CompletableFuture.delayedExecutor(50, TimeUnit.MILLISECONDS));
+                });
+
+        final ExecutorService executor = Executors.newFixedThreadPool(callers);
+        final CountDownLatch start = new CountDownLatch(1);
+        final List<Future<Map<String, Long>>> results = new ArrayList<>();
+        try {
+            for (int i = 0; i < callers; i++) {
+                final List<String> uris = i % 2 == 0 ? List.of(URI_1) : List.of(URI_1, URI_2);
+                results.add(executor.submit(() -> {
+                    start.await();
+                    return subject.getStats(uris);
+                }));
+            }
+            start.countDown();
+            for (Future<Map<String, Long>> result : results) {
+                assertEquals(5L, result.get(5, TimeUnit.SECONDS).get(URI_1));
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+
+        assertTrue(requests.get() <= 2, "stats server requests: " + requests.get());
+        assertEquals(Map.of(URI_1, 1, URI_2, 1), requestedUris);
+    }
+
+    @Test
+    void getStats_staleEntry_refreshedWithoutBlockingCaller() throws Exception {
+        subject = new HitServiceImpl(client, hitBuffer, registry, 100, 60_000, 1);
+        final CountDownLatch release = new CountDownLatch(1);
+        final CountDownLatch refreshing = new CountDownLatch(1);
+        when(client.getStatsAsync(any(LocalDateTime.class), any(LocalDateTime.class), eq(List.of(URI_1)), isNull()))
+                .thenReturn(completedFuture(Map.of(URI_1, 5L)))
+                .thenAnswer(invocation -> {
+                    // stands for the rest client, which sends the request on the calling thread
+                    refreshing.countDown();
+                    release.await(5, TimeUnit.SECONDS);
+                    return completedFuture(Map.of(URI_1, 6L));
+                });
+
+        subject.getStats(List.of(URI_1));
+        Thread.sleep(10);
+        final ExecutorService executor = Executors.newSingleThreadExecutor();
+        try {
+            final Future<Map<String, Long>> stale = executor.submit(() -> subject.getStats(List.of(URI_1)));
+
+            assertEquals(5L, stale.get(1, TimeUnit.SECONDS).get(URI_1));
+            assertTrue(refreshing.await(1, TimeUnit.SECONDS));
+        } finally {
+            release.countDown();
+            executor.shutdownNow();
+        }
+    }
+}
@@ -5,13 +5,15 @@ import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
-import org.springframework.data.domain.Page;
-import org.springframework.data.domain.PageImpl;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.domain.SliceImpl;
 import ru.practicum.ewm.entities.User;
 import ru.practicum.ewm.exceptions.NotFoundException;
+import ru.practicum.ewm.repositories.EventRepository;
 import ru.practicum.ewm.repositories.UserRepository;
+import ru.practicum.ewm.utils.PageCursor;
 
 import java.util.List;
 import java.util.Optional;
@@ -19,6 +21,7 @@ import java.util.stream.Collectors;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
 import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.doNothing;
 import static org.mockito.Mockito.times;
@@ -38,6 +41,12 @@ class UserServiceImplTest {
     @Mock
     private UserRepository userRepository;
 
+    @Mock
+    private EventRepository eventRepository;
+
+    @Mock
+    private CompilationCache compilationCache;
+
     @InjectMocks
     private UserServiceImpl subject;
 
@@ -80,13 +89,13 @@ class UserServiceImplTest {
         List<User> users = generateUsers(10);
         Pageable pageable = PageRequest.of(PAGE_START_FROM, PAGE_SIZE);
 
-        when(userRepository.findAll(eq(pageable)))
-                .thenReturn(new PageImpl<>(users));
+        when(userRepository.findAllByOrderByIdAsc(eq(pageable)))
+                .thenReturn(new SliceImpl<>(users));
 
-        Page<User> result = subject.getAll(PAGE_START_FROM, PAGE_SIZE);
+        Slice<User> result = subject.getAll(PAGE_START_FROM, PAGE_SIZE);
 
         assertEquals(result.stream().collect(Collectors.toList()), users);
-        verify(userRepository, times(1)).findAll(eq(pageable));
+        verify(userRepository, times(1)).findAllByOrderByIdAsc(eq(pageable));
         verifyNoMoreInteractions(userRepository);
     }
 
@@ -100,9 +109,9 @@ class UserServiceImplTest {
         Pageable pageable = PageRequest.of(PAGE_START_FROM, PAGE_SIZE);
 
         when(userRepository.findByIdInOrderByIdDesc(eq(ids), eq(pageable)))
-                .thenReturn(new PageImpl<>(users));
+                .thenReturn(new SliceImpl<>(users));
 
-        Page<User> result = subject.getAllWithUserIds(ids, PAGE_START_FROM, PAGE_SIZE);
+        Slice<User> result = subject.getAllWithUserIds(ids, PAGE_START_FROM, PAGE_SIZE);
 
         assertEquals(result.stream().collect(Collectors.toList()), users);
         verify(userRepository, times(1))
@@ -110,6 +119,22 @@ class UserServiceImplTest {
         verifyNoMoreInteractions(userRepository);
     }
 
+    @Test
+    void getAll_whenCursorGiven_seekAfterId() {
+        List<User> users = generateUsers(PAGE_SIZE);
+        Pageable pageable = PageRequest.ofSize(PAGE_SIZE);
+
+        when(userRepository.findByIdGreaterThanOrderByIdAsc(eq(USER_ID), eq(pageable)))
+                .thenReturn(new SliceImpl<>(users, pageable, true));
+
+        Slice<User> result = subject.getAll(PageCursor.of(USER_ID), PAGE_SIZE);
+
+        assertEquals(result.getContent(), users);
+        assertTrue(result.hasNext());
+        verify(userRepository, times(1)).findByIdGreaterThanOrderByIdAsc(eq(USER_ID), eq(pageable));
+        verifyNoMoreInteractions(userRepository);
+    }
+
     @Test
     void delete_whenUserExists_deleteUser() {
         User user = getDefaultUser();
@@ -118,6 +143,7 @@ class UserServiceImplTest {
 
         subject.delete(user.getId());
 
+        verify(eventRepository, times(1)).subtractCommentCountsOfUser(user.getId());
         verify(userRepository, times(1)).deleteById(user.getId());
         verifyNoMoreInteractions(userRepository);
     }
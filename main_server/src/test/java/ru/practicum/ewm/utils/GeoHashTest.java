@@ -0,0 +1,81 @@
+package ru.practicum.ewm.utils;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class GeoHashTest {
+
+    private static final int POINTS = 1_000_000;
+
+    @Test
+    void cover_millionPointsAroundCity_keepsEveryPointWithinRadius() {
+        final double lat = 55.75;
+        final double lon = 37.62;
+        final double radiusKm = 5;
+        final List<GeoHash.Range> ranges = GeoHash.cover(lat, lon, radiusKm);
+        final Random random = new Random(42);
+
+        int within = 0;
+        int candidates = 0;
+        for (int i = 0; i < POINTS; i++) {
+            final double pointLat = lat - 1 + 2 * random.nextDouble();
+            final double pointLon = lon - 1 + 2 * random.nextDouble();
+            final boolean covered = covers(ranges, GeoHash.encode(pointLat, pointLon));
+            if (GeoHash.distanceKm(lat, lon, pointLat, pointLon) <= radiusKm) {
+                assertTrue(covered, String.format("lat=%s, lon=%s", pointLat, pointLon));
+                within++;
+            }
+            if (covered) {
+                candidates++;
+            }
+        }
+
+        assertTrue(within > 0);
+        assertTrue(candidates < POINTS / 20, "candidates: " + candidates);
+    }
+
+    @Test
+    void cover_acrossAntimeridianAndNearPole_keepsEveryPointWithinRadius() {
+        final Random random = new Random(7);
+        final double[][] centers = {{0, 179.99}, {-45, -179.95}, {89.9, 10}, {-89.5, 0}};
+        for (final double[] center : centers) {
+            final double radiusKm = 50;
+            final List<GeoHash.Range> ranges = GeoHash.cover(center[0], center[1], radiusKm);
+            for (int i = 0; i < 10_000; i++) {
+                final double pointLat = Math.max(-90, Math.min(90, center[0] - 1 + 2 * random.nextDouble()));
+                final double pointLon = wrapLongitude(center[1] - 2 + 4 * random.nextDouble());
+                if (GeoHash.distanceKm(center[0], center[1], pointLat, pointLon) <= radiusKm) {
+                    assertTrue(covers(ranges, GeoHash.encode(pointLat, pointLon)),
+                            String.format("lat=%s, lon=%s", pointLat, pointLon));
+                }
+            }
+        }
+    }
+
+    @Test
+    void cover_radiusLargerThanEarth_coversEverything() {
+        final List<GeoHash.Range> ranges = GeoHash.cover(0, 0, 50_000);
+
+        assertEquals(1, ranges.size());
+        assertTrue(covers(ranges, GeoHash.encode(-90, -180)));
+        assertTrue(covers(ranges, GeoHash.encode(90, 180)));
+    }
+
+    private static double wrapLongitude(double lon) {
+        return ((lon + 180) % 360 + 360) % 360 - 180;
+    }
+
+    private static boolean covers(List<GeoHash.Range> ranges, long hash) {
+        for (final GeoHash.Range range : ranges) {
+            if (range.getFrom() <= hash && hash <= range.getTo()) {
+                return true;
+            }
+        }
+        return false;
+    }
+}
@@ -0,0 +1,198 @@
+package ru.practicum.ewm.client;
+
+import io.netty.channel.ChannelOption;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.core.io.buffer.DataBufferUtils;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.http.client.reactive.ReactorClientHttpConnector;
+import org.springframework.lang.Nullable;
+import org.springframework.stereotype.Service;
+import org.springframework.web.client.ResourceAccessException;
+import org.springframework.web.client.RestClientException;
+import org.springframework.web.client.RestClientResponseException;
+import org.springframework.web.reactive.function.BodyExtractors;
+import org.springframework.web.reactive.function.client.ClientResponse;
+import org.springframework.web.reactive.function.client.WebClient;
+import org.springframework.web.reactive.function.client.WebClientRequestException;
+import org.springframework.web.reactive.function.client.WebClientResponseException;
+import reactor.core.publisher.Mono;
+import reactor.netty.http.client.HttpClient;
+import reactor.netty.resources.ConnectionProvider;
+import ru.practicum.ewm.dto.HitDto;
+
+import javax.annotation.PreDestroy;
+import java.io.IOException;
+import java.io.InputStream;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * Non-blocking client on top of {@link WebClient} and a pooled Reactor Netty connection provider.
+ * Async methods do not hold the calling thread; blocking methods wait for the async result.
+ */
+@Service
+@ConditionalOnProperty(name = "stats-server.client", havingValue = "reactive")
+public class ReactiveStatsClient implements StatsClient {
+    private static final String HIT_ENDPOINT = "/hit";
+    private static final String HIT_BATCH_ENDPOINT = "/hit/batch";
+    private static final String STATS_ENDPOINT = "/stats";
+
+    private static final String DT_FORMAT = "yyyy-MM-dd HH:mm:ss";
+    private static final DateTimeFormatter DT_FORMATTER = DateTimeFormatter.ofPattern(DT_FORMAT);
+
+    private final ConnectionProvider connections;
+    private final WebClient web;
+
+    public ReactiveStatsClient(
+            @Value("${stats-server.url}") String serverUrl,
+            WebClient.Builder builder,
+            @Value("${stats-server.reactive.max-connections:50}") int maxConnections,
+            @Value("${stats-server.reactive.max-idle-time-ms:30000}") long maxIdleTimeMs,
+            @Value("${stats-server.reactive.pending-acquire-timeout-ms:1000}") long pendingAcquireTimeoutMs,
+            @Value("${stats-server.reactive.connect-timeout-ms:1000}") int connectTimeoutMs,
+            @Value("${stats-server.reactive.response-timeout-ms:5000}") long responseTimeoutMs
+    ) {
+        this.connections = ConnectionProvider.builder("stats-server")
+                .maxConnections(maxConnections)
+                .maxIdleTime(Duration.ofMillis(maxIdleTimeMs))
+                .pendingAcquireTimeout(Duration.ofMillis(pendingAcquireTimeoutMs))
+                .evictInBackground(Duration.ofMillis(maxIdleTimeMs))
+                .build();
+        final HttpClient httpClient = HttpClient.create(connections)
+                .keepAlive(true)
+                .option(ChannelOption.SO_KEEPALIVE, true)
+                .option(ChannelOption.CONNECT_TIMEOUT_MILLIS, connectTimeoutMs)
+                .responseTimeout(Duration.ofMillis(responseTimeoutMs));
+
+        this.web = builder.baseUrl(serverUrl)
+                .clientConnector(new ReactorClientHttpConnector(httpClient))
+                .build();
+    }
+
+    /**
+     * Closes the pooled connections, the provider is not a bean so Spring does not dispose it.
+     */
+    @PreDestroy
+    public void close() {
+        connections.dispose();
+    }
+
+    @Override
+    public Map<String, Long> getStats(
+            final LocalDateTime start,
+            final LocalDateTime end,
+            @Nullable List<String> uris,
+            @Nullable Boolean unique
+    ) {
+        return stats(start, end, uris, unique).block();
+    }
+
+    @Override
+    public CompletableFuture<Map<String, Long>> getStatsAsync(
+            final LocalDateTime start,
+            final LocalDateTime end,
+            @Nullable List<String> uris,
+            @Nullable Boolean unique
+    ) {
+        return stats(start, end, uris, unique).toFuture();
+    }
+
+    @Override
+    public ResponseEntity<Object> recordHit(HitDto body) {
+        return post(HIT_ENDPOINT, body)
+                .map(response -> ResponseEntity.status(response.getStatusCode())
+                        .headers(response.getHeaders())
+                        .build())
+                .block();
+    }
+
+    @Override
+    public ResponseEntity<Object> recordHits(List<HitDto> body) {
+        return post(HIT_BATCH_ENDPOINT, body)
+                .map(response -> ResponseEntity.status(response.getStatusCode())
+                        .headers(response.getHeaders())
+                        .build())
+                .block();
+    }
+
+    @Override
+    public CompletableFuture<HttpStatus> recordHitAsync(HitDto body) {
+        return post(HIT_ENDPOINT, body).map(ResponseEntity::getStatusCode).toFuture();
+    }
+
+    @Override
+    public CompletableFuture<HttpStatus> recordHitsAsync(List<HitDto> body) {
+        return post(HIT_BATCH_ENDPOINT, body).map(ResponseEntity::getStatusCode).toFuture();
+    }
+
+    private Mono<Map<String, Long>> stats(
+            final LocalDateTime start,
+            final LocalDateTime end,
+            @Nullable List<String> uris,
+            @Nullable Boolean unique
+    ) {
+        return web.get()
+                .uri(uriBuilder -> {
+                    uriBuilder.path(STATS_ENDPOINT)
+                            .queryParam("start", "{start}")
+                            .queryParam("end", "{end}");
+                    if (uris != null) {
+                        uriBuilder.queryParam("uris", uris.toArray());
+                    }
+                    if (unique != null) {
+                        uriBuilder.queryParam("unique", unique);
+                    }
+                    return uriBuilder.build(start.format(DT_FORMATTER), end.format(DT_FORMATTER));
+                })
+                .accept(MediaType.APPLICATION_JSON)
+                .exchangeToMono(ReactiveStatsClient::readStats)
+                .onErrorMap(ReactiveStatsClient::translate);
+    }
+
+    private <T> Mono<ResponseEntity<Void>> post(String path, T body) {
+        return web.post()
+                .uri(path)
+                .contentType(MediaType.APPLICATION_JSON)
+                .accept(MediaType.APPLICATION_JSON)
+                .bodyValue(body)
+                .exchangeToMono(ClientResponse::toBodilessEntity)
+                .onErrorMap(ReactiveStatsClient::translate);
+    }
+
+    private static Mono<Map<String, Long>> readStats(ClientResponse response) {
+        if (!response.statusCode().is2xxSuccessful()) {
+            return response.createException().flatMap(Mono::error);
+        }
+        return DataBufferUtils.join(response.body(BodyExtractors.toDataBuffers()))
+                .<Map<String, Long>>handle((buffer, sink) -> {
+                    try (InputStream body = buffer.asInputStream(true)) {
+                        sink.next(StatsResponseExtractor.read(body));
+                    } catch (IOException e) {
+                        sink.error(new RestClientException("Could not read stats response", e));
+                    }
+                })
+                .defaultIfEmpty(Map.of());
+    }
+
+    /**
+     * Keeps the failure contract of the blocking client for callers of both implementations.
+     */
+    private static Throwable translate(Throwable e) {
+        if (e instanceof WebClientResponseException) {
+            final WebClientResponseException response = (WebClientResponseException) e;
+            return new RestClientResponseException(response.getMessage(), response.getRawStatusCode(),
+                    response.getStatusText(), response.getHeaders(), response.getResponseBodyAsByteArray(), null);
+        }
+        if (e instanceof WebClientRequestException) {
+            return new ResourceAccessException(e.getMessage());
+        }
+        return e;
+    }
+}
@@ -0,0 +1,181 @@
+package ru.practicum.ewm.client;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.web.client.RestTemplateBuilder;
+import org.springframework.http.HttpEntity;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.http.client.HttpComponentsClientHttpRequestFactory;
+import org.springframework.lang.Nullable;
+import org.springframework.stereotype.Service;
+import org.springframework.web.client.HttpStatusCodeException;
+import org.springframework.web.client.RestClientException;
+import org.springframework.web.client.RestTemplate;
+import org.springframework.web.util.DefaultUriBuilderFactory;
+import ru.practicum.ewm.dto.HitDto;
+
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * Blocking client on top of {@link RestTemplate}, the default implementation.
+ * Async methods run the request on the calling thread and return a completed future.
+ */
+@Service
+@ConditionalOnProperty(name = "stats-server.client", havingValue = "rest", matchIfMissing = true)
+public class RestStatsClient implements StatsClient {
+    private static final String HIT_ENDPOINT = "/hit";
+    private static final String HIT_BATCH_ENDPOINT = "/hit/batch";
+    private static final String STATS_ENDPOINT = "/stats";
+
+    private static final String DT_FORMAT = "yyyy-MM-dd HH:mm:ss";
+    private static final DateTimeFormatter DT_FORMATTER = DateTimeFormatter.ofPattern(DT_FORMAT);
+
+    private static final StatsResponseExtractor STATS_EXTRACTOR = new StatsResponseExtractor();
+
+    private final RestTemplate rest;
+
+    @Autowired
+    public RestStatsClient(@Value("${stats-server.url}") String serverUrl, RestTemplateBuilder builder) {
+        this.rest = builder.uriTemplateHandler(new DefaultUriBuilderFactory(serverUrl))
+                .requestFactory(HttpComponentsClientHttpRequestFactory::new)
+                .build();
+    }
+
+    @Override
+    public Map<String, Long> getStats(
+            final LocalDateTime start,
+            final LocalDateTime end,
+            @Nullable List<String> uris,
+            @Nullable Boolean unique
+    ) {
+        Map<String, Object> parameters = new HashMap<>(Map.of(
+                "start", start.format(DT_FORMATTER),
+                "end", end.format(DT_FORMATTER)
+        ));
+
+        StringBuilder query = new StringBuilder("?start={start}&end={end}");
+
+        if (uris != null) {
+            for (final String uri : uris) {
+                query.append("&uris=");
+                query.append(uri);
+            }
+        }
+        if (unique != null) {
+            parameters.put("unique", unique);
+            query.append("&unique={unique}");
+        }
+
+        final Map<String, Long> hitsByUri = rest.execute(STATS_ENDPOINT + query, HttpMethod.GET,
+                request -> request.getHeaders().setAccept(List.of(MediaType.APPLICATION_JSON)),
+                STATS_EXTRACTOR, parameters);
+        return hitsByUri == null ? Map.of() : hitsByUri;
+    }
+
+    @Override
+    public CompletableFuture<Map<String, Long>> getStatsAsync(
+            final LocalDateTime start,
+            final LocalDateTime end,
+            @Nullable List<String> uris,
+            @Nullable Boolean unique
+    ) {
+        try {
+            return CompletableFuture.completedFuture(getStats(start, end, uris, unique));
+        } catch (RestClientException e) {
+            return CompletableFuture.failedFuture(e);
+        }
+    }
+
+    @Override
+    public ResponseEntity<Object> recordHit(HitDto body) {
+        return post(HIT_ENDPOINT, body, null);
+    }
+
+    @Override
+    public ResponseEntity<Object> recordHits(List<HitDto> body) {
+        return post(HIT_BATCH_ENDPOINT, body, null);
+    }
+
+    @Override
+    public CompletableFuture<HttpStatus> recordHitAsync(HitDto body) {
+        try {
+            return CompletableFuture.completedFuture(recordHit(body).getStatusCode());
+        } catch (RestClientException e) {
+            return CompletableFuture.failedFuture(e);
+        }
+    }
+
+    @Override
+    public CompletableFuture<HttpStatus> recordHitsAsync(List<HitDto> body) {
+        try {
+            return CompletableFuture.completedFuture(recordHits(body).getStatusCode());
+        } catch (RestClientException e) {
+            return CompletableFuture.failedFuture(e);
+        }
+    }
+
+    private ResponseEntity<Object> get(String path, @Nullable Map<String, Object> parameters) {
+        return makeAndSendRequest(HttpMethod.GET, path, null, parameters);
+    }
+
+    private <T> ResponseEntity<Object> post(
+            String path,
+            T body,
+            @Nullable Map<String, Object> parameters
+    ) {
+        return makeAndSendRequest(HttpMethod.POST, path, body, parameters);
+    }
+
+    private <T> ResponseEntity<Object> makeAndSendRequest(
+            HttpMethod method,
+            String path,
+            @Nullable T body,
+            @Nullable Map<String, Object> parameters
+    ) {
+        HttpEntity<T> requestEntity = new HttpEntity<>(body, defaultHeaders());
+
+        ResponseEntity<Object> response;
+        try {
+            if (parameters != null) {
+                response = rest.exchange(path, method, requestEntity, Object.class, parameters);
+            } else {
+                response = rest.exchange(path, method, requestEntity, Object.class);
+            }
+        } catch (HttpStatusCodeException e) {
+            return ResponseEntity.status(e.getStatusCode()).body(e.getResponseBodyAsByteArray());
+        }
+        return prepareGatewayResponse(response);
+    }
+
+    private HttpHeaders defaultHeaders() {
+        HttpHeaders headers = new HttpHeaders();
+        headers.setContentType(MediaType.APPLICATION_JSON);
+        headers.setAccept(List.of(MediaType.APPLICATION_JSON));
+
+        return headers;
+    }
+
+    private static ResponseEntity<Object> prepareGatewayResponse(ResponseEntity<Object> response) {
+        if (response.getStatusCode().is2xxSuccessful()) {
+            return response;
+        }
+
+        ResponseEntity.BodyBuilder responseBuilder = ResponseEntity.status(response.getStatusCode());
+
+        if (response.hasBody()) {
+            return responseBuilder.body(response.getBody());
+        }
+
+        return responseBuilder.build();
+    }
+}
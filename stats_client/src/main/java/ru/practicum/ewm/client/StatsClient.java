@@ -1,53 +1,30 @@
 package ru.practicum.ewm.client;
 
-import org.springframework.beans.factory.annotation.Autowired;
-import org.springframework.beans.factory.annotation.Value;
-import org.springframework.boot.web.client.RestTemplateBuilder;
-import org.springframework.http.HttpEntity;
-import org.springframework.http.HttpHeaders;
-import org.springframework.http.HttpMethod;
-import org.springframework.http.MediaType;
+import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
-import org.springframework.http.client.HttpComponentsClientHttpRequestFactory;
 import org.springframework.lang.Nullable;
-import org.springframework.stereotype.Service;
-import org.springframework.web.client.HttpStatusCodeException;
-import org.springframework.web.client.RestTemplate;
-import org.springframework.web.util.DefaultUriBuilderFactory;
 import ru.practicum.ewm.dto.HitDto;
 
 import java.time.LocalDateTime;
-import java.time.format.DateTimeFormatter;
-import java.util.HashMap;
-import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.CompletableFuture;
 
-@Service
-public class StatsClient {
-    private static final String HIT_ENDPOINT = "/hit";
-    private static final String STATS_ENDPOINT = "/stats";
+/**
+ * Client of the stats server. The implementation is picked with the
+ * {@code stats-server.client} property: {@code rest} (default) or {@code reactive}.
+ * Failures to reach the server are reported as {@link org.springframework.web.client.RestClientException}.
+ */
+public interface StatsClient {
 
-    private static final String DT_FORMAT = "yyyy-MM-dd HH:mm:ss";
-    private static final DateTimeFormatter DT_FORMATTER = DateTimeFormatter.ofPattern(DT_FORMAT);
-
-    private final RestTemplate rest;
-
-    @Autowired
-    public StatsClient(@Value("${stats-server.url}") String serverUrl, RestTemplateBuilder builder) {
-        this.rest = builder.uriTemplateHandler(new DefaultUriBuilderFactory(serverUrl))
-                .requestFactory(HttpComponentsClientHttpRequestFactory::new)
-                .build();
-    }
-
-    public List<LinkedHashMap> getStats(
+    default Map<String, Long> getStats(
             final LocalDateTime start,
             final LocalDateTime end
     ) {
         return getStats(start, end, null, null);
     }
 
-    public List<LinkedHashMap> getStats(
+    default Map<String, Long> getStats(
             final LocalDateTime start,
             final LocalDateTime end,
             @Nullable List<String> uris
@@ -55,7 +32,7 @@ public class StatsClient {
         return getStats(start, end, uris, null);
     }
 
-    public List<LinkedHashMap> getStats(
+    default Map<String, Long> getStats(
             final LocalDateTime start,
             final LocalDateTime end,
             @Nullable Boolean unique
@@ -63,90 +40,28 @@ public class StatsClient {
         return getStats(start, end, null, unique);
     }
 
-    public List<LinkedHashMap> getStats(
-            final LocalDateTime start,
-            final LocalDateTime end,
+    /**
+     * Returns hits per uri, uris without hits are absent from the result.
+     */
+    Map<String, Long> getStats(
+            LocalDateTime start,
+            LocalDateTime end,
             @Nullable List<String> uris,
             @Nullable Boolean unique
-    ) {
-        Map<String, Object> parameters = new HashMap<>(Map.of(
-                "start", start.format(DT_FORMATTER),
-                "end", end.format(DT_FORMATTER)
-        ));
+    );
 
-        StringBuilder query = new StringBuilder("?start={start}&end={end}");
-
-        if (uris != null) {
-            for (final String uri : uris) {
-                query.append("&uris=");
-                query.append(uri);
-            }
-        }
-        if (unique != null) {
-            parameters.put("unique", unique);
-            query.append("&unique={unique}");
-        }
-
-        ResponseEntity<List> response = rest.getForEntity(STATS_ENDPOINT + query, List.class, parameters);
-        return response.getBody();
-    }
-
-    public ResponseEntity<Object> recordHit(HitDto body) {
-        return post(HIT_ENDPOINT, body, null);
-    }
-
-    private ResponseEntity<Object> get(String path, @Nullable Map<String, Object> parameters) {
-        return makeAndSendRequest(HttpMethod.GET, path, null, parameters);
-    }
-
-    private <T> ResponseEntity<Object> post(
-            String path,
-            T body,
-            @Nullable Map<String, Object> parameters
-    ) {
-        return makeAndSendRequest(HttpMethod.POST, path, body, parameters);
-    }
-
-    private <T> ResponseEntity<Object> makeAndSendRequest(
-            HttpMethod method,
-            String path,
-            @Nullable T body,
-            @Nullable Map<String, Object> parameters
-    ) {
-        HttpEntity<T> requestEntity = new HttpEntity<>(body, defaultHeaders());
-
-        ResponseEntity<Object> response;
-        try {
-            if (parameters != null) {
-                response = rest.exchange(path, method, requestEntity, Object.class, parameters);
-            } else {
-                response = rest.exchange(path, method, requestEntity, Object.class);
-            }
-        } catch (HttpStatusCodeException e) {
-            return ResponseEntity.status(e.getStatusCode()).body(e.getResponseBodyAsByteArray());
-        }
-        return prepareGatewayResponse(response);
-    }
-
-    private HttpHeaders defaultHeaders() {
-        HttpHeaders headers = new HttpHeaders();
-        headers.setContentType(MediaType.APPLICATION_JSON);
-        headers.setAccept(List.of(MediaType.APPLICATION_JSON));
-
-        return headers;
-    }
+    CompletableFuture<Map<String, Long>> getStatsAsync(
+            LocalDateTime start,
+            LocalDateTime end,
+            @Nullable List<String> uris,
+            @Nullable Boolean unique
+    );
 
-    private static ResponseEntity<Object> prepareGatewayResponse(ResponseEntity<Object> response) {
-        if (response.getStatusCode().is2xxSuccessful()) {
-            return response;
-        }
+    ResponseEntity<Object> recordHit(HitDto body);
 
-        ResponseEntity.BodyBuilder responseBuilder = ResponseEntity.status(response.getStatusCode());
+    ResponseEntity<Object> recordHits(List<HitDto> body);
 
-        if (response.hasBody()) {
-            return responseBuilder.body(response.getBody());
-        }
+    CompletableFuture<HttpStatus> recordHitAsync(HitDto body);
 
-        return responseBuilder.build();
-    }
+    CompletableFuture<HttpStatus> recordHitsAsync(List<HitDto> body);
 }
@@ -0,0 +1,74 @@
+package ru.practicum.ewm.client;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import org.springframework.http.client.ClientHttpResponse;
+import org.springframework.web.client.ResponseExtractor;
+import org.springframework.web.client.RestClientException;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Reads a list of stats straight from the response stream into a uri to hits map
+ * without building an intermediate tree or a DTO per entry.
+ */
+class StatsResponseExtractor implements ResponseExtractor<Map<String, Long>> {
+
+    private static final JsonFactory JSON_FACTORY = new JsonFactory();
+
+    private static final String URI_FIELD = "uri";
+    private static final String HITS_FIELD = "hits";
+
+    @Override
+    public Map<String, Long> extractData(ClientHttpResponse response) throws IOException {
+        return read(response.getBody());
+    }
+
+    static Map<String, Long> read(InputStream body) throws IOException {
+        try (JsonParser parser = JSON_FACTORY.createParser(body)) {
+            return read(parser);
+        }
+    }
+
+    private static Map<String, Long> read(JsonParser parser) throws IOException {
+        final Map<String, Long> hitsByUri = new HashMap<>();
+
+        final JsonToken first = parser.nextToken();
+        if (first == null) {
+            return hitsByUri;
+        }
+        if (first != JsonToken.START_ARRAY) {
+            throw new RestClientException("Expected an array of stats but got " + first);
+        }
+
+        JsonToken token;
+        while ((token = parser.nextToken()) == JsonToken.START_OBJECT) {
+            String uri = null;
+            long hits = 0;
+
+            while (parser.nextToken() == JsonToken.FIELD_NAME) {
+                final String field = parser.getCurrentName();
+                parser.nextToken();
+                if (URI_FIELD.equals(field)) {
+                    uri = parser.getValueAsString();
+                } else if (HITS_FIELD.equals(field)) {
+                    hits = parser.getValueAsLong();
+                } else {
+                    parser.skipChildren();
+                }
+            }
+
+            if (uri != null) {
+                hitsByUri.put(uri, hits);
+            }
+        }
+        if (token != JsonToken.END_ARRAY) {
+            throw new RestClientException("Expected a stats object but got " + token);
+        }
+        return hitsByUri;
+    }
+}
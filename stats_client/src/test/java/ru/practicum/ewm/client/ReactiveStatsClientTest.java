@@ -0,0 +1,143 @@
+package ru.practicum.ewm.client;
+
+import okhttp3.mockwebserver.MockResponse;
+import okhttp3.mockwebserver.MockWebServer;
+import okhttp3.mockwebserver.RecordedRequest;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.client.ResourceAccessException;
+import org.springframework.web.client.RestClientResponseException;
+import org.springframework.web.reactive.function.client.WebClient;
+import ru.practicum.ewm.dto.HitDto;
+
+import java.io.IOException;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertInstanceOf;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class ReactiveStatsClientTest {
+
+    private static final LocalDateTime START = LocalDateTime.of(2022, 9, 1, 0, 0, 0);
+    private static final LocalDateTime END = LocalDateTime.of(2022, 10, 1, 12, 30, 0);
+    private static final long RESPONSE_TIMEOUT_MS = 200;
+
+    private MockWebServer server;
+    private ReactiveStatsClient client;
+
+    @BeforeEach
+    void setUp() throws IOException {
+        server = new MockWebServer();
+        server.start();
+        client = new ReactiveStatsClient(server.url("/").toString(), WebClient.builder(),
+                2, 30_000, 1_000, 1_000, RESPONSE_TIMEOUT_MS);
+    }
+
+    @AfterEach
+    void tearDown() throws IOException {
+        client.close();
+        server.shutdown();
+    }
+
+    @Test
+    void getStats_success_readsHitsByUri() throws InterruptedException {
+        server.enqueue(json(200, "[{\"app\": \"ewm-main-service\", \"uri\": \"/events/1\", \"hits\": 5}]"));
+
+        Map<String, Long> result = client.getStats(START, END, List.of("/events/1", "/events/2"), true);
+
+        assertEquals(Map.of("/events/1", 5L), result);
+        RecordedRequest request = server.takeRequest();
+        assertEquals("GET", request.getMethod());
+        assertEquals("/stats", request.getRequestUrl().encodedPath());
+        assertEquals("2022-09-01 00:00:00", request.getRequestUrl().queryParameter("start"));
+        assertEquals("2022-10-01 12:30:00", request.getRequestUrl().queryParameter("end"));
+        assertEquals(List.of("/events/1", "/events/2"), request.getRequestUrl().queryParameterValues("uris"));
+        assertEquals("true", request.getRequestUrl().queryParameter("unique"));
+    }
+
+    @Test
+    void getStats_emptyBody_emptyMap() {
+        server.enqueue(new MockResponse().setResponseCode(200));
+
+        assertEquals(Map.of(), client.getStats(START, END));
+    }
+
+    @Test
+    void getStats_clientError_throwsResponseException() {
+        server.enqueue(json(400, "{\"reason\": \"Incorrectly made request.\"}"));
+
+        RestClientResponseException e = assertThrows(RestClientResponseException.class,
+                () -> client.getStats(START, END));
+
+        assertEquals(400, e.getRawStatusCode());
+        assertEquals("{\"reason\": \"Incorrectly made request.\"}", e.getResponseBodyAsString());
+    }
+
+    @Test
+    void getStatsAsync_serverError_completesWithResponseException() {
+        server.enqueue(json(500, "{}"));
+
+        CompletableFuture<Map<String, Long>> result = client.getStatsAsync(START, END, null, null);
+
+        ExecutionException e = assertThrows(ExecutionException.class, () -> result.get(5, TimeUnit.SECONDS));
+        assertInstanceOf(RestClientResponseException.class, e.getCause());
+        assertEquals(500, ((RestClientResponseException) e.getCause()).getRawStatusCode());
+    }
+
+    @Test
+    void getStats_slowServer_throwsResourceAccessException() {
+        server.enqueue(json(200, "[]").setHeadersDelay(RESPONSE_TIMEOUT_MS * 5, TimeUnit.MILLISECONDS));
+
+        assertThrows(ResourceAccessException.class, () -> client.getStats(START, END));
+    }
+
+    @Test
+    void recordHits_postsBatch() throws InterruptedException {
+        server.enqueue(new MockResponse().setResponseCode(201));
+        HitDto hit = HitDto.builder()
+                .app("ewm-main-service")
+                .uri("/events/1")
+                .ip("192.163.0.1")
+                .timestamp("2022-09-06 11:00:23")
+                .build();
+
+        assertEquals(HttpStatus.CREATED, client.recordHits(List.of(hit)).getStatusCode());
+        RecordedRequest request = server.takeRequest();
+        assertEquals("POST", request.getMethod());
+        assertEquals("/hit/batch", request.getPath());
+        assertEquals("[{\"app\":\"ewm-main-service\",\"uri\":\"/events/1\",\"ip\":\"192.163.0.1\"," +
+                "\"timestamp\":\"2022-09-06 11:00:23\"}]", request.getBody().readUtf8());
+    }
+
+    @Test
+    void recordHitAsync_serverError_completesWithStatus() throws Exception {
+        server.enqueue(new MockResponse().setResponseCode(503));
+
+        CompletableFuture<HttpStatus> result = client.recordHitAsync(HitDto.builder().app("ewm-main-service").build());
+
+        assertEquals(HttpStatus.SERVICE_UNAVAILABLE, result.get(5, TimeUnit.SECONDS));
+    }
+
+    @Test
+    void recordHit_serverDown_throwsResourceAccessException() throws IOException {
+        server.shutdown();
+
+        assertThrows(ResourceAccessException.class,
+                () -> client.recordHit(HitDto.builder().app("ewm-main-service").build()));
+    }
+
+    private static MockResponse json(int status, String body) {
+        return new MockResponse()
+                .setResponseCode(status)
+                .setHeader("Content-Type", "application/json")
+                .setBody(body);
+    }
+}
@@ -0,0 +1,65 @@
+package ru.practicum.ewm.client;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import org.junit.jupiter.api.Test;
+import org.springframework.web.client.RestClientException;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class StatsResponseExtractorTest {
+
+    @Test
+    void read_stats_mapsUriToHits() throws IOException {
+        Map<String, Long> result = read("[" +
+                "{\"app\": \"ewm-main-service\", \"uri\": \"/events/1\", \"hits\": 5}," +
+                "{\"app\": \"ewm-main-service\", \"uri\": \"/events/2\", \"hits\": 3}]");
+
+        assertEquals(Map.of("/events/1", 5L, "/events/2", 3L), result);
+    }
+
+    @Test
+    void read_emptyArray_emptyMap() throws IOException {
+        assertEquals(Map.of(), read("[]"));
+    }
+
+    @Test
+    void read_emptyBody_emptyMap() throws IOException {
+        assertEquals(Map.of(), read(""));
+    }
+
+    @Test
+    void read_missingFields_skipsEntriesWithoutUri() throws IOException {
+        Map<String, Long> result = read("[" +
+                "{\"app\": \"ewm-main-service\", \"hits\": 5}," +
+                "{\"uri\": \"/events/2\"}," +
+                "{\"uri\": \"/events/3\", \"hits\": 7, \"extra\": {\"nested\": [1, 2]}}]");
+
+        assertEquals(Map.of("/events/2", 0L, "/events/3", 7L), result);
+    }
+
+    @Test
+    void read_notArray_throws() {
+        assertThrows(RestClientException.class, () -> read("{\"uri\": \"/events/1\", \"hits\": 5}"));
+    }
+
+    @Test
+    void read_notObjectElement_throws() {
+        assertThrows(RestClientException.class, () -> read("[{\"uri\": \"/events/1\", \"hits\": 5}, 3]"));
+    }
+
+    @Test
+    void read_malformed_throws() {
+        assertThrows(JsonProcessingException.class, () -> read("[{\"uri\": \"/events/1\", \"hits\": "));
+        assertThrows(JsonProcessingException.class, () -> read("[{\"uri\" \"/events/1\"}]"));
+    }
+
+    private static Map<String, Long> read(String body) throws IOException {
+        return StatsResponseExtractor.read(new ByteArrayInputStream(body.getBytes(StandardCharsets.UTF_8)));
+    }
+}
@@ -0,0 +1,49 @@
+package ru.practicum.ewm.cache;
+
+import ru.practicum.ewm.rollup.AppUri;
+import ru.practicum.ewm.stats.AggregatedHitCount;
+import ru.practicum.ewm.stats.HitCount;
+
+import java.time.LocalDateTime;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+
+/**
+ * Result of one query, with hit counts that can be increased as new hits arrive.
+ */
+class CachedStats {
+
+    private final LocalDateTime loadedAt;
+    private final Map<AppUri, Long> counts = new LinkedHashMap<>();
+    private List<HitCount> sorted;
+
+    CachedStats(List<HitCount> result, LocalDateTime loadedAt) {
+        this.loadedAt = loadedAt;
+        this.sorted = List.copyOf(result);
+        for (final HitCount count : result) {
+            counts.put(new AppUri(count.getApp(), count.getUri()), count.getHits());
+        }
+    }
+
+    LocalDateTime getLoadedAt() {
+        return loadedAt;
+    }
+
+    synchronized List<HitCount> result() {
+        if (sorted == null) {
+            sorted = counts.entrySet().stream()
+                    .<HitCount>map(e -> new AggregatedHitCount(e.getKey().getApp(), e.getKey().getUri(), e.getValue()))
+                    .sorted(Comparator.comparing(HitCount::getHits).reversed())
+                    .collect(Collectors.toUnmodifiableList());
+        }
+        return sorted;
+    }
+
+    synchronized void increment(AppUri key) {
+        counts.merge(key, 1L, Long::sum);
+        sorted = null;
+    }
+}
@@ -0,0 +1,62 @@
+package ru.practicum.ewm.cache;
+
+import org.springframework.context.annotation.Primary;
+import org.springframework.lang.Nullable;
+import org.springframework.stereotype.Service;
+import ru.practicum.ewm.stats.HitCount;
+import ru.practicum.ewm.stats.StatsService;
+import ru.practicum.ewm.stats.StatsServiceImpl;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.function.Consumer;
+
+/**
+ * Answers repeated queries from {@link StatsCache} before {@link StatsServiceImpl} opens a transaction.
+ */
+@Primary
+@Service
+public class CachingStatsService implements StatsService {
+
+    private final StatsServiceImpl delegate;
+    private final StatsCache cache;
+
+    public CachingStatsService(StatsServiceImpl delegate, StatsCache cache) {
+        this.delegate = delegate;
+        this.cache = cache;
+    }
+
+    @Override
+    public List<HitCount> countHits(LocalDateTime start, LocalDateTime end) {
+        return cache.get(start, end, null, false, false, () -> delegate.countHits(start, end));
+    }
+
+    @Override
+    public List<HitCount> countHits(LocalDateTime start, LocalDateTime end, List<String> uris) {
+        return cache.get(start, end, uris, false, false, () -> delegate.countHits(start, end, uris));
+    }
+
+    @Override
+    public List<HitCount> countHitsUniq(LocalDateTime start, LocalDateTime end) {
+        return cache.get(start, end, null, true, false, () -> delegate.countHitsUniq(start, end));
+    }
+
+    @Override
+    public List<HitCount> countHitsUniq(LocalDateTime start, LocalDateTime end, List<String> uris) {
+        return cache.get(start, end, uris, true, false, () -> delegate.countHitsUniq(start, end, uris));
+    }
+
+    @Override
+    public List<HitCount> countHitsUniqApprox(LocalDateTime start, LocalDateTime end, @Nullable List<String> uris) {
+        return cache.get(start, end, uris, true, true, () -> delegate.countHitsUniqApprox(start, end, uris));
+    }
+
+    @Override
+    public void forEachHitCount(LocalDateTime start,
+                                LocalDateTime end,
+                                @Nullable List<String> uris,
+                                boolean unique,
+                                Consumer<HitCount> action) {
+        delegate.forEachHitCount(start, end, uris, unique, action);
+    }
+}
@@ -0,0 +1,201 @@
+package ru.practicum.ewm.cache;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.RemovalCause;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.lang.Nullable;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import ru.practicum.ewm.hit.Hit;
+import ru.practicum.ewm.rollup.AppUri;
+import ru.practicum.ewm.stats.HitCount;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Supplier;
+import java.util.stream.Collectors;
+
+/**
+ * Results of recent /stats queries keyed by the normalized query. Hit counts are patched as new hits
+ * are saved, unique counts cannot be patched and are dropped instead.
+ * <p>
+ * Only hits saved through this instance are seen, and a hit saved while its query is being loaded may be
+ * missed or counted twice, so entries also expire after {@code expire-after-write}, which bounds how stale
+ * a result can be.
+ */
+@Component
+public class StatsCache {
+
+    private static final String CACHE_NAME = "stats.results";
+    private static final String METRIC_PREFIX = "stats.cache";
+
+    private final boolean enabled;
+    private final Duration openEndTolerance;
+    private final Cache<StatsQuery, CachedStats> cache;
+
+    /**
+     * Cached queries by the uris they count, and the ones counting all uris, so that saved hits are applied
+     * only to the queries they can change instead of to every cached one.
+     */
+    private final Map<String, Set<StatsQuery>> queriesByUri = new ConcurrentHashMap<>();
+    private final Set<StatsQuery> allUriQueries = ConcurrentHashMap.newKeySet();
+    private final Counter patchedHits;
+    private final Counter invalidatedResults;
+    private final Timer resultAge;
+
+    public StatsCache(MeterRegistry registry,
+                      @Value("${stats.cache.enabled:true}") boolean enabled,
+                      @Value("${stats.cache.maximum-size:1000}") long maximumSize,
+                      @Value("${stats.cache.expire-after-write-ms:30000}") long expireAfterWriteMs,
+                      @Value("${stats.cache.open-end-tolerance-ms:5000}") long openEndToleranceMs) {
+        this.enabled = enabled;
+        this.openEndTolerance = Duration.ofMillis(openEndToleranceMs);
+        this.cache = Caffeine.newBuilder()
+                .maximumSize(maximumSize)
+                .expireAfterWrite(Duration.ofMillis(expireAfterWriteMs))
+                .executor(Runnable::run)
+                .removalListener((StatsQuery query, CachedStats cached, RemovalCause cause) -> {
+                    if (cause != RemovalCause.REPLACED) {
+                        unindex(query);
+                    }
+                })
+                .recordStats()
+                .build();
+
+        CaffeineCacheMetrics.monitor(registry, cache, CACHE_NAME);
+        this.patchedHits = Counter.builder(METRIC_PREFIX + ".patched")
+                .description("Hits added to cached results")
+                .register(registry);
+        this.invalidatedResults = Counter.builder(METRIC_PREFIX + ".invalidated")
+                .description("Cached results dropped because of new hits")
+                .register(registry);
+        this.resultAge = Timer.builder(METRIC_PREFIX + ".age")
+                .description("Time since a served cached result was read from the database")
+                .register(registry);
+    }
+
+    public List<HitCount> get(LocalDateTime start,
+                              LocalDateTime end,
+                              @Nullable List<String> uris,
+                              boolean unique,
+                              boolean approx,
+                              Supplier<List<HitCount>> loader) {
+        if (!enabled) {
+            return loader.get();
+        }
+        final LocalDateTime now = LocalDateTime.now();
+        final StatsQuery.Kind kind = approx ? StatsQuery.Kind.APPROX
+                : unique ? StatsQuery.Kind.UNIQUE
+                : StatsQuery.Kind.HITS;
+        final StatsQuery query = StatsQuery.of(start, end, uris, kind, now.minus(openEndTolerance));
+
+        final boolean[] loaded = {false};
+        final CachedStats cached = cache.get(query, q -> {
+            loaded[0] = true;
+            return new CachedStats(loader.get(), now);
+        });
+        // on hits too, a query dropped and loaded again meanwhile may have been unindexed after it was loaded
+        index(query);
+        if (!loaded[0]) {
+            resultAge.record(Duration.between(cached.getLoadedAt(), now));
+        }
+        return cached.result();
+    }
+
+    /**
+     * Applies the hits to the cached results once the current transaction commits.
+     */
+    public void record(List<Hit> hits) {
+        if (!enabled) {
+            return;
+        }
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            apply(hits);
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                apply(hits);
+            }
+        });
+    }
+
+    void apply(List<Hit> hits) {
+        final Map<String, List<Hit>> hitsByUri = hits.stream().collect(Collectors.groupingBy(Hit::getUri));
+        final Set<StatsQuery> queries = new HashSet<>(allUriQueries);
+        hitsByUri.keySet().forEach(uri -> queries.addAll(queriesByUri.getOrDefault(uri, Set.of())));
+
+        for (final StatsQuery query : queries) {
+            final CachedStats cached = cache.asMap().get(query);
+            if (cached == null) {
+                unindex(query);
+                continue;
+            }
+            final List<Hit> candidates = query.getUris() == null
+                    ? hits
+                    : query.getUris().stream()
+                            .flatMap(uri -> hitsByUri.getOrDefault(uri, List.of()).stream())
+                            .collect(Collectors.toList());
+            final List<Hit> matching = candidates.stream()
+                    .filter(query::matches)
+                    .collect(Collectors.toList());
+            if (matching.isEmpty()) {
+                continue;
+            }
+            if (query.getKind() != StatsQuery.Kind.HITS) {
+                cache.asMap().remove(query, cached);
+                invalidatedResults.increment();
+                continue;
+            }
+            for (final Hit hit : matching) {
+                cached.increment(new AppUri(hit.getApp(), hit.getUri()));
+            }
+            patchedHits.increment(matching.size());
+        }
+    }
+
+    int indexedQueries() {
+        final Set<StatsQuery> queries = new HashSet<>(allUriQueries);
+        queriesByUri.values().forEach(queries::addAll);
+        return queries.size();
+    }
+
+    private void index(StatsQuery query) {
+        if (query.getUris() == null) {
+            allUriQueries.add(query);
+            return;
+        }
+        for (final String uri : query.getUris()) {
+            queriesByUri.compute(uri, (key, queries) -> {
+                final Set<StatsQuery> indexed = queries == null ? ConcurrentHashMap.newKeySet() : queries;
+                indexed.add(query);
+                return indexed;
+            });
+        }
+    }
+
+    private void unindex(StatsQuery query) {
+        if (query.getUris() == null) {
+            allUriQueries.remove(query);
+            return;
+        }
+        for (final String uri : query.getUris()) {
+            queriesByUri.computeIfPresent(uri, (key, queries) -> {
+                queries.remove(query);
+                return queries.isEmpty() ? null : queries;
+            });
+        }
+    }
+}
@@ -0,0 +1,51 @@
+package ru.practicum.ewm.cache;
+
+import lombok.Value;
+import org.springframework.lang.Nullable;
+import ru.practicum.ewm.hit.Hit;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.TreeSet;
+
+/**
+ * Normalized /stats query used as the result cache key: uris are sorted and deduplicated,
+ * and an end close to the current time is replaced by an open end.
+ */
+@Value
+class StatsQuery {
+
+    enum Kind {
+        HITS,
+        UNIQUE,
+        APPROX
+    }
+
+    LocalDateTime start;
+    /**
+     * Null for queries up to the current time, those stay valid as new hits are counted in.
+     */
+    @Nullable
+    LocalDateTime end;
+    @Nullable
+    List<String> uris;
+    Kind kind;
+
+    static StatsQuery of(LocalDateTime start,
+                         LocalDateTime end,
+                         @Nullable List<String> uris,
+                         Kind kind,
+                         LocalDateTime openEndFrom) {
+        return new StatsQuery(
+                start,
+                end.isBefore(openEndFrom) ? end : null,
+                uris == null ? null : List.copyOf(new TreeSet<>(uris)),
+                kind);
+    }
+
+    boolean matches(Hit hit) {
+        return (uris == null || uris.contains(hit.getUri()))
+                && !hit.getTimestamp().isBefore(start)
+                && (end == null || !hit.getTimestamp().isAfter(end));
+    }
+}
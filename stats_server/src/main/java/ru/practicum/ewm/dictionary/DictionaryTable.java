@@ -0,0 +1,124 @@
+package ru.practicum.ewm.dictionary;
+
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import ru.practicum.ewm.rollup.SqlDialect;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Cached two-way mapping between the values of one dictionary table and their ids. Values are added on first use
+ * and never removed, so the cache only grows with the number of distinct values.
+ */
+class DictionaryTable {
+
+    private final JdbcTemplate jdbcTemplate;
+    private final String selectIdSql;
+    private final String selectValueSql;
+    private final String postgresInsertSql;
+    private final String standardInsertSql;
+
+    private final Map<String, Integer> ids = new ConcurrentHashMap<>();
+    private final Map<Integer, String> values = new ConcurrentHashMap<>();
+
+    private volatile String insertSql;
+
+    DictionaryTable(JdbcTemplate jdbcTemplate, String table, String column, int length) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.selectIdSql = "SELECT id FROM " + table + " WHERE " + column + " = ?";
+        this.selectValueSql = "SELECT " + column + " FROM " + table + " WHERE id = ?";
+        this.postgresInsertSql = "INSERT INTO " + table + " (" + column + ") VALUES (?) " +
+                "ON CONFLICT (" + column + ") DO NOTHING";
+        this.standardInsertSql = "MERGE INTO " + table + " AS d " +
+                "USING (VALUES (CAST(? AS VARCHAR(" + length + ")))) AS v (val) " +
+                "ON d." + column + " = v.val " +
+                "WHEN NOT MATCHED THEN INSERT (" + column + ") VALUES (v.val)";
+    }
+
+    /**
+     * Id of the value, inserted into the table if it is not there yet.
+     */
+    int id(String value) {
+        final Integer cached = ids.get(value);
+        if (cached != null) {
+            return cached;
+        }
+
+        List<Integer> found = jdbcTemplate.queryForList(selectIdSql, Integer.class, value);
+        if (found.isEmpty()) {
+            jdbcTemplate.update(insertSql(), value);
+            found = jdbcTemplate.queryForList(selectIdSql, Integer.class, value);
+        }
+        final int id = found.get(0);
+        remember(value, id);
+        return id;
+    }
+
+    /**
+     * Ids of those of the values that are in the table, without inserting the others.
+     */
+    List<Integer> findIds(List<String> values) {
+        final List<Integer> found = new ArrayList<>(values.size());
+        for (final String value : values) {
+            final Integer cached = ids.get(value);
+            if (cached != null) {
+                found.add(cached);
+                continue;
+            }
+            final List<Integer> id = jdbcTemplate.queryForList(selectIdSql, Integer.class, value);
+            if (!id.isEmpty()) {
+                remember(value, id.get(0));
+                found.add(id.get(0));
+            }
+        }
+        return found;
+    }
+
+    String value(int id) {
+        final String cached = values.get(id);
+        if (cached != null) {
+            return cached;
+        }
+
+        final List<String> found = jdbcTemplate.queryForList(selectValueSql, String.class, id);
+        if (found.isEmpty()) {
+            throw new IllegalStateException("Unknown dictionary id " + id);
+        }
+        final String value = found.get(0);
+        remember(value, id);
+        return value;
+    }
+
+    /**
+     * Rows inserted or seen by a transaction that later rolls back must not end up in the cache,
+     * so within a transaction the mapping is cached once it commits.
+     */
+    private void remember(String value, int id) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            put(value, id);
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                put(value, id);
+            }
+        });
+    }
+
+    private void put(String value, int id) {
+        ids.put(value, id);
+        values.put(id, value);
+    }
+
+    private String insertSql() {
+        if (insertSql == null) {
+            insertSql = SqlDialect.detect(jdbcTemplate) == SqlDialect.POSTGRESQL ? postgresInsertSql : standardInsertSql;
+        }
+        return insertSql;
+    }
+}
@@ -0,0 +1,24 @@
+package ru.practicum.ewm.dictionary;
+
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+
+import javax.persistence.Column;
+import javax.persistence.Entity;
+import javax.persistence.Id;
+import javax.persistence.Table;
+
+/**
+ * Dictionary entry of an app, written only through {@link StatsDictionary}.
+ */
+@Entity
+@Table(name = "stats_apps", schema = "public")
+@Getter
+@NoArgsConstructor
+public class StatsApp {
+    @Id
+    private Integer id;
+
+    @Column(name = "name", nullable = false, updatable = false)
+    private String name;
+}
@@ -0,0 +1,63 @@
+package ru.practicum.ewm.dictionary;
+
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+import ru.practicum.ewm.hit.Hit;
+
+import java.util.List;
+import java.util.stream.Collectors;
+
+/**
+ * In-memory dictionaries of apps and uris backed by the stats_apps and stats_uris tables.
+ * Hits store the small ids instead of the strings, which keeps the stats table and its indexes narrow.
+ */
+@Component
+public class StatsDictionary {
+
+    private final DictionaryTable apps;
+    private final DictionaryTable uris;
+
+    public StatsDictionary(JdbcTemplate jdbcTemplate) {
+        this.apps = new DictionaryTable(jdbcTemplate, "stats_apps", "name", 255);
+        this.uris = new DictionaryTable(jdbcTemplate, "stats_uris", "uri", 64);
+    }
+
+    /**
+     * Copy of the hit with app and uri ids set, registering unknown apps and uris.
+     */
+    public Hit encode(Hit hit) {
+        return hit.toBuilder()
+                .appId(appId(hit.getApp()))
+                .uriId(uriId(hit.getUri()))
+                .build();
+    }
+
+    public List<Hit> encode(List<Hit> hits) {
+        return hits.stream()
+                .map(this::encode)
+                .collect(Collectors.toList());
+    }
+
+    public int appId(String app) {
+        return apps.id(app);
+    }
+
+    public int uriId(String uri) {
+        return uris.id(uri);
+    }
+
+    /**
+     * Ids of the known uris among the given ones, unknown uris have no hits.
+     */
+    public List<Integer> findUriIds(List<String> uris) {
+        return this.uris.findIds(uris);
+    }
+
+    public String app(int appId) {
+        return apps.value(appId);
+    }
+
+    public String uri(int uriId) {
+        return uris.value(uriId);
+    }
+}
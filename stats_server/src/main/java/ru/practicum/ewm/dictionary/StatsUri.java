@@ -0,0 +1,24 @@
+package ru.practicum.ewm.dictionary;
+
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+
+import javax.persistence.Column;
+import javax.persistence.Entity;
+import javax.persistence.Id;
+import javax.persistence.Table;
+
+/**
+ * Dictionary entry of an uri, written only through {@link StatsDictionary}.
+ */
+@Entity
+@Table(name = "stats_uris", schema = "public")
+@Getter
+@NoArgsConstructor
+public class StatsUri {
+    @Id
+    private Integer id;
+
+    @Column(name = "uri", nullable = false, updatable = false)
+    private String uri;
+}
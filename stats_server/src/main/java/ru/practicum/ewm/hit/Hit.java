@@ -10,6 +10,7 @@ import javax.persistence.GeneratedValue;
 import javax.persistence.GenerationType;
 import javax.persistence.Id;
 import javax.persistence.Table;
+import javax.persistence.Transient;
 import java.time.LocalDateTime;
 
 @Entity
@@ -22,10 +23,23 @@ public class Hit {
     @GeneratedValue(strategy = GenerationType.IDENTITY)
     private Long id;
 
-    @Column(name = "app", nullable = false)
+    @Column(name = "app_id", nullable = false)
+    private Integer appId;
+
+    @Column(name = "uri_id", nullable = false)
+    private Integer uriId;
+
+    /**
+     * Name of the app, set on ingest and encoded into {@link #appId} by
+     * {@link ru.practicum.ewm.dictionary.StatsDictionary}, not stored.
+     */
+    @Transient
     private String app;
 
-    @Column(name = "uri", nullable = false)
+    /**
+     * The uri, set on ingest and encoded into {@link #uriId}, not stored.
+     */
+    @Transient
     private String uri;
 
     @Column(name = "ip")
@@ -12,7 +12,12 @@ import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RestController;
 import ru.practicum.ewm.dto.HitDto;
 
+import javax.validation.Valid;
+import java.util.List;
+import java.util.stream.Collectors;
+
 @Slf4j
+@Validated
 @RestController
 @RequestMapping(path = "/hit")
 @RequiredArgsConstructor
@@ -26,4 +31,14 @@ public class HitController {
         log.info("Saved: {}", saved.toString());
         return new ResponseEntity<>(HttpStatus.CREATED);
     }
+
+    @PostMapping("/batch")
+    public ResponseEntity<Object> createAll(@RequestBody List<@Valid HitDto> hitDtos) {
+        final List<Hit> hits = hitDtos.stream()
+                .map(HitMapper::toHit)
+                .collect(Collectors.toList());
+        int saved = service.addAll(hits);
+        log.info("Saved batch: {} hits", saved);
+        return new ResponseEntity<>(HttpStatus.CREATED);
+    }
 }
@@ -2,5 +2,5 @@ package ru.practicum.ewm.hit;
 
 import org.springframework.data.jpa.repository.JpaRepository;
 
-public interface HitRepository extends JpaRepository<Hit, Long> {
+public interface HitRepository extends JpaRepository<Hit, Long>, HitRepositoryCustom {
 }
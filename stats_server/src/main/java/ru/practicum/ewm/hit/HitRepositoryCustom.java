@@ -0,0 +1,25 @@
+package ru.practicum.ewm.hit;
+
+import java.util.List;
+import java.util.function.Consumer;
+
+public interface HitRepositoryCustom {
+
+    /**
+     * Inserts hits with app and uri ids already set, see {@link ru.practicum.ewm.dictionary.StatsDictionary}.
+     */
+    int saveAllInBatch(List<Hit> hits);
+
+    boolean hasHits();
+
+    /**
+     * Id of the latest hit, 0 when there are none.
+     */
+    long findLastId();
+
+    /**
+     * Passes the hits saved after the given id, with app and uri names set, to the action in chunks.
+     * Must be called inside a transaction.
+     */
+    void forEachChunkAfter(long hitId, int chunkSize, Consumer<List<Hit>> action);
+}
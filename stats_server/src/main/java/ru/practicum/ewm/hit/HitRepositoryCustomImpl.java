@@ -0,0 +1,82 @@
+package ru.practicum.ewm.hit;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.sql.PreparedStatement;
+import java.sql.Timestamp;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Consumer;
+
+public class HitRepositoryCustomImpl implements HitRepositoryCustom {
+
+    // IDENTITY ids disable Hibernate insert batching, so batches go through plain JDBC
+    private static final String INSERT_HIT_SQL = "INSERT INTO stats (app_id, uri_id, ip, timestamp) VALUES (?, ?, ?, ?)";
+
+    private static final String HITS_AFTER_SQL =
+            "SELECT h.id AS id, a.name AS app, u.uri AS uri, h.ip AS ip, h.timestamp AS timestamp " +
+            "FROM stats AS h " +
+            "JOIN stats_apps AS a ON a.id = h.app_id " +
+            "JOIN stats_uris AS u ON u.id = h.uri_id " +
+            "WHERE h.id > ?";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final int batchSize;
+
+    public HitRepositoryCustomImpl(JdbcTemplate jdbcTemplate,
+                                   @Value("${stats.hit.batch-size:500}") int batchSize) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.batchSize = batchSize;
+    }
+
+    @Override
+    public int saveAllInBatch(List<Hit> hits) {
+        jdbcTemplate.batchUpdate(INSERT_HIT_SQL, hits, batchSize, (ps, hit) -> {
+            ps.setInt(1, hit.getAppId());
+            ps.setInt(2, hit.getUriId());
+            ps.setString(3, hit.getIp());
+            ps.setTimestamp(4, Timestamp.valueOf(hit.getTimestamp()));
+        });
+        return hits.size();
+    }
+
+    @Override
+    public boolean hasHits() {
+        final Long present = jdbcTemplate.queryForObject(
+                "SELECT COUNT(*) FROM (SELECT 1 FROM stats FETCH FIRST 1 ROWS ONLY) AS h", Long.class);
+        return present != null && present > 0;
+    }
+
+    @Override
+    public long findLastId() {
+        final Long lastId = jdbcTemplate.queryForObject("SELECT COALESCE(MAX(id), 0) FROM stats", Long.class);
+        return lastId == null ? 0 : lastId;
+    }
+
+    @Override
+    public void forEachChunkAfter(long hitId, int chunkSize, Consumer<List<Hit>> action) {
+        final List<Hit> chunk = new ArrayList<>(chunkSize);
+        jdbcTemplate.query(con -> {
+            final PreparedStatement ps = con.prepareStatement(HITS_AFTER_SQL);
+            ps.setFetchSize(chunkSize);
+            ps.setLong(1, hitId);
+            return ps;
+        }, rs -> {
+            chunk.add(Hit.builder()
+                    .id(rs.getLong("id"))
+                    .app(rs.getString("app"))
+                    .uri(rs.getString("uri"))
+                    .ip(rs.getString("ip"))
+                    .timestamp(rs.getTimestamp("timestamp").toLocalDateTime())
+                    .build());
+            if (chunk.size() == chunkSize) {
+                action.accept(new ArrayList<>(chunk));
+                chunk.clear();
+            }
+        });
+        if (!chunk.isEmpty()) {
+            action.accept(chunk);
+        }
+    }
+}
@@ -1,6 +1,10 @@
 package ru.practicum.ewm.hit;
 
+import java.util.List;
+
 public interface HitService {
 
     Hit add(Hit hit);
+
+    int addAll(List<Hit> hits);
 }
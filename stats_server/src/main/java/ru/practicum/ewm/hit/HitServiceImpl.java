@@ -1,18 +1,73 @@
 package ru.practicum.ewm.hit;
 
-import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
+import ru.practicum.ewm.cache.StatsCache;
+import ru.practicum.ewm.dictionary.StatsDictionary;
+import ru.practicum.ewm.hot.HotWindow;
+import ru.practicum.ewm.rollup.HitRollupRepository;
+import ru.practicum.ewm.rollup.HitSketchRepository;
+
+import java.util.List;
 
 @Service
-@RequiredArgsConstructor
 public class HitServiceImpl implements HitService {
 
     private final HitRepository repository;
+    private final StatsDictionary dictionary;
+    private final HitRollupRepository rollupRepository;
+    private final HitSketchRepository sketchRepository;
+    private final HotWindow hotWindow;
+    private final StatsCache statsCache;
+    private final boolean rollupEnabled;
+    private final boolean sketchEnabled;
+
+    public HitServiceImpl(HitRepository repository,
+                          StatsDictionary dictionary,
+                          HitRollupRepository rollupRepository,
+                          HitSketchRepository sketchRepository,
+                          HotWindow hotWindow,
+                          StatsCache statsCache,
+                          @Value("${stats.rollup.enabled:true}") boolean rollupEnabled,
+                          @Value("${stats.sketch.enabled:false}") boolean sketchEnabled) {
+        this.repository = repository;
+        this.dictionary = dictionary;
+        this.rollupRepository = rollupRepository;
+        this.sketchRepository = sketchRepository;
+        this.hotWindow = hotWindow;
+        this.statsCache = statsCache;
+        this.rollupEnabled = rollupEnabled;
+        this.sketchEnabled = sketchEnabled;
+    }
 
     @Override
     @Transactional
     public Hit add(Hit hit) {
-        return repository.save(hit);
+        final Hit saved = repository.save(dictionary.encode(hit));
+        aggregate(List.of(saved));
+        return saved;
+    }
+
+    @Override
+    @Transactional
+    public int addAll(List<Hit> hits) {
+        if (hits.isEmpty()) {
+            return 0;
+        }
+        final int saved = repository.saveAllInBatch(dictionary.encode(hits));
+        aggregate(hits);
+        return saved;
+    }
+
+    private void aggregate(List<Hit> hits) {
+        if (rollupEnabled) {
+            rollupRepository.increment(hits);
+        }
+        if (sketchEnabled) {
+            sketchRepository.offer(hits);
+        }
+        hotWindow.record(hits);
+        statsCache.record(hits);
     }
 }
@@ -0,0 +1,347 @@
+package ru.practicum.ewm.hot;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.SmartInitializingSingleton;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataAccessException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.lang.Nullable;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import ru.practicum.ewm.dictionary.StatsDictionary;
+import ru.practicum.ewm.hit.Hit;
+import ru.practicum.ewm.rollup.AppUri;
+import ru.practicum.ewm.rollup.RollupGranularity;
+import ru.practicum.ewm.stats.AggregatedHitCount;
+import ru.practicum.ewm.stats.HitCount;
+
+import java.sql.PreparedStatement;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableSet;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListSet;
+import java.util.stream.Collectors;
+
+/**
+ * Optional in-memory counters of the hits of the last {@code minutes} minutes per (app, uri), so that stats
+ * of recent ranges are answered without reading the stats table. Whole minutes of a range are counted from
+ * memory and its partial first and last minutes from the database, as with the rollups.
+ * <p>
+ * The counters only see hits saved through this instance, so the window must stay disabled when several
+ * instances write to the same database. Memory is bounded by {@code max-keys} (app, uri) pairs and
+ * {@code max-ips} stored IPs; a hit that does not fit is dropped and ranges starting at or before its
+ * minute are answered by the database from then on. A hit stamped further ahead than the ring reaches is not
+ * counted either; only ranges holding its minute are answered by the database.
+ * <p>
+ * Only ranges starting inside the window are answered here, so all-time counts, such as the event views
+ * main server asks for from the epoch, are served by the rollups and the stats table.
+ */
+@Slf4j
+@Component
+public class HotWindow implements SmartInitializingSingleton {
+
+    private static final RollupGranularity GRANULARITY = RollupGranularity.MINUTE;
+    /**
+     * Minutes ahead of the clock kept in the ring for hits stamped by clients with a slightly later clock.
+     */
+    private static final int AHEAD_MINUTES = 5;
+    private static final int MAX_SKIPPED_MINUTES = 1000;
+    private static final int FETCH_SIZE = 1000;
+
+    private static final String HITS_SINCE_SQL =
+            "SELECT a.name AS app, u.uri AS uri, h.ip AS ip, h.timestamp AS timestamp " +
+            "FROM stats AS h " +
+            "JOIN stats_apps AS a ON a.id = h.app_id " +
+            "JOIN stats_uris AS u ON u.id = h.uri_id " +
+            "WHERE h.timestamp >= ?";
+
+    private static final String EDGE_HITS_SQL =
+            "SELECT a.name AS app, u.uri AS uri, h.ip AS ip " +
+            "FROM stats AS h " +
+            "JOIN stats_apps AS a ON a.id = h.app_id " +
+            "JOIN stats_uris AS u ON u.id = h.uri_id " +
+            "WHERE ((h.timestamp >= :start AND h.timestamp < :from) OR (h.timestamp >= :to AND h.timestamp <= :end))";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final StatsDictionary dictionary;
+    private final NamedParameterJdbcTemplate namedJdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final boolean enabled;
+    private final int minutes;
+    private final int maxKeys;
+    private final long maxIps;
+
+    private final Map<AppUri, MinuteCounters> counters = new ConcurrentHashMap<>();
+    private long storedIps;
+    private volatile boolean ready;
+    /**
+     * First minute from which every saved hit is counted in memory.
+     */
+    private volatile long completeFrom = Long.MAX_VALUE;
+    /**
+     * Minutes past the ring that have hits not counted in memory.
+     */
+    private final NavigableSet<Long> skippedMinutes = new ConcurrentSkipListSet<>();
+    /**
+     * First minute from which minutes past the ring are no longer tracked one by one.
+     */
+    private volatile long skippedFrom = Long.MAX_VALUE;
+
+    public HotWindow(JdbcTemplate jdbcTemplate,
+                     StatsDictionary dictionary,
+                     PlatformTransactionManager transactionManager,
+                     @Value("${stats.hot-window.enabled:false}") boolean enabled,
+                     @Value("${stats.hot-window.minutes:60}") int minutes,
+                     @Value("${stats.hot-window.max-keys:10000}") int maxKeys,
+                     @Value("${stats.hot-window.max-ips:1000000}") long maxIps) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.dictionary = dictionary;
+        this.namedJdbcTemplate = new NamedParameterJdbcTemplate(jdbcTemplate);
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.transactionTemplate.setReadOnly(true);
+        this.enabled = enabled;
+        this.minutes = minutes;
+        this.maxKeys = maxKeys;
+        this.maxIps = maxIps;
+    }
+
+    /**
+     * Loads the window from the stats table before the web server starts taking hits,
+     * so that no hit is both loaded and recorded.
+     */
+    @Override
+    public void afterSingletonsInstantiated() {
+        if (!enabled) {
+            return;
+        }
+        try {
+            rebuild(LocalDateTime.now());
+        } catch (DataAccessException e) {
+            log.warn("Could not load the hot window, stats are read from the database", e);
+        }
+    }
+
+    synchronized void rebuild(LocalDateTime now) {
+        ready = false;
+        counters.clear();
+        storedIps = 0;
+        skippedMinutes.clear();
+        skippedFrom = Long.MAX_VALUE;
+
+        final long nowMinute = minute(now);
+        final long windowStart = windowStart(nowMinute);
+        completeFrom = windowStart;
+        transactionTemplate.executeWithoutResult(status -> jdbcTemplate.query(con -> {
+            final PreparedStatement ps = con.prepareStatement(HITS_SINCE_SQL);
+            ps.setFetchSize(FETCH_SIZE);
+            ps.setTimestamp(1, Timestamp.valueOf(minuteStart(windowStart)));
+            return ps;
+        }, rs -> {
+            add(rs.getString("app"), rs.getString("uri"), rs.getString("ip"),
+                    minute(rs.getTimestamp("timestamp").toLocalDateTime()), nowMinute);
+        }));
+        ready = true;
+        log.info("Hot window loaded {} (app, uri) pairs since {}", counters.size(), minuteStart(windowStart));
+    }
+
+    /**
+     * Counts the hits once the current transaction commits, so rolled back hits are never counted.
+     */
+    public void record(List<Hit> hits) {
+        if (!enabled) {
+            return;
+        }
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            add(hits, LocalDateTime.now());
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                add(hits, LocalDateTime.now());
+            }
+        });
+    }
+
+    synchronized void add(List<Hit> hits, LocalDateTime now) {
+        final long nowMinute = minute(now);
+        for (final Hit hit : hits) {
+            add(hit.getApp(), hit.getUri(), hit.getIp(), minute(hit.getTimestamp()), nowMinute);
+        }
+    }
+
+    public boolean covers(LocalDateTime start, LocalDateTime end) {
+        return covers(start, end, LocalDateTime.now());
+    }
+
+    /**
+     * Whether the range has whole minutes that are all counted in memory.
+     */
+    boolean covers(LocalDateTime start, LocalDateTime end, LocalDateTime now) {
+        if (!enabled || !ready) {
+            return false;
+        }
+        final long fromMinute = minute(GRANULARITY.ceil(start));
+        final long toMinute = minute(GRANULARITY.floor(end));
+        final Long skipped = skippedMinutes.ceiling(fromMinute);
+        return fromMinute < toMinute
+                && fromMinute >= windowStart(minute(now))
+                && fromMinute >= completeFrom
+                && toMinute <= skippedFrom
+                && (skipped == null || skipped >= toMinute);
+    }
+
+    /**
+     * Hits per (app, uri) in [start, end] for a range the window {@link #covers}, most visited first.
+     */
+    public List<HitCount> countHits(LocalDateTime start, LocalDateTime end, @Nullable List<String> uris, boolean unique) {
+        final LocalDateTime from = GRANULARITY.ceil(start);
+        final LocalDateTime to = GRANULARITY.floor(end);
+        final long fromMinute = minute(from);
+        final long toMinute = minute(to);
+        final Set<String> uriFilter = uris == null ? null : new HashSet<>(uris);
+        final List<Integer> uriIds = uris == null ? null : dictionary.findUriIds(uris);
+        if (uriIds != null && uriIds.isEmpty()) {
+            return List.of();
+        }
+
+        final Map<AppUri, Long> hits = new HashMap<>();
+        final Map<AppUri, Set<String>> ips = new HashMap<>();
+        counters.forEach((key, keyCounters) -> {
+            if (uriFilter != null && !uriFilter.contains(key.getUri())) {
+                return;
+            }
+            final long count = keyCounters.count(fromMinute, toMinute);
+            if (count == 0) {
+                return;
+            }
+            if (unique) {
+                keyCounters.collectIps(fromMinute, toMinute, ips.computeIfAbsent(key, k -> new HashSet<>()));
+            } else {
+                hits.merge(key, count, Long::sum);
+            }
+        });
+
+        final MapSqlParameterSource parameters = new MapSqlParameterSource()
+                .addValue("start", Timestamp.valueOf(start))
+                .addValue("from", Timestamp.valueOf(from))
+                .addValue("to", Timestamp.valueOf(to))
+                .addValue("end", Timestamp.valueOf(end));
+        String sql = EDGE_HITS_SQL;
+        if (uris != null) {
+            sql += " AND h.uri_id IN (:uriIds)";
+            parameters.addValue("uriIds", uriIds);
+        }
+        namedJdbcTemplate.query(sql, parameters, rs -> {
+            final AppUri key = new AppUri(rs.getString("app"), rs.getString("uri"));
+            final String ip = rs.getString("ip");
+            if (unique) {
+                final Set<String> keyIps = ips.computeIfAbsent(key, k -> new HashSet<>());
+                if (ip != null) {
+                    keyIps.add(ip);
+                }
+            } else {
+                hits.merge(key, 1L, Long::sum);
+            }
+        });
+
+        final Map<AppUri, Long> totals = unique
+                ? ips.entrySet().stream().collect(Collectors.toMap(Map.Entry::getKey, e -> (long) e.getValue().size()))
+                : hits;
+        return totals.entrySet().stream()
+                .<HitCount>map(e -> new AggregatedHitCount(e.getKey().getApp(), e.getKey().getUri(), e.getValue()))
+                .sorted(Comparator.comparing(HitCount::getHits).reversed())
+                .collect(Collectors.toList());
+    }
+
+    private void add(String app, String uri, @Nullable String ip, long minute, long nowMinute) {
+        final long windowStart = windowStart(nowMinute);
+        if (minute < windowStart) {
+            return;
+        }
+        if (minute > nowMinute + AHEAD_MINUTES) {
+            skip(minute, windowStart);
+            return;
+        }
+
+        final AppUri key = new AppUri(app, uri);
+        MinuteCounters keyCounters = counters.get(key);
+        if (keyCounters == null && counters.size() >= maxKeys) {
+            evictBefore(windowStart);
+        }
+        if (ip != null && storedIps >= maxIps) {
+            evictBefore(windowStart);
+        }
+        if ((keyCounters == null && counters.size() >= maxKeys) || (ip != null && storedIps >= maxIps)) {
+            drop(minute);
+            return;
+        }
+        if (keyCounters == null) {
+            keyCounters = new MinuteCounters(minutes + AHEAD_MINUTES);
+            counters.put(key, keyCounters);
+        }
+        storedIps += keyCounters.add(minute, ip);
+    }
+
+    private void evictBefore(long windowStart) {
+        final Iterator<MinuteCounters> iterator = counters.values().iterator();
+        while (iterator.hasNext()) {
+            final MinuteCounters keyCounters = iterator.next();
+            storedIps -= keyCounters.evictBefore(windowStart);
+            if (keyCounters.isIdleBefore(windowStart)) {
+                iterator.remove();
+            }
+        }
+    }
+
+    private void drop(long minute) {
+        if (minute >= completeFrom) {
+            completeFrom = minute + 1;
+            log.warn("Hot window is full, stats of ranges starting before {} are read from the database",
+                    minuteStart(completeFrom));
+        }
+    }
+
+    /**
+     * Remembers the minute of a hit stamped past the ring, so that only ranges holding it are answered by
+     * the database. Once too many such minutes are tracked, the latest ones are given up as a whole.
+     */
+    private void skip(long minute, long windowStart) {
+        if (minute >= skippedFrom) {
+            return;
+        }
+        skippedMinutes.headSet(windowStart).clear();
+        skippedMinutes.add(minute);
+        if (skippedMinutes.size() > MAX_SKIPPED_MINUTES) {
+            skippedFrom = skippedMinutes.pollLast();
+            log.warn("Too many future hits, stats of ranges ending after {} are read from the database",
+                    minuteStart(skippedFrom));
+        }
+    }
+
+    private long windowStart(long nowMinute) {
+        return nowMinute - minutes + 1;
+    }
+
+    private static long minute(LocalDateTime dateTime) {
+        return Math.floorDiv(dateTime.toEpochSecond(ZoneOffset.UTC), 60);
+    }
+
+    private static LocalDateTime minuteStart(long minute) {
+        return LocalDateTime.ofEpochSecond(minute * 60, 0, ZoneOffset.UTC);
+    }
+}
@@ -0,0 +1,105 @@
+package ru.practicum.ewm.hot;
+
+import org.springframework.lang.Nullable;
+
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.Set;
+
+/**
+ * Ring buffer of per-minute hit counters and visitor IPs of one (app, uri). A slot is reused for the minute
+ * that is one ring length later, which drops the counters of the minute it held before.
+ */
+class MinuteCounters {
+
+    private static final long EMPTY = Long.MIN_VALUE;
+
+    private final long[] minutes;
+    private final long[] hits;
+    private final Set<String>[] ips;
+    private long latestMinute = EMPTY;
+
+    @SuppressWarnings("unchecked")
+    MinuteCounters(int size) {
+        this.minutes = new long[size];
+        this.hits = new long[size];
+        this.ips = new Set[size];
+        Arrays.fill(minutes, EMPTY);
+    }
+
+    /**
+     * Counts a hit of the minute, returns by how much the number of stored IPs changed.
+     */
+    synchronized int add(long minute, @Nullable String ip) {
+        final int slot = slot(minute);
+        int storedIps = 0;
+        if (minutes[slot] != minute) {
+            storedIps -= clear(slot);
+            minutes[slot] = minute;
+        }
+        hits[slot]++;
+        if (ip != null) {
+            if (ips[slot] == null) {
+                ips[slot] = new HashSet<>();
+            }
+            if (ips[slot].add(ip)) {
+                storedIps++;
+            }
+        }
+        latestMinute = Math.max(latestMinute, minute);
+        return storedIps;
+    }
+
+    /**
+     * Hits of the minutes in [fromMinute, toMinute).
+     */
+    synchronized long count(long fromMinute, long toMinute) {
+        long count = 0;
+        for (int slot = 0; slot < minutes.length; slot++) {
+            if (minutes[slot] >= fromMinute && minutes[slot] < toMinute) {
+                count += hits[slot];
+            }
+        }
+        return count;
+    }
+
+    /**
+     * Adds the IPs of the minutes in [fromMinute, toMinute) to the given set.
+     */
+    synchronized void collectIps(long fromMinute, long toMinute, Set<String> target) {
+        for (int slot = 0; slot < minutes.length; slot++) {
+            if (minutes[slot] >= fromMinute && minutes[slot] < toMinute && ips[slot] != null) {
+                target.addAll(ips[slot]);
+            }
+        }
+    }
+
+    synchronized boolean isIdleBefore(long minute) {
+        return latestMinute < minute;
+    }
+
+    /**
+     * Clears the slots of minutes before the given one, returns the number of IPs they held.
+     */
+    synchronized int evictBefore(long minute) {
+        int cleared = 0;
+        for (int slot = 0; slot < minutes.length; slot++) {
+            if (minutes[slot] != EMPTY && minutes[slot] < minute) {
+                cleared += clear(slot);
+                minutes[slot] = EMPTY;
+            }
+        }
+        return cleared;
+    }
+
+    private int clear(int slot) {
+        hits[slot] = 0;
+        final int cleared = ips[slot] == null ? 0 : ips[slot].size();
+        ips[slot] = null;
+        return cleared;
+    }
+
+    private int slot(long minute) {
+        return (int) Math.floorMod(minute, (long) minutes.length);
+    }
+}
@@ -0,0 +1,54 @@
+package ru.practicum.ewm.partition;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.YearMonth;
+import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeParseException;
+import java.time.temporal.ChronoUnit;
+import java.util.Optional;
+
+/**
+ * Length of one time partition of the raw hits table.
+ */
+public enum PartitionInterval {
+    DAY(ChronoUnit.DAYS, "yyyyMMdd"),
+    MONTH(ChronoUnit.MONTHS, "yyyyMM");
+
+    private final ChronoUnit unit;
+    private final DateTimeFormatter suffixFormatter;
+
+    PartitionInterval(ChronoUnit unit, String suffixPattern) {
+        this.unit = unit;
+        this.suffixFormatter = DateTimeFormatter.ofPattern(suffixPattern);
+    }
+
+    /**
+     * Inclusive lower bound of the partition holding the given timestamp.
+     */
+    public LocalDateTime start(LocalDateTime timestamp) {
+        final LocalDateTime day = timestamp.truncatedTo(ChronoUnit.DAYS);
+        return this == MONTH ? day.withDayOfMonth(1) : day;
+    }
+
+    public LocalDateTime plus(LocalDateTime start, long intervals) {
+        return start.plus(intervals, unit);
+    }
+
+    public String suffix(LocalDateTime start) {
+        return suffixFormatter.format(start);
+    }
+
+    /**
+     * Lower bound of the partition with the given suffix, empty if the suffix was not made by this interval.
+     */
+    public Optional<LocalDateTime> parseSuffix(String suffix) {
+        try {
+            return Optional.of(this == MONTH
+                    ? YearMonth.parse(suffix, suffixFormatter).atDay(1).atStartOfDay()
+                    : LocalDate.parse(suffix, suffixFormatter).atStartOfDay());
+        } catch (DateTimeParseException e) {
+            return Optional.empty();
+        }
+    }
+}
@@ -0,0 +1,144 @@
+package ru.practicum.ewm.partition;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Keeps the time partitions of the PostgreSQL stats table: creates the current and the next
+ * {@code precreate} ones, and removes those older than {@code retention} intervals.
+ * Range queries on the timestamp then only scan the partitions they overlap.
+ */
+@Slf4j
+@Component
+@ConditionalOnProperty(name = "stats.partitions.enabled", havingValue = "true")
+public class StatsPartitionManager {
+
+    enum RetentionMode {
+        DROP,
+        DETACH
+    }
+
+    static final String TABLE = "stats";
+    static final String PARTITION_PREFIX = TABLE + "_p";
+    static final String DEFAULT_PARTITION = TABLE + "_default";
+
+    private static final DateTimeFormatter BOUND_FORMATTER = DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm:ss");
+
+    private static final String IS_PARTITIONED_SQL =
+            "SELECT COUNT(*) FROM pg_partitioned_table WHERE partrelid = to_regclass('" + TABLE + "')";
+    private static final String PARTITIONS_SQL =
+            "SELECT c.relname FROM pg_inherits AS i JOIN pg_class AS c ON c.oid = i.inhrelid " +
+            "WHERE i.inhparent = to_regclass('" + TABLE + "')";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final PartitionInterval interval;
+    private final int precreate;
+    private final int retention;
+    private final RetentionMode retentionMode;
+
+    public StatsPartitionManager(JdbcTemplate jdbcTemplate,
+                                 PlatformTransactionManager transactionManager,
+                                 @Value("${stats.partitions.interval:MONTH}") PartitionInterval interval,
+                                 @Value("${stats.partitions.precreate:2}") int precreate,
+                                 @Value("${stats.partitions.retention:0}") int retention,
+                                 @Value("${stats.partitions.retention-mode:DETACH}") RetentionMode retentionMode) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.interval = interval;
+        this.precreate = precreate;
+        this.retention = retention;
+        this.retentionMode = retentionMode;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    @Scheduled(cron = "${stats.partitions.cron:0 0 * * * *}")
+    public void maintain() {
+        maintain(LocalDateTime.now());
+    }
+
+    void maintain(LocalDateTime now) {
+        final Long partitioned = jdbcTemplate.queryForObject(IS_PARTITIONED_SQL, Long.class);
+        if (partitioned == null || partitioned == 0) {
+            log.warn("Table {} is not partitioned, skipping partition maintenance", TABLE);
+            return;
+        }
+
+        final Map<LocalDateTime, String> partitions = findPartitions();
+        final LocalDateTime current = interval.start(now);
+
+        for (int i = 0; i <= precreate; i++) {
+            final LocalDateTime start = interval.plus(current, i);
+            if (!partitions.containsKey(start)) {
+                createPartition(start);
+            }
+        }
+
+        if (retention <= 0) {
+            return;
+        }
+        final LocalDateTime cutoff = interval.plus(current, -retention);
+        partitions.forEach((start, name) -> {
+            if (start.isBefore(cutoff)) {
+                removePartition(name);
+            }
+        });
+    }
+
+    private Map<LocalDateTime, String> findPartitions() {
+        final Map<LocalDateTime, String> partitions = new TreeMap<>();
+        final List<String> names = jdbcTemplate.queryForList(PARTITIONS_SQL, String.class);
+        for (final String name : names) {
+            if (name.startsWith(PARTITION_PREFIX)) {
+                interval.parseSuffix(name.substring(PARTITION_PREFIX.length()))
+                        .ifPresent(start -> partitions.put(start, name));
+            }
+        }
+        return partitions;
+    }
+
+    /**
+     * Hits of the new range that already landed in the default partition are moved into the new one,
+     * otherwise PostgreSQL refuses to attach it.
+     */
+    private void createPartition(LocalDateTime start) {
+        final LocalDateTime end = interval.plus(start, 1);
+        final String name = PARTITION_PREFIX + interval.suffix(start);
+
+        transactionTemplate.executeWithoutResult(status -> {
+            jdbcTemplate.execute("CREATE TABLE " + name +
+                    " (LIKE " + TABLE + " INCLUDING DEFAULTS INCLUDING CONSTRAINTS)");
+            final int moved = jdbcTemplate.update("WITH moved AS (" +
+                    "DELETE FROM " + DEFAULT_PARTITION + " WHERE timestamp >= ? AND timestamp < ? RETURNING *" +
+                    ") INSERT INTO " + name + " SELECT * FROM moved", start, end);
+            jdbcTemplate.execute("ALTER TABLE " + TABLE + " ATTACH PARTITION " + name +
+                    " FOR VALUES FROM ('" + BOUND_FORMATTER.format(start) + "')" +
+                    " TO ('" + BOUND_FORMATTER.format(end) + "')");
+            log.info("Created partition {} for [{}, {}), moved {} hits from {}", name, start, end, moved, DEFAULT_PARTITION);
+        });
+    }
+
+    private void removePartition(String name) {
+        if (retentionMode == RetentionMode.DROP) {
+            jdbcTemplate.execute("DROP TABLE " + name);
+            log.info("Dropped partition {}", name);
+        } else {
+            jdbcTemplate.execute("ALTER TABLE " + TABLE + " DETACH PARTITION " + name);
+            log.info("Detached partition {}, it can be archived and dropped", name);
+        }
+    }
+}
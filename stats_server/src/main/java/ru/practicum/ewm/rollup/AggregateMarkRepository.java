@@ -0,0 +1,40 @@
+package ru.practicum.ewm.rollup;
+
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * High-water marks of the aggregate tables: the last raw hit an aggregate includes, kept while it is turned off.
+ */
+@Repository
+public class AggregateMarkRepository {
+
+    public enum Aggregate {
+        ROLLUP,
+        SKETCH
+    }
+
+    private final JdbcTemplate jdbcTemplate;
+
+    public AggregateMarkRepository(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    public Optional<Long> find(Aggregate aggregate) {
+        final List<Long> found = jdbcTemplate.queryForList(
+                "SELECT last_hit_id FROM stats_aggregate_mark WHERE aggregate = ?", Long.class, aggregate.name());
+        return found.stream().findFirst();
+    }
+
+    public void save(Aggregate aggregate, long lastHitId) {
+        jdbcTemplate.update("INSERT INTO stats_aggregate_mark (aggregate, last_hit_id) VALUES (?, ?)",
+                aggregate.name(), lastHitId);
+    }
+
+    public void delete(Aggregate aggregate) {
+        jdbcTemplate.update("DELETE FROM stats_aggregate_mark WHERE aggregate = ?", aggregate.name());
+    }
+}
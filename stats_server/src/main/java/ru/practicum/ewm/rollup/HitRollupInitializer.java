@@ -0,0 +1,90 @@
+package ru.practicum.ewm.rollup;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.SmartInitializingSingleton;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import ru.practicum.ewm.hit.Hit;
+import ru.practicum.ewm.hit.HitRepository;
+import ru.practicum.ewm.rollup.AggregateMarkRepository.Aggregate;
+
+import java.util.List;
+import java.util.Optional;
+import java.util.function.BooleanSupplier;
+import java.util.function.Consumer;
+
+/**
+ * Keeps the rollup and sketch tables in step with raw hits before the web server starts taking hits.
+ * An enabled table that has nothing yet is rebuilt from raw hits. A disabled table records the last hit
+ * it includes, and the hits saved after it are added once the table is enabled again, so that ranges
+ * answered from it are not undercounted.
+ */
+@Slf4j
+@Component
+public class HitRollupInitializer implements SmartInitializingSingleton {
+
+    private static final int CHUNK_SIZE = 1000;
+
+    private final HitRollupRepository rollupRepository;
+    private final HitSketchRepository sketchRepository;
+    private final AggregateMarkRepository markRepository;
+    private final HitRepository hitRepository;
+    private final TransactionTemplate transactionTemplate;
+    private final boolean rollupEnabled;
+    private final boolean sketchEnabled;
+
+    public HitRollupInitializer(HitRollupRepository rollupRepository,
+                                HitSketchRepository sketchRepository,
+                                AggregateMarkRepository markRepository,
+                                HitRepository hitRepository,
+                                PlatformTransactionManager transactionManager,
+                                @Value("${stats.rollup.enabled:true}") boolean rollupEnabled,
+                                @Value("${stats.sketch.enabled:false}") boolean sketchEnabled) {
+        this.rollupRepository = rollupRepository;
+        this.sketchRepository = sketchRepository;
+        this.markRepository = markRepository;
+        this.hitRepository = hitRepository;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.rollupEnabled = rollupEnabled;
+        this.sketchEnabled = sketchEnabled;
+    }
+
+    @Override
+    public void afterSingletonsInstantiated() {
+        transactionTemplate.executeWithoutResult(status -> {
+            sync(Aggregate.ROLLUP, rollupEnabled,
+                    rollupRepository::isEmpty, rollupRepository::rebuild, rollupRepository::increment);
+            sync(Aggregate.SKETCH, sketchEnabled,
+                    sketchRepository::isEmpty, sketchRepository::rebuild, sketchRepository::offer);
+        });
+    }
+
+    private void sync(Aggregate aggregate,
+                      boolean enabled,
+                      BooleanSupplier isEmpty,
+                      Runnable rebuild,
+                      Consumer<List<Hit>> add) {
+        final Optional<Long> mark = markRepository.find(aggregate);
+        if (!enabled) {
+            if (mark.isEmpty()) {
+                markRepository.save(aggregate, hitRepository.findLastId());
+            }
+            return;
+        }
+
+        if (isEmpty.getAsBoolean()) {
+            if (hitRepository.hasHits()) {
+                log.info("{} table is empty, rebuilding it from raw hits", aggregate);
+                rebuild.run();
+            }
+        } else if (mark.isPresent()) {
+            log.info("{} table was disabled after hit {}, adding the hits saved since", aggregate, mark.get());
+            hitRepository.forEachChunkAfter(mark.get(), CHUNK_SIZE, add);
+        }
+        if (mark.isPresent()) {
+            markRepository.delete(aggregate);
+        }
+    }
+}
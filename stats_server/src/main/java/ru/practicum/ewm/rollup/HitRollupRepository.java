@@ -0,0 +1,151 @@
+package ru.practicum.ewm.rollup;
+
+import lombok.Value;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.lang.Nullable;
+import org.springframework.stereotype.Repository;
+import ru.practicum.ewm.hit.Hit;
+import ru.practicum.ewm.stats.AggregatedHitCount;
+import ru.practicum.ewm.stats.HitCount;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+@Slf4j
+@Repository
+public class HitRollupRepository {
+
+    private static final String POSTGRES_UPSERT_SQL =
+            "INSERT INTO stats_rollup (granularity, bucket_start, app, uri, hits) " +
+            "VALUES (?, ?, ?, ?, ?) " +
+            "ON CONFLICT (granularity, bucket_start, app, uri) " +
+            "DO UPDATE SET hits = stats_rollup.hits + EXCLUDED.hits";
+
+    private static final String STANDARD_UPSERT_SQL =
+            "MERGE INTO stats_rollup AS r " +
+            "USING (VALUES (CAST(? AS VARCHAR(8)), CAST(? AS TIMESTAMP), CAST(? AS VARCHAR(255)), " +
+            "               CAST(? AS VARCHAR(64)), CAST(? AS BIGINT))) " +
+            "   AS v (granularity, bucket_start, app, uri, hits) " +
+            "ON r.granularity = v.granularity AND r.bucket_start = v.bucket_start " +
+            "   AND r.app = v.app AND r.uri = v.uri " +
+            "WHEN MATCHED THEN UPDATE SET hits = r.hits + v.hits " +
+            "WHEN NOT MATCHED THEN INSERT (granularity, bucket_start, app, uri, hits) " +
+            "   VALUES (v.granularity, v.bucket_start, v.app, v.uri, v.hits)";
+
+    private static final String REBUILD_SQL_FORMAT =
+            "INSERT INTO stats_rollup (granularity, bucket_start, app, uri, hits) " +
+            "SELECT '%s', DATE_TRUNC('%s', h.timestamp), a.name, u.uri, COUNT(*) " +
+            "FROM stats AS h " +
+            "JOIN stats_apps AS a ON a.id = h.app_id " +
+            "JOIN stats_uris AS u ON u.id = h.uri_id " +
+            "GROUP BY DATE_TRUNC('%s', h.timestamp), a.name, u.uri";
+
+    private static final int UPSERT_BATCH_SIZE = 500;
+
+    private final JdbcTemplate jdbcTemplate;
+    private final NamedParameterJdbcTemplate namedJdbcTemplate;
+
+    private volatile String upsertSql;
+
+    public HitRollupRepository(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.namedJdbcTemplate = new NamedParameterJdbcTemplate(jdbcTemplate);
+    }
+
+    public void increment(List<Hit> hits) {
+        // sorted keys keep row lock order stable between concurrent batches
+        final Map<BucketKey, Long> increments = new TreeMap<>(BucketKey.ORDER);
+        for (final Hit hit : hits) {
+            for (final RollupGranularity granularity : RollupGranularity.values()) {
+                final BucketKey key = new BucketKey(
+                        granularity, granularity.floor(hit.getTimestamp()), hit.getApp(), hit.getUri());
+                increments.merge(key, 1L, Long::sum);
+            }
+        }
+
+        jdbcTemplate.batchUpdate(upsertSql(), new ArrayList<>(increments.entrySet()), UPSERT_BATCH_SIZE,
+                (ps, increment) -> {
+                    final BucketKey key = increment.getKey();
+                    ps.setString(1, key.getGranularity().name());
+                    ps.setTimestamp(2, Timestamp.valueOf(key.getBucketStart()));
+                    ps.setString(3, key.getApp());
+                    ps.setString(4, key.getUri());
+                    ps.setLong(5, increment.getValue());
+                });
+    }
+
+    public List<HitCount> sumHits(List<RollupSegment> segments, @Nullable List<String> uris) {
+        final MapSqlParameterSource parameters = new MapSqlParameterSource();
+        final StringBuilder sql = new StringBuilder(
+                "SELECT r.app AS app, r.uri AS uri, SUM(r.hits) AS hits " +
+                "FROM stats_rollup AS r " +
+                "WHERE (");
+
+        for (int i = 0; i < segments.size(); i++) {
+            final RollupSegment segment = segments.get(i);
+            if (i > 0) {
+                sql.append(" OR ");
+            }
+            sql.append(String.format(
+                    "(r.granularity = :granularity%1$d AND r.bucket_start >= :from%1$d AND r.bucket_start < :to%1$d)", i));
+            parameters.addValue("granularity" + i, segment.getGranularity().name());
+            parameters.addValue("from" + i, Timestamp.valueOf(segment.getFrom()));
+            parameters.addValue("to" + i, Timestamp.valueOf(segment.getTo()));
+        }
+        sql.append(")");
+
+        if (uris != null) {
+            sql.append(" AND r.uri IN (:uris)");
+            parameters.addValue("uris", uris);
+        }
+        sql.append(" GROUP BY r.app, r.uri");
+
+        return namedJdbcTemplate.query(sql.toString(), parameters, (rs, rowNum) ->
+                new AggregatedHitCount(rs.getString("app"), rs.getString("uri"), rs.getLong("hits")));
+    }
+
+    public boolean isEmpty() {
+        final Long present = jdbcTemplate.queryForObject(
+                "SELECT COUNT(*) FROM (SELECT 1 FROM stats_rollup FETCH FIRST 1 ROWS ONLY) AS r", Long.class);
+        return present == null || present == 0;
+    }
+
+    public void rebuild() {
+        jdbcTemplate.update("DELETE FROM stats_rollup");
+        for (final RollupGranularity granularity : RollupGranularity.values()) {
+            final String unit = granularity.sqlUnit();
+            jdbcTemplate.update(String.format(REBUILD_SQL_FORMAT, granularity.name(), unit, unit));
+        }
+    }
+
+    private String upsertSql() {
+        if (upsertSql == null) {
+            final SqlDialect dialect = SqlDialect.detect(jdbcTemplate);
+            upsertSql = dialect == SqlDialect.POSTGRESQL ? POSTGRES_UPSERT_SQL : STANDARD_UPSERT_SQL;
+            log.info("Rollup upsert uses {} syntax", dialect);
+        }
+        return upsertSql;
+    }
+
+    @Value
+    private static class BucketKey {
+        static final Comparator<BucketKey> ORDER = Comparator
+                .comparing(BucketKey::getGranularity)
+                .thenComparing(BucketKey::getBucketStart)
+                .thenComparing(BucketKey::getApp)
+                .thenComparing(BucketKey::getUri);
+
+        RollupGranularity granularity;
+        LocalDateTime bucketStart;
+        String app;
+        String uri;
+    }
+}
@@ -0,0 +1,236 @@
+package ru.practicum.ewm.rollup;
+
+import lombok.Value;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.lang.Nullable;
+import org.springframework.stereotype.Repository;
+import ru.practicum.ewm.dictionary.StatsDictionary;
+import ru.practicum.ewm.hit.Hit;
+
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Hourly HyperLogLog sketches of visitor IPs per (app, uri). {@link #offer} runs in the hit insert transaction and
+ * locks and rewrites one row of about 2 KiB per (hour, app, uri) of the batch, so concurrent batches hitting
+ * the same uri wait for each other; the sketches are off unless {@code stats.sketch.enabled} is set.
+ */
+@Slf4j
+@Repository
+public class HitSketchRepository {
+
+    private static final String POSTGRES_CREATE_SQL =
+            "INSERT INTO stats_ip_sketch (bucket_start, app, uri, registers) " +
+            "VALUES (?, ?, ?, ?) " +
+            "ON CONFLICT (bucket_start, app, uri) DO NOTHING";
+
+    private static final String STANDARD_CREATE_SQL =
+            "MERGE INTO stats_ip_sketch AS s " +
+            "USING (VALUES (CAST(? AS TIMESTAMP), CAST(? AS VARCHAR(255)), CAST(? AS VARCHAR(64)), " +
+            "               CAST(? AS VARBINARY))) " +
+            "   AS v (bucket_start, app, uri, registers) " +
+            "ON s.bucket_start = v.bucket_start AND s.app = v.app AND s.uri = v.uri " +
+            "WHEN NOT MATCHED THEN INSERT (bucket_start, app, uri, registers) " +
+            "   VALUES (v.bucket_start, v.app, v.uri, v.registers)";
+
+    private static final String LOCK_SQL =
+            "SELECT registers FROM stats_ip_sketch " +
+            "WHERE bucket_start = ? AND app = ? AND uri = ? " +
+            "FOR UPDATE";
+
+    private static final String UPDATE_SQL =
+            "UPDATE stats_ip_sketch SET registers = ? " +
+            "WHERE bucket_start = ? AND app = ? AND uri = ?";
+
+    private static final RollupGranularity GRANULARITY = RollupGranularity.HOUR;
+    private static final int BATCH_SIZE = 500;
+
+    private final JdbcTemplate jdbcTemplate;
+    private final NamedParameterJdbcTemplate namedJdbcTemplate;
+    private final StatsDictionary dictionary;
+
+    private volatile String createSql;
+
+    public HitSketchRepository(JdbcTemplate jdbcTemplate, StatsDictionary dictionary) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.namedJdbcTemplate = new NamedParameterJdbcTemplate(jdbcTemplate);
+        this.dictionary = dictionary;
+    }
+
+    public RollupGranularity getGranularity() {
+        return GRANULARITY;
+    }
+
+    public void offer(List<Hit> hits) {
+        // sorted keys keep row lock order stable between concurrent batches
+        final Map<SketchKey, HyperLogLog> sketches = new TreeMap<>(SketchKey.ORDER);
+        for (final Hit hit : hits) {
+            if (hit.getIp() == null) {
+                continue;
+            }
+            final SketchKey key = new SketchKey(GRANULARITY.floor(hit.getTimestamp()), hit.getApp(), hit.getUri());
+            sketches.computeIfAbsent(key, k -> new HyperLogLog()).offer(hit.getIp());
+        }
+        if (sketches.isEmpty()) {
+            return;
+        }
+
+        final List<Map.Entry<SketchKey, HyperLogLog>> entries = new ArrayList<>(sketches.entrySet());
+        final byte[] empty = new HyperLogLog().toBytes();
+        jdbcTemplate.batchUpdate(createSql(), entries, BATCH_SIZE, (ps, entry) -> {
+            setKey(ps, 1, entry.getKey());
+            ps.setBytes(4, empty);
+        });
+
+        for (final Map.Entry<SketchKey, HyperLogLog> entry : entries) {
+            final SketchKey key = entry.getKey();
+            final byte[] stored = jdbcTemplate.queryForObject(LOCK_SQL, byte[].class,
+                    Timestamp.valueOf(key.getBucketStart()), key.getApp(), key.getUri());
+            entry.getValue().merge(HyperLogLog.fromBytes(stored));
+        }
+
+        jdbcTemplate.batchUpdate(UPDATE_SQL, entries, BATCH_SIZE, (ps, entry) -> {
+            ps.setBytes(1, entry.getValue().toBytes());
+            setKey(ps, 2, entry.getKey());
+        });
+    }
+
+    /**
+     * Merges sketches of buckets in [from, to) per (app, uri).
+     */
+    public Map<AppUri, HyperLogLog> mergeSketches(LocalDateTime from, LocalDateTime to, @Nullable List<String> uris) {
+        final MapSqlParameterSource parameters = new MapSqlParameterSource()
+                .addValue("from", Timestamp.valueOf(from))
+                .addValue("to", Timestamp.valueOf(to));
+        String sql = "SELECT s.app AS app, s.uri AS uri, s.registers AS registers " +
+                "FROM stats_ip_sketch AS s " +
+                "WHERE s.bucket_start >= :from AND s.bucket_start < :to";
+        if (uris != null) {
+            sql += " AND s.uri IN (:uris)";
+            parameters.addValue("uris", uris);
+        }
+
+        final Map<AppUri, HyperLogLog> sketches = new HashMap<>();
+        namedJdbcTemplate.query(sql, parameters, rs -> {
+            final AppUri key = new AppUri(rs.getString("app"), rs.getString("uri"));
+            final HyperLogLog sketch = HyperLogLog.fromBytes(rs.getBytes("registers"));
+            sketches.merge(key, sketch, HyperLogLog::merge);
+        });
+        return sketches;
+    }
+
+    /**
+     * Offers IPs of raw hits in [start, from) and [to, end] to the sketches.
+     */
+    public void offerEdgeIps(LocalDateTime start,
+                             LocalDateTime from,
+                             LocalDateTime to,
+                             LocalDateTime end,
+                             @Nullable List<String> uris,
+                             Map<AppUri, HyperLogLog> sketches) {
+        final MapSqlParameterSource parameters = new MapSqlParameterSource()
+                .addValue("start", Timestamp.valueOf(start))
+                .addValue("from", Timestamp.valueOf(from))
+                .addValue("to", Timestamp.valueOf(to))
+                .addValue("end", Timestamp.valueOf(end));
+        String sql = "SELECT DISTINCT h.app_id AS app_id, h.uri_id AS uri_id, h.ip AS ip " +
+                "FROM stats AS h " +
+                "WHERE h.ip IS NOT NULL " +
+                "AND ((h.timestamp >= :start AND h.timestamp < :from) OR (h.timestamp >= :to AND h.timestamp <= :end))";
+        if (uris != null) {
+            final List<Integer> uriIds = dictionary.findUriIds(uris);
+            if (uriIds.isEmpty()) {
+                return;
+            }
+            sql += " AND h.uri_id IN (:uriIds)";
+            parameters.addValue("uriIds", uriIds);
+        }
+
+        namedJdbcTemplate.query(sql, parameters, rs -> {
+            final AppUri key = new AppUri(
+                    dictionary.app(rs.getInt("app_id")), dictionary.uri(rs.getInt("uri_id")));
+            sketches.computeIfAbsent(key, k -> new HyperLogLog()).offer(rs.getString("ip"));
+        });
+    }
+
+    public boolean isEmpty() {
+        final Long present = jdbcTemplate.queryForObject(
+                "SELECT COUNT(*) FROM (SELECT 1 FROM stats_ip_sketch FETCH FIRST 1 ROWS ONLY) AS s", Long.class);
+        return present == null || present == 0;
+    }
+
+    /**
+     * Recomputes all sketches from raw hits one bucket at a time.
+     */
+    public void rebuild() {
+        jdbcTemplate.update("DELETE FROM stats_ip_sketch");
+
+        final String unit = GRANULARITY.sqlUnit();
+        final String sql = String.format(
+                "SELECT DISTINCT DATE_TRUNC('%s', h.timestamp) AS bucket_start, a.name AS app, u.uri AS uri, h.ip AS ip " +
+                "FROM stats AS h " +
+                "JOIN stats_apps AS a ON a.id = h.app_id " +
+                "JOIN stats_uris AS u ON u.id = h.uri_id " +
+                "WHERE h.ip IS NOT NULL " +
+                "ORDER BY bucket_start", unit);
+
+        final TreeMap<SketchKey, HyperLogLog> bucket = new TreeMap<>(SketchKey.ORDER);
+        jdbcTemplate.query(sql, rs -> {
+            final SketchKey key = new SketchKey(
+                    rs.getTimestamp("bucket_start").toLocalDateTime(), rs.getString("app"), rs.getString("uri"));
+            if (!bucket.isEmpty() && !bucket.firstKey().getBucketStart().equals(key.getBucketStart())) {
+                insert(bucket);
+                bucket.clear();
+            }
+            bucket.computeIfAbsent(key, k -> new HyperLogLog()).offer(rs.getString("ip"));
+        });
+        insert(bucket);
+    }
+
+    private void insert(Map<SketchKey, HyperLogLog> sketches) {
+        jdbcTemplate.batchUpdate(
+                "INSERT INTO stats_ip_sketch (bucket_start, app, uri, registers) VALUES (?, ?, ?, ?)",
+                new ArrayList<>(sketches.entrySet()), BATCH_SIZE, (ps, entry) -> {
+                    setKey(ps, 1, entry.getKey());
+                    ps.setBytes(4, entry.getValue().toBytes());
+                });
+    }
+
+    private static void setKey(PreparedStatement ps, int index, SketchKey key) throws SQLException {
+        ps.setTimestamp(index, Timestamp.valueOf(key.getBucketStart()));
+        ps.setString(index + 1, key.getApp());
+        ps.setString(index + 2, key.getUri());
+    }
+
+    private String createSql() {
+        if (createSql == null) {
+            final SqlDialect dialect = SqlDialect.detect(jdbcTemplate);
+            createSql = dialect == SqlDialect.POSTGRESQL ? POSTGRES_CREATE_SQL : STANDARD_CREATE_SQL;
+            log.info("Sketch insert uses {} syntax", dialect);
+        }
+        return createSql;
+    }
+
+    @Value
+    private static class SketchKey {
+        static final Comparator<SketchKey> ORDER = Comparator
+                .comparing(SketchKey::getBucketStart)
+                .thenComparing(SketchKey::getApp)
+                .thenComparing(SketchKey::getUri);
+
+        LocalDateTime bucketStart;
+        String app;
+        String uri;
+    }
+}
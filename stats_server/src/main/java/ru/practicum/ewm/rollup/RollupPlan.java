@@ -0,0 +1,68 @@
+package ru.practicum.ewm.rollup;
+
+import lombok.Value;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Splits an inclusive [start, end] range into the coarsest possible rollup buckets
+ * plus the raw fragments at both edges that are not aligned to a minute:
+ * [start, bucketsFrom) and [bucketsTo, end].
+ */
+@Value
+public class RollupPlan {
+    LocalDateTime start;
+    LocalDateTime end;
+    LocalDateTime bucketsFrom;
+    LocalDateTime bucketsTo;
+    List<RollupSegment> segments;
+
+    public static RollupPlan of(LocalDateTime start, LocalDateTime end) {
+        final LocalDateTime bucketsFrom = RollupGranularity.MINUTE.ceil(start);
+        final LocalDateTime bucketsTo = RollupGranularity.MINUTE.floor(end);
+
+        if (!bucketsFrom.isBefore(bucketsTo)) {
+            // the whole range fits into a single minute, everything is an edge
+            return new RollupPlan(start, end, end, end, Collections.emptyList());
+        }
+
+        final List<RollupSegment> segments = new ArrayList<>();
+        split(bucketsFrom, bucketsTo, RollupGranularity.DAY, segments);
+        return new RollupPlan(start, end, bucketsFrom, bucketsTo, segments);
+    }
+
+    public boolean hasSegments() {
+        return !segments.isEmpty();
+    }
+
+    private static void split(
+            LocalDateTime from,
+            LocalDateTime to,
+            RollupGranularity granularity,
+            List<RollupSegment> segments
+    ) {
+        if (!from.isBefore(to)) {
+            return;
+        }
+        if (granularity == RollupGranularity.MINUTE) {
+            segments.add(new RollupSegment(granularity, from, to));
+            return;
+        }
+
+        final RollupGranularity finer = RollupGranularity.values()[granularity.ordinal() - 1];
+        final LocalDateTime alignedFrom = granularity.ceil(from);
+        final LocalDateTime alignedTo = granularity.floor(to);
+
+        if (!alignedFrom.isBefore(alignedTo)) {
+            split(from, to, finer, segments);
+            return;
+        }
+
+        split(from, alignedFrom, finer, segments);
+        segments.add(new RollupSegment(granularity, alignedFrom, alignedTo));
+        split(alignedTo, to, finer, segments);
+    }
+}
@@ -0,0 +1,15 @@
+package ru.practicum.ewm.rollup;
+
+import lombok.Value;
+
+import java.time.LocalDateTime;
+
+/**
+ * Consecutive buckets of one granularity covering [from, to).
+ */
+@Value
+public class RollupSegment {
+    RollupGranularity granularity;
+    LocalDateTime from;
+    LocalDateTime to;
+}
@@ -0,0 +1,19 @@
+package ru.practicum.ewm.rollup;
+
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+/**
+ * Upsert flavour of the underlying database. PostgreSQL before 15 has no MERGE,
+ * everything else we run on speaks standard SQL.
+ */
+public enum SqlDialect {
+    POSTGRESQL,
+    STANDARD;
+
+    public static SqlDialect detect(JdbcTemplate jdbcTemplate) {
+        final String product = jdbcTemplate.execute(
+                (ConnectionCallback<String>) connection -> connection.getMetaData().getDatabaseProductName());
+        return "PostgreSQL".equalsIgnoreCase(product) ? POSTGRESQL : STANDARD;
+    }
+}
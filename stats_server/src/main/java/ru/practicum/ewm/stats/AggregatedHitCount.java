@@ -0,0 +1,10 @@
+package ru.practicum.ewm.stats;
+
+import lombok.Value;
+
+@Value
+public class AggregatedHitCount implements HitCount {
+    String app;
+    String uri;
+    Long hits;
+}
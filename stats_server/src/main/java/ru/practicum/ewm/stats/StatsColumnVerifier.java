@@ -0,0 +1,59 @@
+package ru.practicum.ewm.stats;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.InitializingBean;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import java.sql.DatabaseMetaData;
+import java.sql.ResultSet;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.stream.Collectors;
+
+import static ru.practicum.ewm.stats.StatsIndexVerifier.TABLE;
+import static ru.practicum.ewm.stats.StatsIndexVerifier.tableName;
+
+/**
+ * Refuses to start on a stats table without the dictionary id columns, every hit insert and stats query would
+ * fail on it. schema-postgresql.sql migrates a table created by an older schema; this catches one it could not,
+ * and any database the script does not run on.
+ */
+@Component
+@RequiredArgsConstructor
+public class StatsColumnVerifier implements InitializingBean {
+
+    /**
+     * Dictionary id columns hits are saved to and stats queries read.
+     */
+    static final List<String> REQUIRED_COLUMNS = List.of("app_id", "uri_id");
+
+    private final JdbcTemplate jdbcTemplate;
+
+    @Override
+    public void afterPropertiesSet() {
+        final List<String> missing = findMissingColumns();
+        if (!missing.isEmpty()) {
+            throw new IllegalStateException(String.format("Table %s lacks columns %s, it was created by an older " +
+                    "schema and must be migrated to dictionary ids, see schema-postgresql.sql", TABLE, missing));
+        }
+    }
+
+    List<String> findMissingColumns() {
+        final List<String> columns = jdbcTemplate.execute((ConnectionCallback<List<String>>) connection -> {
+            final DatabaseMetaData metaData = connection.getMetaData();
+            final List<String> found = new ArrayList<>();
+            try (ResultSet rs = metaData.getColumns(connection.getCatalog(), null, tableName(metaData), null)) {
+                while (rs.next()) {
+                    found.add(rs.getString("COLUMN_NAME").toLowerCase(Locale.ROOT));
+                }
+            }
+            return found;
+        });
+        return REQUIRED_COLUMNS.stream()
+                .filter(column -> columns == null || !columns.contains(column))
+                .collect(Collectors.toList());
+    }
+}
@@ -1,15 +1,23 @@
 package ru.practicum.ewm.stats;
 
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 import ru.practicum.ewm.dto.StatsDto;
+import ru.practicum.ewm.rollup.HyperLogLog;
 
 import javax.validation.ValidationException;
+import java.io.IOException;
+import java.io.UncheckedIOException;
 import java.time.LocalDateTime;
 import java.time.format.DateTimeFormatter;
 import java.time.format.DateTimeParseException;
@@ -24,39 +32,90 @@ public class StatsController {
 
     private static final String DT_FORMAT = "yyyy-MM-dd HH:mm:ss";
     private static final DateTimeFormatter DT_FORMATTER = DateTimeFormatter.ofPattern(DT_FORMAT);
+    private static final String RELATIVE_ERROR_HEADER = "X-Stats-Relative-Error";
 
     private final StatsService service;
+    private final ObjectMapper objectMapper;
 
     @GetMapping
-    public List<StatsDto> count(@RequestParam String start,
-                                @RequestParam String end,
-                                @RequestParam(required = false) List<String> uris,
-                                @RequestParam(required = false) Boolean unique) {
+    public ResponseEntity<List<StatsDto>> count(@RequestParam String start,
+                                                @RequestParam String end,
+                                                @RequestParam(required = false) List<String> uris,
+                                                @RequestParam(required = false) Boolean unique,
+                                                @RequestParam(required = false) Boolean approx) {
+        final LocalDateTime startDateTime = parse(start);
+        final LocalDateTime endDateTime = parse(end);
+
+        List<HitCount> result;
+        boolean isUniq = unique != null && unique;
+        boolean isApprox = isUniq && approx != null && approx;
+
+        if (isApprox) {
+            result = service.countHitsUniqApprox(startDateTime, endDateTime, uris);
+        } else if (isUniq) {
+            result = uris == null
+                    ? service.countHitsUniq(startDateTime, endDateTime)
+                    : service.countHitsUniq(startDateTime, endDateTime, uris);
+        } else {
+            result = uris == null
+                    ? service.countHits(startDateTime, endDateTime)
+                    : service.countHits(startDateTime, endDateTime, uris);
+        }
+
+        final List<StatsDto> stats = result.stream()
+                .map(StatsController::toStatsDto)
+                .collect(Collectors.toList());
+
+        log.info("Query: start={}, end={}, uris={}, unique={}, approx={}", start, end, uris, unique, approx);
+        log.debug("Stats: {} rows", stats.size());
+
+        final ResponseEntity.BodyBuilder response = ResponseEntity.ok();
+        if (isApprox) {
+            response.header(RELATIVE_ERROR_HEADER, String.valueOf(HyperLogLog.RELATIVE_ERROR));
+        }
+        return response.body(stats);
+    }
+
+    /**
+     * Writes each count to the response as soon as it is read from the database, so memory use does not
+     * depend on the number of rows. Counts are always exact and read from the raw hits.
+     */
+    @GetMapping(params = "stream=true")
+    public ResponseEntity<StreamingResponseBody> countStream(@RequestParam String start,
+                                                             @RequestParam String end,
+                                                             @RequestParam(required = false) List<String> uris,
+                                                             @RequestParam(required = false) Boolean unique,
+                                                             @RequestParam(required = false) Boolean approx) {
+        if (approx != null && approx) {
+            throw new ValidationException("approx is not supported together with stream");
+        }
+        final LocalDateTime startDateTime = parse(start);
+        final LocalDateTime endDateTime = parse(end);
+        final boolean isUniq = unique != null && unique;
+
+        log.info("Query: start={}, end={}, uris={}, unique={}, stream=true", start, end, uris, unique);
+
+        final StreamingResponseBody body = outputStream -> {
+            final JsonGenerator generator = objectMapper.getFactory().createGenerator(outputStream);
+            generator.writeStartArray();
+            service.forEachHitCount(startDateTime, endDateTime, uris, isUniq, hitCount -> {
+                try {
+                    generator.writeObject(toStatsDto(hitCount));
+                } catch (IOException exc) {
+                    throw new UncheckedIOException(exc);
+                }
+            });
+            generator.writeEndArray();
+            generator.flush();
+        };
+        return ResponseEntity.ok()
+                .contentType(MediaType.APPLICATION_JSON)
+                .body(body);
+    }
+
+    private static LocalDateTime parse(String dateTime) {
         try {
-            final LocalDateTime startDateTime = LocalDateTime.parse(start, DT_FORMATTER);
-            final LocalDateTime endDateTime = LocalDateTime.parse(end, DT_FORMATTER);
-
-            List<HitCount> result;
-            boolean isUniq = unique != null && unique;
-
-            if (isUniq) {
-                result = uris == null
-                        ? service.countHitsUniq(startDateTime, endDateTime)
-                        : service.countHitsUniq(startDateTime, endDateTime, uris);
-            } else {
-                result = uris == null
-                        ? service.countHits(startDateTime, endDateTime)
-                        : service.countHits(startDateTime, endDateTime, uris);
-            }
-
-            final List<StatsDto> stats = result.stream()
-                    .map(StatsController::toStatsDto)
-                    .collect(Collectors.toList());
-
-            log.info("Query: start={}, end={}, uris={}, unique={}", start, end, uris, unique);
-            log.info("Stats: {}", stats);
-
-            return stats;
+            return LocalDateTime.parse(dateTime, DT_FORMATTER);
         } catch (final DateTimeParseException exc) {
             throw new ValidationException(exc.getMessage(), exc);
         }
@@ -0,0 +1,98 @@
+package ru.practicum.ewm.stats;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import java.sql.DatabaseMetaData;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.stream.Collectors;
+
+/**
+ * Reports at startup indexes of the stats table that {@link StatsRepository} queries rely on but the database lacks,
+ * e.g. when the table was created by an older schema.sql. Only column prefixes are checked, not index types.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+@ConditionalOnProperty(name = "stats.index-check.enabled", havingValue = "true", matchIfMissing = true)
+public class StatsIndexVerifier implements ApplicationRunner {
+
+    static final String TABLE = "stats";
+
+    /**
+     * Leading columns of the required indexes: uri filtered range queries and range only queries.
+     */
+    static final List<List<String>> REQUIRED_INDEXES = List.of(
+            List.of("uri_id", "timestamp"),
+            List.of("timestamp")
+    );
+
+    private final JdbcTemplate jdbcTemplate;
+
+    @Override
+    public void run(ApplicationArguments args) {
+        final List<List<String>> missing = findMissingIndexes();
+        if (missing.isEmpty()) {
+            log.info("All indexes required by stats queries are present on table {}", TABLE);
+        } else {
+            log.warn("Table {} lacks indexes on {}, stats queries will scan the table", TABLE, missing);
+        }
+    }
+
+    List<List<String>> findMissingIndexes() {
+        final List<List<String>> indexes = findIndexes();
+        return REQUIRED_INDEXES.stream()
+                .filter(required -> indexes.stream().noneMatch(index -> startsWith(index, required)))
+                .collect(Collectors.toList());
+    }
+
+    /**
+     * Key columns of every index of the table in index order, lower-cased.
+     */
+    private List<List<String>> findIndexes() {
+        final Map<String, TreeMap<Short, String>> columnsByIndex = jdbcTemplate.execute(
+                (ConnectionCallback<Map<String, TreeMap<Short, String>>>) connection -> {
+                    final DatabaseMetaData metaData = connection.getMetaData();
+                    final String table = tableName(metaData);
+                    final Map<String, TreeMap<Short, String>> columns = new HashMap<>();
+                    try (ResultSet rs = metaData.getIndexInfo(connection.getCatalog(), null, table, false, true)) {
+                        while (rs.next()) {
+                            final String index = rs.getString("INDEX_NAME");
+                            final String column = rs.getString("COLUMN_NAME");
+                            if (index != null && column != null) {
+                                columns.computeIfAbsent(index, k -> new TreeMap<>())
+                                        .put(rs.getShort("ORDINAL_POSITION"), column.toLowerCase(Locale.ROOT));
+                            }
+                        }
+                    }
+                    return columns;
+                });
+
+        final List<List<String>> indexes = new ArrayList<>();
+        if (columnsByIndex != null) {
+            columnsByIndex.values().forEach(columns -> indexes.add(new ArrayList<>(columns.values())));
+        }
+        return indexes;
+    }
+
+    static String tableName(DatabaseMetaData metaData) throws SQLException {
+        return metaData.storesUpperCaseIdentifiers() ? TABLE.toUpperCase(Locale.ROOT) : TABLE;
+    }
+
+    private static boolean startsWith(List<String> index, List<String> prefix) {
+        return index.size() >= prefix.size() && index.subList(0, prefix.size()).equals(prefix);
+    }
+}
@@ -2,38 +2,112 @@ package ru.practicum.ewm.stats;
 
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import ru.practicum.ewm.hit.Hit;
 
+import javax.persistence.QueryHint;
 import java.time.LocalDateTime;
 import java.util.List;
+import java.util.stream.Stream;
+
+import static org.hibernate.jpa.QueryHints.HINT_FETCH_SIZE;
+import static org.hibernate.jpa.QueryHints.HINT_READONLY;
 
 public interface StatsRepository extends JpaRepository<Hit, Long> {
 
-    @Query("SELECT h.app AS app, h.uri AS uri, COUNT(*) AS hits " +
-            "FROM Hit AS h " +
+    /**
+     * Hits store dictionary ids, names are joined from the small dictionary tables. Uri filters take
+     * the ids of the uris, so that the (uri_id, timestamp) index drives the scan.
+     */
+    String HITS_WITH_NAMES = "FROM Hit AS h " +
+            "JOIN StatsApp AS a ON a.id = h.appId " +
+            "JOIN StatsUri AS u ON u.id = h.uriId ";
+
+    /**
+     * Rows fetched per round trip by the stream queries, which must be consumed inside a transaction.
+     */
+    String STREAM_FETCH_SIZE = "1000";
+
+    @Query("SELECT a.name AS app, u.uri AS uri, COUNT(*) AS hits " +
+            HITS_WITH_NAMES +
             "WHERE (h.timestamp BETWEEN ?1 AND ?2) " +
-            "GROUP BY h.app, h.uri " +
+            "GROUP BY a.name, u.uri " +
             "ORDER BY hits DESC")
     List<HitCount> countHits(LocalDateTime start, LocalDateTime end);
 
-    @Query("SELECT h.app AS app, h.uri AS uri, COUNT(*) AS hits " +
-            "FROM Hit AS h " +
-            "WHERE (h.timestamp BETWEEN ?1 AND ?2) AND h.uri in ?3 " +
-            "GROUP BY h.app, h.uri " +
+    @Query("SELECT a.name AS app, u.uri AS uri, COUNT(*) AS hits " +
+            HITS_WITH_NAMES +
+            "WHERE (h.timestamp BETWEEN ?1 AND ?2) AND h.uriId IN ?3 " +
+            "GROUP BY a.name, u.uri " +
             "ORDER BY hits DESC")
-    List<HitCount> countHits(LocalDateTime start, LocalDateTime end, List<String> uris);
+    List<HitCount> countHits(LocalDateTime start, LocalDateTime end, List<Integer> uriIds);
 
-    @Query("SELECT h.app AS app, h.uri AS uri, COUNT(DISTINCT h.ip) AS hits " +
-            "FROM Hit AS h " +
+    @Query("SELECT a.name AS app, u.uri AS uri, COUNT(DISTINCT h.ip) AS hits " +
+            HITS_WITH_NAMES +
             "WHERE (h.timestamp BETWEEN ?1 AND ?2) " +
-            "GROUP BY h.app, h.uri " +
+            "GROUP BY a.name, u.uri " +
             "ORDER BY hits DESC")
     List<HitCount> countHitsUniq(LocalDateTime start, LocalDateTime end);
 
-    @Query("SELECT h.app AS app, h.uri AS uri, COUNT(DISTINCT h.ip) AS hits " +
-            "FROM Hit AS h " +
-            "WHERE (h.timestamp BETWEEN ?1 AND ?2) AND h.uri in ?3 " +
-            "GROUP BY h.app, h.uri " +
+    @Query("SELECT a.name AS app, u.uri AS uri, COUNT(DISTINCT h.ip) AS hits " +
+            HITS_WITH_NAMES +
+            "WHERE (h.timestamp BETWEEN ?1 AND ?2) AND h.uriId IN ?3 " +
+            "GROUP BY a.name, u.uri " +
+            "ORDER BY hits DESC")
+    List<HitCount> countHitsUniq(LocalDateTime start, LocalDateTime end, List<Integer> uriIds);
+
+    @Query("SELECT a.name AS app, u.uri AS uri, COUNT(*) AS hits " +
+            HITS_WITH_NAMES +
+            "WHERE (h.timestamp BETWEEN ?1 AND ?2) " +
+            "GROUP BY a.name, u.uri " +
+            "ORDER BY hits DESC")
+    @QueryHints({
+            @QueryHint(name = HINT_FETCH_SIZE, value = STREAM_FETCH_SIZE),
+            @QueryHint(name = HINT_READONLY, value = "true")})
+    Stream<HitCount> streamHits(LocalDateTime start, LocalDateTime end);
+
+    @Query("SELECT a.name AS app, u.uri AS uri, COUNT(*) AS hits " +
+            HITS_WITH_NAMES +
+            "WHERE (h.timestamp BETWEEN ?1 AND ?2) AND h.uriId IN ?3 " +
+            "GROUP BY a.name, u.uri " +
             "ORDER BY hits DESC")
-    List<HitCount> countHitsUniq(LocalDateTime start, LocalDateTime end, List<String> uris);
+    @QueryHints({
+            @QueryHint(name = HINT_FETCH_SIZE, value = STREAM_FETCH_SIZE),
+            @QueryHint(name = HINT_READONLY, value = "true")})
+    Stream<HitCount> streamHits(LocalDateTime start, LocalDateTime end, List<Integer> uriIds);
+
+    @Query("SELECT a.name AS app, u.uri AS uri, COUNT(DISTINCT h.ip) AS hits " +
+            HITS_WITH_NAMES +
+            "WHERE (h.timestamp BETWEEN ?1 AND ?2) " +
+            "GROUP BY a.name, u.uri " +
+            "ORDER BY hits DESC")
+    @QueryHints({
+            @QueryHint(name = HINT_FETCH_SIZE, value = STREAM_FETCH_SIZE),
+            @QueryHint(name = HINT_READONLY, value = "true")})
+    Stream<HitCount> streamHitsUniq(LocalDateTime start, LocalDateTime end);
+
+    @Query("SELECT a.name AS app, u.uri AS uri, COUNT(DISTINCT h.ip) AS hits " +
+            HITS_WITH_NAMES +
+            "WHERE (h.timestamp BETWEEN ?1 AND ?2) AND h.uriId IN ?3 " +
+            "GROUP BY a.name, u.uri " +
+            "ORDER BY hits DESC")
+    @QueryHints({
+            @QueryHint(name = HINT_FETCH_SIZE, value = STREAM_FETCH_SIZE),
+            @QueryHint(name = HINT_READONLY, value = "true")})
+    Stream<HitCount> streamHitsUniq(LocalDateTime start, LocalDateTime end, List<Integer> uriIds);
+
+    @Query("SELECT a.name AS app, u.uri AS uri, COUNT(*) AS hits " +
+            HITS_WITH_NAMES +
+            "WHERE ((h.timestamp >= ?1 AND h.timestamp < ?2) OR (h.timestamp >= ?3 AND h.timestamp <= ?4)) " +
+            "GROUP BY a.name, u.uri")
+    List<HitCount> countEdgeHits(LocalDateTime start, LocalDateTime bucketsFrom,
+                                 LocalDateTime bucketsTo, LocalDateTime end);
+
+    @Query("SELECT a.name AS app, u.uri AS uri, COUNT(*) AS hits " +
+            HITS_WITH_NAMES +
+            "WHERE ((h.timestamp >= ?1 AND h.timestamp < ?2) OR (h.timestamp >= ?3 AND h.timestamp <= ?4)) " +
+            "AND h.uriId IN ?5 " +
+            "GROUP BY a.name, u.uri")
+    List<HitCount> countEdgeHits(LocalDateTime start, LocalDateTime bucketsFrom,
+                                 LocalDateTime bucketsTo, LocalDateTime end, List<Integer> uriIds);
 }
@@ -1,7 +1,10 @@
 package ru.practicum.ewm.stats;
 
+import org.springframework.lang.Nullable;
+
 import java.time.LocalDateTime;
 import java.util.List;
+import java.util.function.Consumer;
 
 public interface StatsService {
 
@@ -12,4 +15,20 @@ public interface StatsService {
     List<HitCount> countHitsUniq(LocalDateTime start, LocalDateTime end);
 
     List<HitCount> countHitsUniq(LocalDateTime start, LocalDateTime end, List<String> uris);
+
+    /**
+     * Estimates unique visitors from hourly HyperLogLog sketches,
+     * with a relative error of about {@link ru.practicum.ewm.rollup.HyperLogLog#RELATIVE_ERROR}.
+     */
+    List<HitCount> countHitsUniqApprox(LocalDateTime start, LocalDateTime end, @Nullable List<String> uris);
+
+    /**
+     * Passes the counts to the action one by one as they are read from the stats table,
+     * without holding the whole result in memory. Always reads the raw hits.
+     */
+    void forEachHitCount(LocalDateTime start,
+                         LocalDateTime end,
+                         @Nullable List<String> uris,
+                         boolean unique,
+                         Consumer<HitCount> action);
 }
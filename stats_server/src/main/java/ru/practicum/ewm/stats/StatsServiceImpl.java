@@ -1,30 +1,160 @@
 package ru.practicum.ewm.stats;
 
-import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.lang.Nullable;
+import ru.practicum.ewm.dictionary.StatsDictionary;
+import ru.practicum.ewm.hot.HotWindow;
+import ru.practicum.ewm.rollup.AppUri;
+import ru.practicum.ewm.rollup.HitRollupRepository;
+import ru.practicum.ewm.rollup.HitSketchRepository;
+import ru.practicum.ewm.rollup.HyperLogLog;
+import ru.practicum.ewm.rollup.RollupGranularity;
+import ru.practicum.ewm.rollup.RollupPlan;
 
 import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.function.Consumer;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
 @Service
-@RequiredArgsConstructor
 public class StatsServiceImpl implements StatsService {
 
     private final StatsRepository repository;
+    private final HitRollupRepository rollupRepository;
+    private final HitSketchRepository sketchRepository;
+    private final HotWindow hotWindow;
+    private final StatsDictionary dictionary;
+    private final boolean rollupEnabled;
+    private final boolean sketchEnabled;
 
+    public StatsServiceImpl(StatsRepository repository,
+                            HitRollupRepository rollupRepository,
+                            HitSketchRepository sketchRepository,
+                            HotWindow hotWindow,
+                            StatsDictionary dictionary,
+                            @Value("${stats.rollup.enabled:true}") boolean rollupEnabled,
+                            @Value("${stats.sketch.enabled:false}") boolean sketchEnabled) {
+        this.repository = repository;
+        this.rollupRepository = rollupRepository;
+        this.sketchRepository = sketchRepository;
+        this.hotWindow = hotWindow;
+        this.dictionary = dictionary;
+        this.rollupEnabled = rollupEnabled;
+        this.sketchEnabled = sketchEnabled;
+    }
+
+    @Transactional(readOnly = true)
     public List<HitCount> countHits(LocalDateTime start, LocalDateTime end) {
-        return repository.countHits(start, end);
+        if (hotWindow.covers(start, end)) {
+            return hotWindow.countHits(start, end, null, false);
+        }
+        final RollupPlan plan = RollupPlan.of(start, end);
+        if (!rollupEnabled || !plan.hasSegments()) {
+            return repository.countHits(start, end);
+        }
+        return merge(
+                rollupRepository.sumHits(plan.getSegments(), null),
+                repository.countEdgeHits(start, plan.getBucketsFrom(), plan.getBucketsTo(), end));
     }
 
+    @Transactional(readOnly = true)
     public List<HitCount> countHits(LocalDateTime start, LocalDateTime end, List<String> uris) {
-        return repository.countHits(start, end, uris);
+        if (hotWindow.covers(start, end)) {
+            return hotWindow.countHits(start, end, uris, false);
+        }
+        final List<Integer> uriIds = dictionary.findUriIds(uris);
+        if (uriIds.isEmpty()) {
+            return List.of();
+        }
+        final RollupPlan plan = RollupPlan.of(start, end);
+        if (!rollupEnabled || !plan.hasSegments()) {
+            return repository.countHits(start, end, uriIds);
+        }
+        return merge(
+                rollupRepository.sumHits(plan.getSegments(), uris),
+                repository.countEdgeHits(start, plan.getBucketsFrom(), plan.getBucketsTo(), end, uriIds));
     }
 
     public List<HitCount> countHitsUniq(LocalDateTime start, LocalDateTime end) {
+        if (hotWindow.covers(start, end)) {
+            return hotWindow.countHits(start, end, null, true);
+        }
         return repository.countHitsUniq(start, end);
     }
 
     public List<HitCount> countHitsUniq(LocalDateTime start, LocalDateTime end, List<String> uris) {
-        return repository.countHitsUniq(start, end, uris);
+        if (hotWindow.covers(start, end)) {
+            return hotWindow.countHits(start, end, uris, true);
+        }
+        final List<Integer> uriIds = dictionary.findUriIds(uris);
+        if (uriIds.isEmpty()) {
+            return List.of();
+        }
+        return repository.countHitsUniq(start, end, uriIds);
+    }
+
+    @Transactional(readOnly = true)
+    public List<HitCount> countHitsUniqApprox(LocalDateTime start, LocalDateTime end, @Nullable List<String> uris) {
+        if (hotWindow.covers(start, end)) {
+            return hotWindow.countHits(start, end, uris, true);
+        }
+        final RollupGranularity granularity = sketchRepository.getGranularity();
+        final LocalDateTime sketchesFrom = granularity.ceil(start);
+        final LocalDateTime sketchesTo = granularity.floor(end);
+
+        if (!sketchEnabled || !sketchesFrom.isBefore(sketchesTo)) {
+            return uris == null ? countHitsUniq(start, end) : countHitsUniq(start, end, uris);
+        }
+
+        final Map<AppUri, HyperLogLog> sketches = sketchRepository.mergeSketches(sketchesFrom, sketchesTo, uris);
+        sketchRepository.offerEdgeIps(start, sketchesFrom, sketchesTo, end, uris, sketches);
+
+        return sketches.entrySet().stream()
+                .<HitCount>map(e -> new AggregatedHitCount(
+                        e.getKey().getApp(), e.getKey().getUri(), e.getValue().cardinality()))
+                .sorted(Comparator.comparing(HitCount::getHits).reversed())
+                .collect(Collectors.toList());
+    }
+
+    @Transactional(readOnly = true)
+    public void forEachHitCount(LocalDateTime start,
+                                LocalDateTime end,
+                                @Nullable List<String> uris,
+                                boolean unique,
+                                Consumer<HitCount> action) {
+        try (Stream<HitCount> counts = streamHits(start, end, uris, unique)) {
+            counts.forEach(action);
+        }
+    }
+
+    private Stream<HitCount> streamHits(LocalDateTime start, LocalDateTime end, @Nullable List<String> uris, boolean unique) {
+        if (uris == null) {
+            return unique ? repository.streamHitsUniq(start, end) : repository.streamHits(start, end);
+        }
+        final List<Integer> uriIds = dictionary.findUriIds(uris);
+        if (uriIds.isEmpty()) {
+            return Stream.empty();
+        }
+        return unique ? repository.streamHitsUniq(start, end, uriIds) : repository.streamHits(start, end, uriIds);
+    }
+
+    private static List<HitCount> merge(List<HitCount> buckets, List<HitCount> edges) {
+        final Map<List<String>, Long> totals = new LinkedHashMap<>();
+        final List<HitCount> all = new ArrayList<>(buckets);
+        all.addAll(edges);
+        for (final HitCount count : all) {
+            totals.merge(List.of(count.getApp(), count.getUri()), count.getHits(), Long::sum);
+        }
+        return totals.entrySet().stream()
+                .<HitCount>map(e -> new AggregatedHitCount(e.getKey().get(0), e.getKey().get(1), e.getValue()))
+                .sorted(Comparator.comparing(HitCount::getHits).reversed())
+                .collect(Collectors.toList());
     }
 }
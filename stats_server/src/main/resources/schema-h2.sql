@@ -0,0 +1,13 @@
+-- raw hits, partitioned by time on PostgreSQL, see schema-postgresql.sql
+CREATE TABLE IF NOT EXISTS stats
+(
+  id BIGINT GENERATED ALWAYS AS IDENTITY PRIMARY KEY,
+  app_id INTEGER NOT NULL REFERENCES stats_apps (id),
+  uri_id INTEGER NOT NULL REFERENCES stats_uris (id),
+  ip varchar(64),
+  timestamp TIMESTAMP WITHOUT TIME ZONE NOT NULL
+);
+
+CREATE INDEX IF NOT EXISTS stats_uri_timestamp_idx ON stats (uri_id, timestamp);
+
+CREATE INDEX IF NOT EXISTS stats_timestamp_idx ON stats (timestamp);
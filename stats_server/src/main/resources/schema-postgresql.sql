@@ -0,0 +1,55 @@
+-- Raw hits, range partitioned by timestamp. Partitions are named stats_p<yyyyMM> or stats_p<yyyyMMdd>
+-- and created ahead, and dropped after retention, by StatsPartitionManager. Rows outside of all of them
+-- land in stats_default. A partitioned table can't have an identity column before PostgreSQL 17,
+-- and its primary key must include the partition key.
+CREATE SEQUENCE IF NOT EXISTS stats_id_seq;
+
+CREATE TABLE IF NOT EXISTS stats
+(
+  id BIGINT NOT NULL DEFAULT nextval('stats_id_seq'),
+  app_id INTEGER NOT NULL REFERENCES stats_apps (id),
+  uri_id INTEGER NOT NULL REFERENCES stats_uris (id),
+  ip varchar(64),
+  timestamp TIMESTAMP WITHOUT TIME ZONE NOT NULL,
+  PRIMARY KEY (id, timestamp)
+) PARTITION BY RANGE (timestamp);
+
+ALTER SEQUENCE stats_id_seq OWNED BY stats.id;
+
+-- A stats table created by an older schema stores app and uri names. They are moved into the dictionaries
+-- and replaced by ids once, in one transaction. The block is quoted with single quotes rather than $$,
+-- so the script splitter keeps its statements together.
+DO '
+BEGIN
+  IF EXISTS (SELECT 1 FROM information_schema.columns
+      WHERE table_schema = current_schema() AND table_name = ''stats'' AND column_name = ''uri'') THEN
+    INSERT INTO stats_apps (name) SELECT DISTINCT app FROM stats ON CONFLICT DO NOTHING;
+    INSERT INTO stats_uris (uri) SELECT DISTINCT uri FROM stats ON CONFLICT DO NOTHING;
+    ALTER TABLE stats
+      ADD COLUMN IF NOT EXISTS app_id INTEGER REFERENCES stats_apps (id),
+      ADD COLUMN IF NOT EXISTS uri_id INTEGER REFERENCES stats_uris (id);
+    UPDATE stats AS s SET app_id = a.id, uri_id = u.id
+      FROM stats_apps AS a, stats_uris AS u
+      WHERE a.name = s.app AND u.uri = s.uri;
+    ALTER TABLE stats
+      ALTER COLUMN app_id SET NOT NULL,
+      ALTER COLUMN uri_id SET NOT NULL,
+      DROP COLUMN app,
+      DROP COLUMN uri;
+  END IF;
+END';
+
+-- A stats table created by an older schema is not partitioned and is left as it is.
+DO '
+BEGIN
+  IF EXISTS (SELECT 1 FROM pg_partitioned_table WHERE partrelid = to_regclass(''stats'')) THEN
+    CREATE TABLE IF NOT EXISTS stats_default PARTITION OF stats DEFAULT;
+  END IF;
+END';
+
+-- Stats queries filter on uri_id and a time range and group by (app_id, uri_id): the covering index answers
+-- them from the index alone, counting distinct ip included. Hits are appended in time order,
+-- so a BRIN index serves range scans without uri at a fraction of a btree's size.
+CREATE INDEX IF NOT EXISTS stats_uri_timestamp_idx ON stats (uri_id, timestamp) INCLUDE (app_id, ip);
+
+CREATE INDEX IF NOT EXISTS stats_timestamp_idx ON stats USING BRIN (timestamp);
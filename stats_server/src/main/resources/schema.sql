@@ -1,8 +1,41 @@
-CREATE TABLE IF NOT EXISTS stats
+-- Dictionaries of the few apps and bounded set of uris, the stats table stores their ids
+CREATE TABLE IF NOT EXISTS stats_apps
 (
-  id BIGINT GENERATED ALWAYS AS IDENTITY PRIMARY KEY,
+  id INTEGER GENERATED ALWAYS AS IDENTITY PRIMARY KEY,
+  name varchar(255) NOT NULL,
+  CONSTRAINT uniq_stats_app_name UNIQUE (name)
+);
+
+CREATE TABLE IF NOT EXISTS stats_uris
+(
+  id INTEGER GENERATED ALWAYS AS IDENTITY PRIMARY KEY,
+  uri varchar(64) NOT NULL,
+  CONSTRAINT uniq_stats_uri UNIQUE (uri)
+);
+
+CREATE TABLE IF NOT EXISTS stats_rollup
+(
+  granularity varchar(8) NOT NULL,
+  bucket_start TIMESTAMP WITHOUT TIME ZONE NOT NULL,
   app varchar(255) NOT NULL,
   uri varchar(64) NOT NULL,
-  ip varchar(64),
-  timestamp TIMESTAMP WITHOUT TIME ZONE NOT NULL
+  hits BIGINT NOT NULL,
+  PRIMARY KEY (granularity, bucket_start, app, uri)
+);
+
+CREATE TABLE IF NOT EXISTS stats_ip_sketch
+(
+  bucket_start TIMESTAMP WITHOUT TIME ZONE NOT NULL,
+  app varchar(255) NOT NULL,
+  uri varchar(64) NOT NULL,
+  registers BYTEA NOT NULL,
+  PRIMARY KEY (bucket_start, app, uri)
+);
+
+-- Last raw hit included in an aggregate table that is turned off; the hits after it are added
+-- when the table is turned on again, see HitRollupInitializer
+CREATE TABLE IF NOT EXISTS stats_aggregate_mark
+(
+  aggregate varchar(16) PRIMARY KEY,
+  last_hit_id BIGINT NOT NULL
 );
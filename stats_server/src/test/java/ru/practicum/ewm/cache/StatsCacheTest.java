@@ -0,0 +1,139 @@
+package ru.practicum.ewm.cache;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import ru.practicum.ewm.hit.Hit;
+import ru.practicum.ewm.stats.AggregatedHitCount;
+import ru.practicum.ewm.stats.HitCount;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.contains;
+import static org.hamcrest.Matchers.is;
+import static ru.practicum.ewm.hit.HitTestUtils.getDefaultHit;
+
+class StatsCacheTest {
+
+    private static final LocalDateTime START = LocalDateTime.of(2022, 9, 1, 0, 0, 0);
+    private static final String APP = "ewm-main-service";
+    private static final String URI_1 = "/events/1";
+    private static final String URI_2 = "/events/2";
+
+    private SimpleMeterRegistry registry;
+    private StatsCache cache;
+    private AtomicInteger loads;
+
+    @BeforeEach
+    void setUp() {
+        registry = new SimpleMeterRegistry();
+        cache = new StatsCache(registry, true, 100, 60000, 5000);
+        loads = new AtomicInteger();
+    }
+
+    @Test
+    void get_openEndQueries_shareEntry() {
+        cache.get(START, LocalDateTime.now(), List.of(URI_2, URI_1), false, false, loader(count(URI_1, 1L)));
+        cache.get(START, LocalDateTime.now().plusSeconds(1), List.of(URI_1, URI_2), false, false,
+                loader(count(URI_1, 1L)));
+
+        assertThat(loads.get(), is(1));
+        assertThat(registry.get("cache.gets").tag("cache", "stats.results").tag("result", "hit")
+                .functionCounter().count(), is(1.0));
+        assertThat(registry.get("stats.cache.age").timer().count(), is(1L));
+    }
+
+    @Test
+    void record_patchesHitCounts() {
+        cache.get(START, LocalDateTime.now(), List.of(URI_1, URI_2), false, false,
+                loader(count(URI_1, 2L), count(URI_2, 1L)));
+
+        cache.record(List.of(hit(URI_2, LocalDateTime.now()), hit(URI_2, LocalDateTime.now()),
+                hit("/events/3", LocalDateTime.now()), hit(URI_1, START.minusDays(1))));
+        List<HitCount> result = cache.get(START, LocalDateTime.now(), List.of(URI_1, URI_2), false, false,
+                loader());
+
+        assertThat(loads.get(), is(1));
+        assertThat(result, contains(count(URI_2, 3L), count(URI_1, 2L)));
+        assertThat(registry.get("stats.cache.patched").counter().count(), is(2.0));
+    }
+
+    @Test
+    void record_invalidatesUniqueCounts() {
+        cache.get(START, LocalDateTime.now(), List.of(URI_1), true, false, loader(count(URI_1, 1L)));
+
+        cache.record(List.of(hit(URI_1, LocalDateTime.now())));
+        List<HitCount> result = cache.get(START, LocalDateTime.now(), List.of(URI_1), true, false,
+                loader(count(URI_1, 2L)));
+
+        assertThat(loads.get(), is(2));
+        assertThat(result, contains(count(URI_1, 2L)));
+        assertThat(registry.get("stats.cache.invalidated").counter().count(), is(1.0));
+    }
+
+    @Test
+    void record_otherUri_leavesQueryUntouched() {
+        cache.get(START, LocalDateTime.now(), List.of(URI_1), true, false, loader(count(URI_1, 1L)));
+
+        cache.record(List.of(hit(URI_2, LocalDateTime.now())));
+        cache.get(START, LocalDateTime.now(), List.of(URI_1), true, false, loader());
+
+        assertThat(loads.get(), is(1));
+        assertThat(registry.get("stats.cache.invalidated").counter().count(), is(0.0));
+    }
+
+    @Test
+    void record_invalidatedQueries_unindexed() {
+        cache.get(START, LocalDateTime.now(), List.of(URI_1, URI_2), true, false, loader(count(URI_1, 1L)));
+        cache.get(START, LocalDateTime.now(), null, true, false, loader(count(URI_1, 1L)));
+        assertThat(cache.indexedQueries(), is(2));
+
+        cache.record(List.of(hit(URI_1, LocalDateTime.now())));
+
+        assertThat(cache.indexedQueries(), is(0));
+    }
+
+    @Test
+    void record_hitAfterClosedEnd_ignored() {
+        LocalDateTime end = START.plusDays(1);
+        cache.get(START, end, null, false, false, loader(count(URI_1, 1L)));
+
+        cache.record(List.of(hit(URI_1, end.plusSeconds(1))));
+        List<HitCount> result = cache.get(START, end, null, false, false, loader());
+
+        assertThat(result, contains(count(URI_1, 1L)));
+    }
+
+    @Test
+    void get_disabled_alwaysLoads() {
+        cache = new StatsCache(registry, false, 100, 60000, 5000);
+
+        cache.get(START, LocalDateTime.now(), null, false, false, loader());
+        cache.get(START, LocalDateTime.now(), null, false, false, loader());
+
+        assertThat(loads.get(), is(2));
+    }
+
+    private Supplier<List<HitCount>> loader(HitCount... counts) {
+        return () -> {
+            loads.incrementAndGet();
+            return List.of(counts);
+        };
+    }
+
+    private static HitCount count(String uri, long hits) {
+        return new AggregatedHitCount(APP, uri, hits);
+    }
+
+    private static Hit hit(String uri, LocalDateTime timestamp) {
+        return getDefaultHit().toBuilder()
+                .app(APP)
+                .uri(uri)
+                .timestamp(timestamp)
+                .build();
+    }
+}
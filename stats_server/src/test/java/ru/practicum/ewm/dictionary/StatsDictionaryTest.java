@@ -0,0 +1,51 @@
+package ru.practicum.ewm.dictionary;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import ru.practicum.ewm.hit.Hit;
+
+import java.util.List;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.contains;
+import static org.hamcrest.Matchers.empty;
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.not;
+import static ru.practicum.ewm.hit.HitTestUtils.getDefaultHit;
+
+@DataJpaTest
+@Import(StatsDictionary.class)
+class StatsDictionaryTest {
+
+    @Autowired
+    private StatsDictionary dictionary;
+
+    @Test
+    void encode_decodesBack() {
+        Hit hit = getDefaultHit();
+
+        Hit result = dictionary.encode(hit);
+
+        assertThat(dictionary.app(result.getAppId()), is(hit.getApp()));
+        assertThat(dictionary.uri(result.getUriId()), is(hit.getUri()));
+    }
+
+    @Test
+    void encode_sameValueSameId() {
+        Hit first = dictionary.encode(getDefaultHit());
+        Hit second = dictionary.encode(getDefaultHit().toBuilder().uri("/events/other").build());
+
+        assertThat(second.getAppId(), is(first.getAppId()));
+        assertThat(second.getUriId(), is(not(first.getUriId())));
+    }
+
+    @Test
+    void findUriIds_skipsUnknownUris() {
+        int uriId = dictionary.uriId("/events/1");
+
+        assertThat(dictionary.findUriIds(List.of("/events/1", "/events/unknown")), contains(uriId));
+        assertThat(dictionary.findUriIds(List.of("/events/unknown")), is(empty()));
+    }
+}
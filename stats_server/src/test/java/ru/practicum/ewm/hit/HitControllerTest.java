@@ -14,11 +14,13 @@ import org.springframework.test.web.servlet.MvcResult;
 import ru.practicum.ewm.dto.HitDto;
 
 import java.nio.charset.StandardCharsets;
+import java.util.List;
 
 import static org.hamcrest.MatcherAssert.assertThat;
 import static org.hamcrest.Matchers.is;
 import static org.hamcrest.Matchers.notNullValue;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
 import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.verifyNoMoreInteractions;
@@ -32,6 +34,7 @@ import static ru.practicum.ewm.hit.HitTestUtils.getDefaultHitDto;
 class HitControllerTest {
 
     private static final String ENDPOINT = "/hit";
+    private static final String BATCH_ENDPOINT = "/hit/batch";
     private static final String VALIDATION_ERROR_CODE = "VALIDATION_ERROR";
 
     @Autowired
@@ -103,4 +106,48 @@ class HitControllerTest {
 
         verifyNoMoreInteractions(hitService);
     }
+
+    @Test
+    void createAll() throws Exception {
+        List<HitDto> hitDtos = List.of(getDefaultHitDto(), getDefaultHitDto());
+
+        when(hitService.addAll(anyList())).thenReturn(hitDtos.size());
+
+        MvcResult result = mockMvc.perform(post(BATCH_ENDPOINT)
+                        .content(mapper.writeValueAsString(hitDtos))
+                        .characterEncoding(StandardCharsets.UTF_8)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .accept(MediaType.APPLICATION_JSON))
+                .andExpect(status().isCreated())
+                .andReturn();
+
+        assertThat(result.getResponse().getContentAsString(), is(""));
+        verify(hitService, times(1))
+                .addAll(anyList());
+        verifyNoMoreInteractions(hitService);
+    }
+
+    @Test
+    void createAll_whenAnyUriIsBlank_return400() throws Exception {
+        List<HitDto> hitDtos = List.of(
+                getDefaultHitDto(),
+                getDefaultHitDto().toBuilder()
+                        .uri("")
+                        .build()
+        );
+
+        MvcResult result = mockMvc.perform(post(BATCH_ENDPOINT)
+                        .content(mapper.writeValueAsString(hitDtos))
+                        .characterEncoding(StandardCharsets.UTF_8)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .accept(MediaType.APPLICATION_JSON))
+                .andExpect(status().isBadRequest())
+                .andReturn();
+
+        String response = result.getResponse().getContentAsString();
+        assertThat(JsonPath.read(response, "$.code"), is(VALIDATION_ERROR_CODE));
+        assertThat(JsonPath.read(response, "$.message"), notNullValue());
+
+        verifyNoMoreInteractions(hitService);
+    }
 }
@@ -4,7 +4,11 @@ import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
 import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.context.annotation.Import;
 import org.springframework.test.context.transaction.AfterTransaction;
+import ru.practicum.ewm.dictionary.StatsDictionary;
+
+import java.util.List;
 
 import static org.hamcrest.CoreMatchers.notNullValue;
 import static org.hamcrest.Matchers.greaterThan;
@@ -14,10 +18,13 @@ import static org.hamcrest.MatcherAssert.assertThat;
 import static ru.practicum.ewm.hit.HitTestUtils.getDefaultHit;
 
 @DataJpaTest
+@Import(StatsDictionary.class)
 public class HitRepositoryTest {
     @Autowired
     private TestEntityManager em;
     @Autowired
+    private StatsDictionary dictionary;
+    @Autowired
     private HitRepository hitRepository;
 
     @AfterTransaction
@@ -27,15 +34,25 @@ public class HitRepositoryTest {
 
     @Test
     void save() {
-        Hit hit = getDefaultHit();
+        Hit hit = dictionary.encode(getDefaultHit());
 
         Hit result = hitRepository.save(hit);
 
         assertThat(result.getId(),  is(notNullValue()));
         assertThat(result.getId(),  greaterThan(0L));
-        assertThat(result.getApp(), is(hit.getApp()));
-        assertThat(result.getUri(), is(hit.getUri()));
+        assertThat(result.getAppId(), is(hit.getAppId()));
+        assertThat(result.getUriId(), is(hit.getUriId()));
         assertThat(result.getIp(), is(hit.getIp()));
         assertThat(result.getTimestamp(), is(hit.getTimestamp()));
     }
+
+    @Test
+    void saveAllInBatch() {
+        List<Hit> hits = dictionary.encode(List.of(getDefaultHit(), getDefaultHit(), getDefaultHit()));
+
+        int result = hitRepository.saveAllInBatch(hits);
+
+        assertThat(result, is(3));
+        assertThat(hitRepository.count(), is(3L));
+    }
 }
@@ -1,10 +1,18 @@
 package ru.practicum.ewm.hit;
 
+import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
-import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
+import ru.practicum.ewm.cache.StatsCache;
+import ru.practicum.ewm.dictionary.StatsDictionary;
+import ru.practicum.ewm.hot.HotWindow;
+import ru.practicum.ewm.rollup.HitRollupRepository;
+import ru.practicum.ewm.rollup.HitSketchRepository;
+
+import java.util.Collections;
+import java.util.List;
 
 import static org.hamcrest.Matchers.is;
 import static org.hamcrest.MatcherAssert.assertThat;
@@ -12,6 +20,7 @@ import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.verifyNoMoreInteractions;
 import static org.mockito.Mockito.when;
+import static ru.practicum.ewm.hit.HitTestUtils.getDefaultEncodedHit;
 import static ru.practicum.ewm.hit.HitTestUtils.getDefaultHit;
 
 @ExtendWith(MockitoExtension.class)
@@ -20,18 +29,62 @@ class HitServiceImplTest {
     @Mock
     private HitRepository hitRepository;
 
-    @InjectMocks
+    @Mock
+    private StatsDictionary dictionary;
+    @Mock
+    private HitRollupRepository rollupRepository;
+    @Mock
+    private HitSketchRepository sketchRepository;
+    @Mock
+    private HotWindow hotWindow;
+    @Mock
+    private StatsCache statsCache;
+
     private HitServiceImpl subject;
 
+    @BeforeEach
+    void setUp() {
+        subject = new HitServiceImpl(hitRepository, dictionary, rollupRepository, sketchRepository, hotWindow,
+                statsCache, true, true);
+    }
+
     @Test
     void add_hitSaved() {
         Hit hit = getDefaultHit();
-        when(hitRepository.save(hit)).thenReturn(hit);
+        Hit encoded = getDefaultEncodedHit();
+        when(dictionary.encode(hit)).thenReturn(encoded);
+        when(hitRepository.save(encoded)).thenReturn(encoded);
 
         Hit result = subject.add(hit);
 
-        assertThat(result, is(hit));
-        verify(hitRepository, times(1)).save(hit);
-        verifyNoMoreInteractions(hitRepository);
+        assertThat(result, is(encoded));
+        verify(hitRepository, times(1)).save(encoded);
+        verify(rollupRepository, times(1)).increment(List.of(encoded));
+        verify(sketchRepository, times(1)).offer(List.of(encoded));
+        verifyNoMoreInteractions(hitRepository, rollupRepository, sketchRepository);
+    }
+
+    @Test
+    void addAll_hitsSavedInBatch() {
+        List<Hit> hits = List.of(getDefaultHit(), getDefaultHit());
+        List<Hit> encoded = List.of(getDefaultEncodedHit(), getDefaultEncodedHit());
+        when(dictionary.encode(hits)).thenReturn(encoded);
+        when(hitRepository.saveAllInBatch(encoded)).thenReturn(hits.size());
+
+        int result = subject.addAll(hits);
+
+        assertThat(result, is(2));
+        verify(hitRepository, times(1)).saveAllInBatch(encoded);
+        verify(rollupRepository, times(1)).increment(hits);
+        verify(sketchRepository, times(1)).offer(hits);
+        verifyNoMoreInteractions(hitRepository, rollupRepository, sketchRepository);
+    }
+
+    @Test
+    void addAll_whenEmpty_nothingSaved() {
+        int result = subject.addAll(Collections.emptyList());
+
+        assertThat(result, is(0));
+        verifyNoMoreInteractions(hitRepository, rollupRepository, sketchRepository);
     }
 }
@@ -11,6 +11,8 @@ public class HitTestUtils {
     public static final String IP_ADDRESS = "192.163.0.1";
     public static final String HIT_TIMESTAMP = "2022-09-06 11:00:23";
     public static final LocalDateTime HIT_DATETIME = LocalDateTime.of(2022, 9, 6, 11, 0, 23);
+    public static final int APP_ID = 1;
+    public static final int URI_ID = 2;
 
     public static Hit getDefaultHit() {
         return Hit.builder()
@@ -21,6 +23,13 @@ public class HitTestUtils {
                 .build();
     }
 
+    public static Hit getDefaultEncodedHit() {
+        return getDefaultHit().toBuilder()
+                .appId(APP_ID)
+                .uriId(URI_ID)
+                .build();
+    }
+
     public static HitDto getDefaultHitDto() {
         return HitDto.builder()
                 .app(APP)
@@ -0,0 +1,142 @@
+package ru.practicum.ewm.hot;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.context.annotation.Import;
+import org.springframework.test.context.TestPropertySource;
+import ru.practicum.ewm.dictionary.StatsDictionary;
+import ru.practicum.ewm.hit.Hit;
+import ru.practicum.ewm.stats.HitCount;
+import ru.practicum.ewm.stats.StatsRepository;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.hasSize;
+import static org.hamcrest.Matchers.is;
+import static ru.practicum.ewm.hit.HitTestUtils.getDefaultHit;
+
+@DataJpaTest
+@Import({HotWindow.class, StatsDictionary.class})
+@TestPropertySource(properties = {"stats.hot-window.enabled=true", "stats.hot-window.minutes=60"})
+class HotWindowTest {
+
+    private static final LocalDateTime NOW = LocalDateTime.of(2022, 9, 1, 10, 30, 15);
+    private static final String URI_1 = "events/1";
+    private static final String URI_2 = "events/2";
+    private static final String IP_1 = "111.1.0.7";
+    private static final String IP_2 = "193.1.14.7";
+
+    @Autowired
+    private TestEntityManager em;
+    @Autowired
+    private StatsDictionary dictionary;
+    @Autowired
+    private StatsRepository statsRepository;
+    @Autowired
+    private HotWindow hotWindow;
+
+    private List<Hit> getHits() {
+        return List.of(
+                hit(URI_1, IP_1, LocalDateTime.of(2022, 9, 1, 10, 10, 30)),
+                hit(URI_1, IP_2, LocalDateTime.of(2022, 9, 1, 10, 12, 0)),
+                hit(URI_2, IP_1, LocalDateTime.of(2022, 9, 1, 10, 12, 59)),
+                hit(URI_2, IP_1, LocalDateTime.of(2022, 9, 1, 10, 20, 0)),
+                hit(URI_2, IP_2, LocalDateTime.of(2022, 9, 1, 10, 25, 5)),
+                hit(URI_2, null, LocalDateTime.of(2022, 9, 1, 10, 25, 40))
+        );
+    }
+
+    @BeforeEach
+    void fillData() {
+        getHits().stream().map(dictionary::encode).forEach(em::persist);
+        em.flush();
+        hotWindow.rebuild(NOW);
+    }
+
+    @Test
+    void countHits_sameAsDatabase() {
+        LocalDateTime start = LocalDateTime.of(2022, 9, 1, 10, 10, 15);
+        LocalDateTime end = LocalDateTime.of(2022, 9, 1, 10, 25, 10);
+
+        assertThat(hotWindow.covers(start, end, NOW), is(true));
+        assertThat(counts(hotWindow.countHits(start, end, null, false)),
+                is(counts(statsRepository.countHits(start, end))));
+        assertThat(counts(hotWindow.countHits(start, end, List.of(URI_2), false)),
+                is(counts(statsRepository.countHits(start, end, dictionary.findUriIds(List.of(URI_2))))));
+    }
+
+    @Test
+    void countHitsUnique_sameAsDatabase() {
+        LocalDateTime start = LocalDateTime.of(2022, 9, 1, 10, 0, 0);
+        LocalDateTime end = LocalDateTime.of(2022, 9, 1, 10, 30, 0);
+
+        assertThat(hotWindow.covers(start, end, NOW), is(true));
+        assertThat(counts(hotWindow.countHits(start, end, null, true)),
+                is(counts(statsRepository.countHitsUniq(start, end))));
+        assertThat(counts(hotWindow.countHits(start, end, List.of(URI_1), true)),
+                is(counts(statsRepository.countHitsUniq(start, end, dictionary.findUriIds(List.of(URI_1))))));
+    }
+
+    @Test
+    void add_countsRecordedHits() {
+        Hit hit = hit(URI_1, IP_1, LocalDateTime.of(2022, 9, 1, 10, 28, 0));
+        em.persist(dictionary.encode(hit));
+        hotWindow.add(List.of(hit), NOW);
+        LocalDateTime start = LocalDateTime.of(2022, 9, 1, 10, 0, 0);
+        LocalDateTime end = LocalDateTime.of(2022, 9, 1, 10, 30, 0);
+
+        List<HitCount> result = hotWindow.countHits(start, end, List.of(URI_1), false);
+
+        assertThat(result, hasSize(1));
+        assertThat(result.get(0).getHits(), is(3L));
+    }
+
+    @Test
+    void covers_rangeOutsideWindow_false() {
+        assertThat(hotWindow.covers(NOW.minusHours(2), NOW, NOW), is(false));
+        assertThat(hotWindow.covers(NOW.minusSeconds(20), NOW, NOW), is(false));
+    }
+
+    @Test
+    void covers_afterFarFutureHit_true() {
+        hotWindow.add(List.of(hit(URI_1, IP_1, LocalDateTime.of(2100, 1, 1, 0, 0, 0))), NOW);
+        LocalDateTime start = LocalDateTime.of(2022, 9, 1, 10, 0, 0);
+        LocalDateTime end = LocalDateTime.of(2022, 9, 1, 10, 30, 0);
+
+        assertThat(hotWindow.covers(start, end, NOW), is(true));
+        assertThat(counts(hotWindow.countHits(start, end, null, false)),
+                is(counts(statsRepository.countHits(start, end))));
+    }
+
+    @Test
+    void covers_afterHitPastRing_onlyRangesWithoutItsMinute() {
+        LocalDateTime timestamp = NOW.plusMinutes(20);
+        hotWindow.add(List.of(hit(URI_1, IP_1, timestamp)), NOW);
+        LocalDateTime later = NOW.plusMinutes(40);
+
+        assertThat(hotWindow.covers(NOW.minusMinutes(20), NOW, NOW), is(true));
+        assertThat(hotWindow.covers(NOW, later, later), is(false));
+        assertThat(hotWindow.covers(timestamp.plusMinutes(1), later, later), is(true));
+    }
+
+    private static Hit hit(String uri, String ip, LocalDateTime timestamp) {
+        return getDefaultHit().toBuilder()
+                .uri(uri)
+                .ip(ip)
+                .timestamp(timestamp)
+                .build();
+    }
+
+    private static Set<String> counts(List<HitCount> counts) {
+        return counts.stream()
+                .map(count -> count.getApp() + " " + count.getUri() + " " + count.getHits())
+                .collect(Collectors.toSet());
+    }
+}
@@ -0,0 +1,129 @@
+package ru.practicum.ewm.partition;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.init.ScriptUtils;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.util.StreamUtils;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.contains;
+import static org.hamcrest.Matchers.containsString;
+import static org.hamcrest.Matchers.endsWith;
+import static org.hamcrest.Matchers.hasSize;
+import static org.hamcrest.Matchers.startsWith;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.atLeast;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class StatsPartitionManagerTest {
+
+    private static final LocalDateTime NOW = LocalDateTime.of(2026, 10, 17, 12, 30);
+
+    @Mock
+    private JdbcTemplate jdbcTemplate;
+
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    @Test
+    void maintain_createsMissingPartitionsAhead() {
+        givenPartitions("stats_default", "stats_p202610");
+
+        subject(PartitionInterval.MONTH, 2, 0).maintain(NOW);
+
+        assertThat(executed(), contains(
+                "CREATE TABLE stats_p202611 (LIKE stats INCLUDING DEFAULTS INCLUDING CONSTRAINTS)",
+                "ALTER TABLE stats ATTACH PARTITION stats_p202611 " +
+                        "FOR VALUES FROM ('2026-11-01 00:00:00') TO ('2026-12-01 00:00:00')",
+                "CREATE TABLE stats_p202612 (LIKE stats INCLUDING DEFAULTS INCLUDING CONSTRAINTS)",
+                "ALTER TABLE stats ATTACH PARTITION stats_p202612 " +
+                        "FOR VALUES FROM ('2026-12-01 00:00:00') TO ('2027-01-01 00:00:00')"
+        ));
+        verify(jdbcTemplate, times(1)).update(anyString(),
+                eq(LocalDateTime.of(2026, 11, 1, 0, 0)), eq(LocalDateTime.of(2026, 12, 1, 0, 0)));
+    }
+
+    @Test
+    void maintain_dailyPartitions() {
+        givenPartitions("stats_default", "stats_p20261017", "stats_p202610");
+
+        subject(PartitionInterval.DAY, 1, 0).maintain(NOW);
+
+        assertThat(executed(), contains(
+                "CREATE TABLE stats_p20261018 (LIKE stats INCLUDING DEFAULTS INCLUDING CONSTRAINTS)",
+                "ALTER TABLE stats ATTACH PARTITION stats_p20261018 " +
+                        "FOR VALUES FROM ('2026-10-18 00:00:00') TO ('2026-10-19 00:00:00')"
+        ));
+    }
+
+    @Test
+    void maintain_detachesPartitionsOlderThanRetention() {
+        givenPartitions("stats_default", "stats_p202607", "stats_p202608", "stats_p202609", "stats_p202610");
+
+        subject(PartitionInterval.MONTH, 0, 2).maintain(NOW);
+
+        assertThat(executed(), contains("ALTER TABLE stats DETACH PARTITION stats_p202607"));
+    }
+
+    @Test
+    void maintain_tableNotPartitioned_doesNothing() {
+        when(jdbcTemplate.queryForObject(anyString(), eq(Long.class))).thenReturn(0L);
+
+        subject(PartitionInterval.MONTH, 2, 2).maintain(NOW);
+
+        verify(jdbcTemplate, never()).execute(anyString());
+        verify(jdbcTemplate, never()).queryForList(anyString(), eq(String.class));
+    }
+
+    @Test
+    void schema_defaultPartitionCreatedOnlyForPartitionedTable() throws Exception {
+        final String script = StreamUtils.copyToString(
+                new ClassPathResource("schema-postgresql.sql").getInputStream(), StandardCharsets.UTF_8);
+        final List<String> statements = new ArrayList<>();
+
+        ScriptUtils.splitSqlScript(null, script, ScriptUtils.DEFAULT_STATEMENT_SEPARATOR,
+                new String[]{ScriptUtils.DEFAULT_COMMENT_PREFIX}, ScriptUtils.DEFAULT_BLOCK_COMMENT_START_DELIMITER,
+                ScriptUtils.DEFAULT_BLOCK_COMMENT_END_DELIMITER, statements);
+
+        final List<String> defaultPartition = statements.stream()
+                .filter(statement -> statement.contains("PARTITION OF stats DEFAULT"))
+                .collect(Collectors.toList());
+        assertThat(defaultPartition, hasSize(1));
+        assertThat(defaultPartition.get(0), startsWith("DO '"));
+        assertThat(defaultPartition.get(0), containsString("pg_partitioned_table"));
+        assertThat(defaultPartition.get(0), endsWith("END'"));
+    }
+
+    private StatsPartitionManager subject(PartitionInterval interval, int precreate, int retention) {
+        return new StatsPartitionManager(jdbcTemplate, transactionManager, interval, precreate, retention,
+                StatsPartitionManager.RetentionMode.DETACH);
+    }
+
+    private void givenPartitions(String... names) {
+        when(jdbcTemplate.queryForObject(anyString(), eq(Long.class))).thenReturn(1L);
+        when(jdbcTemplate.queryForList(anyString(), eq(String.class))).thenReturn(List.of(names));
+    }
+
+    private List<String> executed() {
+        final ArgumentCaptor<String> sql = ArgumentCaptor.forClass(String.class);
+        verify(jdbcTemplate, atLeast(0)).execute(sql.capture());
+        return sql.getAllValues();
+    }
+}
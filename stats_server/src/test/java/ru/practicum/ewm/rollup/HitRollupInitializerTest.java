@@ -0,0 +1,100 @@
+package ru.practicum.ewm.rollup;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.context.annotation.Import;
+import org.springframework.transaction.PlatformTransactionManager;
+import ru.practicum.ewm.dictionary.StatsDictionary;
+import ru.practicum.ewm.hit.Hit;
+import ru.practicum.ewm.hit.HitRepository;
+import ru.practicum.ewm.rollup.AggregateMarkRepository.Aggregate;
+import ru.practicum.ewm.stats.HitCount;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Optional;
+import java.util.stream.Collectors;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.hasSize;
+import static org.hamcrest.Matchers.is;
+import static ru.practicum.ewm.hit.HitTestUtils.getDefaultHit;
+
+@DataJpaTest
+@Import({HitRollupRepository.class, HitSketchRepository.class, AggregateMarkRepository.class, StatsDictionary.class})
+class HitRollupInitializerTest {
+
+    private static final LocalDateTime DEFAULT_TIMESTAMP = LocalDateTime.of(2022, 9, 1, 10, 15, 30);
+    private static final RollupSegment DAY = new RollupSegment(RollupGranularity.DAY,
+            LocalDateTime.of(2022, 9, 1, 0, 0), LocalDateTime.of(2022, 9, 2, 0, 0));
+
+    @Autowired
+    private TestEntityManager em;
+    @Autowired
+    private StatsDictionary dictionary;
+    @Autowired
+    private HitRepository hitRepository;
+    @Autowired
+    private HitRollupRepository rollupRepository;
+    @Autowired
+    private HitSketchRepository sketchRepository;
+    @Autowired
+    private AggregateMarkRepository markRepository;
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Test
+    void start_emptyRollups_rebuiltFromHits() {
+        save(hits("1.1.1.1", "1.1.1.2"));
+
+        initializer(true).afterSingletonsInstantiated();
+
+        assertThat(dayHits(), is(2L));
+    }
+
+    @Test
+    void start_afterRollupsWereDisabled_addsHitsSavedMeanwhile() {
+        List<Hit> before = hits("1.1.1.1", "1.1.1.2");
+        save(before);
+        rollupRepository.increment(before);
+
+        initializer(false).afterSingletonsInstantiated();
+        save(hits("1.1.1.3", "1.1.1.4", "1.1.1.5"));
+        initializer(false).afterSingletonsInstantiated();
+
+        assertThat(dayHits(), is(2L));
+
+        initializer(true).afterSingletonsInstantiated();
+
+        assertThat(dayHits(), is(5L));
+        assertThat(markRepository.find(Aggregate.ROLLUP), is(Optional.empty()));
+
+        initializer(true).afterSingletonsInstantiated();
+
+        assertThat(dayHits(), is(5L));
+    }
+
+    private HitRollupInitializer initializer(boolean rollupEnabled) {
+        return new HitRollupInitializer(rollupRepository, sketchRepository, markRepository, hitRepository,
+                transactionManager, rollupEnabled, false);
+    }
+
+    private void save(List<Hit> hits) {
+        hits.stream().map(dictionary::encode).forEach(em::persist);
+        em.flush();
+    }
+
+    private long dayHits() {
+        List<HitCount> result = rollupRepository.sumHits(List.of(DAY), null);
+        assertThat(result, hasSize(1));
+        return result.get(0).getHits();
+    }
+
+    private static List<Hit> hits(String... ips) {
+        return List.of(ips).stream()
+                .map(ip -> getDefaultHit().toBuilder().ip(ip).timestamp(DEFAULT_TIMESTAMP).build())
+                .collect(Collectors.toList());
+    }
+}
@@ -0,0 +1,80 @@
+package ru.practicum.ewm.rollup;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.context.annotation.Import;
+import ru.practicum.ewm.dictionary.StatsDictionary;
+import ru.practicum.ewm.hit.Hit;
+import ru.practicum.ewm.stats.HitCount;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.hasSize;
+import static org.hamcrest.Matchers.is;
+import static ru.practicum.ewm.hit.HitTestUtils.getDefaultHit;
+
+@DataJpaTest
+@Import({HitRollupRepository.class, StatsDictionary.class})
+class HitRollupRepositoryTest {
+
+    private static final LocalDateTime DEFAULT_TIMESTAMP = LocalDateTime.of(2022, 9, 1, 10, 15, 30);
+    private static final String URI_1 = "events/1";
+    private static final String URI_2 = "events/2";
+
+    @Autowired
+    private TestEntityManager em;
+    @Autowired
+    private StatsDictionary dictionary;
+    @Autowired
+    private HitRollupRepository repo;
+
+    private List<Hit> getHits() {
+        return List.of(
+                getDefaultHit().toBuilder().uri(URI_1).timestamp(DEFAULT_TIMESTAMP).build(),
+                getDefaultHit().toBuilder().uri(URI_2).timestamp(DEFAULT_TIMESTAMP).build(),
+                getDefaultHit().toBuilder().uri(URI_2).timestamp(DEFAULT_TIMESTAMP.plusHours(2)).build()
+        );
+    }
+
+    @Test
+    void increment_accumulatesExistingBuckets() {
+        repo.increment(getHits());
+        repo.increment(getHits());
+
+        List<HitCount> result = repo.sumHits(List.of(new RollupSegment(RollupGranularity.DAY,
+                LocalDateTime.of(2022, 9, 1, 0, 0), LocalDateTime.of(2022, 9, 2, 0, 0))), List.of(URI_2));
+
+        assertThat(result, hasSize(1));
+        assertThat(result.get(0).getUri(), is(URI_2));
+        assertThat(result.get(0).getHits(), is(4L));
+    }
+
+    @Test
+    void sumHits_combinesSegmentsOfDifferentGranularity() {
+        repo.increment(getHits());
+
+        RollupPlan plan = RollupPlan.of(LocalDateTime.of(2022, 9, 1, 10, 15, 0), LocalDateTime.of(2022, 9, 1, 11, 0, 0));
+        List<HitCount> result = repo.sumHits(plan.getSegments(), null);
+
+        assertThat(result, hasSize(2));
+        assertThat(result.stream().mapToLong(HitCount::getHits).sum(), is(2L));
+    }
+
+    @Test
+    void rebuild_restoresBucketsFromRawHits() {
+        getHits().stream().map(dictionary::encode).forEach(em::persist);
+        em.flush();
+        assertThat(repo.isEmpty(), is(true));
+
+        repo.rebuild();
+
+        List<HitCount> result = repo.sumHits(List.of(new RollupSegment(RollupGranularity.HOUR,
+                LocalDateTime.of(2022, 9, 1, 10, 0), LocalDateTime.of(2022, 9, 1, 13, 0))), null);
+        assertThat(repo.isEmpty(), is(false));
+        assertThat(result.stream().mapToLong(HitCount::getHits).sum(), is(3L));
+    }
+}
@@ -0,0 +1,87 @@
+package ru.practicum.ewm.rollup;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.context.annotation.Import;
+import ru.practicum.ewm.dictionary.StatsDictionary;
+import ru.practicum.ewm.hit.Hit;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.aMapWithSize;
+import static ru.practicum.ewm.hit.HitTestUtils.getDefaultHit;
+
+@DataJpaTest
+@Import({HitSketchRepository.class, StatsDictionary.class})
+class HitSketchRepositoryTest {
+
+    private static final LocalDateTime DEFAULT_TIMESTAMP = LocalDateTime.of(2022, 9, 1, 10, 15, 30);
+    private static final String URI_1 = "events/1";
+    private static final String URI_2 = "events/2";
+    private static final String IP_1 = "111.1.0.7";
+    private static final String IP_2 = "193.1.14.7";
+
+    @Autowired
+    private TestEntityManager em;
+    @Autowired
+    private StatsDictionary dictionary;
+    @Autowired
+    private HitSketchRepository repo;
+
+    private List<Hit> getHits() {
+        return List.of(
+                getDefaultHit().toBuilder().uri(URI_1).ip(IP_1).timestamp(DEFAULT_TIMESTAMP).build(),
+                getDefaultHit().toBuilder().uri(URI_2).ip(IP_1).timestamp(DEFAULT_TIMESTAMP).build(),
+                getDefaultHit().toBuilder().uri(URI_2).ip(IP_2).timestamp(DEFAULT_TIMESTAMP.plusHours(1)).build(),
+                getDefaultHit().toBuilder().uri(URI_2).ip(IP_2).timestamp(DEFAULT_TIMESTAMP.plusHours(3)).build()
+        );
+    }
+
+    @Test
+    void offer_mergesIntoExistingSketches() {
+        repo.offer(getHits());
+        repo.offer(getHits());
+
+        Map<AppUri, HyperLogLog> result = repo.mergeSketches(
+                LocalDateTime.of(2022, 9, 1, 0, 0), LocalDateTime.of(2022, 9, 2, 0, 0), List.of(URI_2));
+
+        assertThat(result, aMapWithSize(1));
+        assertThat(result.values().iterator().next().cardinality(), is(2L));
+    }
+
+    @Test
+    void offerEdgeIps_addsRawHitsOutsideBuckets() {
+        getHits().stream().map(dictionary::encode).forEach(em::persist);
+        em.flush();
+        repo.offer(getHits().subList(0, 2));
+
+        Map<AppUri, HyperLogLog> result = repo.mergeSketches(
+                LocalDateTime.of(2022, 9, 1, 10, 0), LocalDateTime.of(2022, 9, 1, 11, 0), null);
+        repo.offerEdgeIps(LocalDateTime.of(2022, 9, 1, 10, 0), LocalDateTime.of(2022, 9, 1, 10, 0),
+                LocalDateTime.of(2022, 9, 1, 11, 0), LocalDateTime.of(2022, 9, 1, 12, 0), null, result);
+
+        assertThat(result, aMapWithSize(2));
+        assertThat(result.get(new AppUri(getDefaultHit().getApp(), URI_2)).cardinality(), is(2L));
+    }
+
+    @Test
+    void rebuild_restoresSketchesFromRawHits() {
+        getHits().stream().map(dictionary::encode).forEach(em::persist);
+        em.flush();
+        assertThat(repo.isEmpty(), is(true));
+
+        repo.rebuild();
+
+        Map<AppUri, HyperLogLog> result = repo.mergeSketches(
+                LocalDateTime.of(2022, 9, 1, 0, 0), LocalDateTime.of(2022, 9, 2, 0, 0), null);
+        assertThat(repo.isEmpty(), is(false));
+        assertThat(result.get(new AppUri(getDefaultHit().getApp(), URI_2)).cardinality(), is(2L));
+        assertThat(result.get(new AppUri(getDefaultHit().getApp(), URI_1)).cardinality(), is(1L));
+    }
+}
@@ -0,0 +1,55 @@
+package ru.practicum.ewm.rollup;
+
+import org.junit.jupiter.api.Test;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.closeTo;
+import static org.hamcrest.Matchers.is;
+
+class HyperLogLogTest {
+
+    private static String ip(int i) {
+        return (i >>> 24 & 0xff) + "." + (i >>> 16 & 0xff) + "." + (i >>> 8 & 0xff) + "." + (i & 0xff);
+    }
+
+    @Test
+    void cardinality_whenEmpty_isZero() {
+        assertThat(new HyperLogLog().cardinality(), is(0L));
+    }
+
+    @Test
+    void cardinality_ignoresDuplicates() {
+        HyperLogLog sketch = new HyperLogLog();
+        for (int i = 0; i < 10_000; i++) {
+            sketch.offer(ip(i % 100));
+        }
+
+        assertThat((double) sketch.cardinality(), closeTo(100, 3));
+    }
+
+    @Test
+    void cardinality_staysWithinErrorBound() {
+        HyperLogLog sketch = new HyperLogLog();
+        int distinct = 200_000;
+        for (int i = 0; i < distinct; i++) {
+            sketch.offer(ip(i));
+        }
+
+        assertThat((double) sketch.cardinality(), closeTo(distinct, distinct * 3 * HyperLogLog.RELATIVE_ERROR));
+    }
+
+    @Test
+    void merge_equalsSketchOfUnion() {
+        HyperLogLog left = new HyperLogLog();
+        HyperLogLog right = new HyperLogLog();
+        HyperLogLog union = new HyperLogLog();
+        for (int i = 0; i < 50_000; i++) {
+            (i % 2 == 0 ? left : right).offer(ip(i));
+            union.offer(ip(i));
+        }
+
+        HyperLogLog restored = HyperLogLog.fromBytes(left.toBytes()).merge(right);
+
+        assertThat(restored.cardinality(), is(union.cardinality()));
+    }
+}
@@ -0,0 +1,75 @@
+package ru.practicum.ewm.stats;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.init.ScriptUtils;
+import org.springframework.util.StreamUtils;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.containsString;
+import static org.hamcrest.Matchers.empty;
+import static org.hamcrest.Matchers.endsWith;
+import static org.hamcrest.Matchers.hasSize;
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.lessThan;
+import static org.hamcrest.Matchers.startsWith;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+@DataJpaTest
+@Import(StatsColumnVerifier.class)
+class StatsColumnVerifierTest {
+
+    @Autowired
+    private StatsColumnVerifier verifier;
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Test
+    void findMissingColumns_dictionaryColumnsPresent() {
+        assertThat(verifier.findMissingColumns(), is(empty()));
+    }
+
+    @Test
+    void afterPropertiesSet_uriIdMissing_refusesToStart() {
+        jdbcTemplate.execute("ALTER TABLE stats ALTER COLUMN uri_id RENAME TO uri");
+        try {
+            assertThat(verifier.findMissingColumns(), is(List.of("uri_id")));
+            assertThrows(IllegalStateException.class, verifier::afterPropertiesSet);
+        } finally {
+            jdbcTemplate.execute("ALTER TABLE stats ALTER COLUMN uri RENAME TO uri_id");
+        }
+    }
+
+    @Test
+    void schema_namesMigratedToIdsBeforeUriIndex() throws Exception {
+        final String script = StreamUtils.copyToString(
+                new ClassPathResource("schema-postgresql.sql").getInputStream(), StandardCharsets.UTF_8);
+        final List<String> statements = new ArrayList<>();
+
+        ScriptUtils.splitSqlScript(null, script, ScriptUtils.DEFAULT_STATEMENT_SEPARATOR,
+                new String[]{ScriptUtils.DEFAULT_COMMENT_PREFIX}, ScriptUtils.DEFAULT_BLOCK_COMMENT_START_DELIMITER,
+                ScriptUtils.DEFAULT_BLOCK_COMMENT_END_DELIMITER, statements);
+
+        final List<String> migration = statements.stream()
+                .filter(statement -> statement.contains("DROP COLUMN uri"))
+                .collect(Collectors.toList());
+        assertThat(migration, hasSize(1));
+        assertThat(migration.get(0), startsWith("DO '"));
+        assertThat(migration.get(0), containsString("INSERT INTO stats_uris (uri) SELECT DISTINCT uri FROM stats"));
+        assertThat(migration.get(0), endsWith("END'"));
+        assertThat(statements.indexOf(migration.get(0)), lessThan(statements.stream()
+                .filter(statement -> statement.contains("stats_uri_timestamp_idx"))
+                .map(statements::indexOf)
+                .findFirst()
+                .orElseThrow()));
+    }
+}
@@ -0,0 +1,78 @@
+package ru.practicum.ewm.stats;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.function.Consumer;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.verifyNoInteractions;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@WebMvcTest(controllers = StatsController.class)
+@ExtendWith(MockitoExtension.class)
+class StatsControllerTest {
+
+    private static final String ENDPOINT = "/stats";
+    private static final String START = "2022-09-01 00:00:00";
+    private static final String END = "2022-10-01 00:00:00";
+
+    @Autowired
+    private MockMvc mockMvc;
+    @MockBean
+    private StatsService statsService;
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void count_stream_writesEachCount() throws Exception {
+        doAnswer(invocation -> {
+            Consumer<HitCount> action = invocation.getArgument(4);
+            action.accept(new AggregatedHitCount("ewm-main-service", "/events/2", 2L));
+            action.accept(new AggregatedHitCount("ewm-main-service", "/events/1", 1L));
+            return null;
+        }).when(statsService).forEachHitCount(any(LocalDateTime.class), any(LocalDateTime.class),
+                eq(List.of("/events/1", "/events/2")), eq(true), any(Consumer.class));
+
+        MvcResult result = mockMvc.perform(get(ENDPOINT)
+                        .param("start", START)
+                        .param("end", END)
+                        .param("uris", "/events/1", "/events/2")
+                        .param("unique", "true")
+                        .param("stream", "true"))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+
+        mockMvc.perform(asyncDispatch(result))
+                .andExpect(status().isOk())
+                .andExpect(content().json("[" +
+                        "{\"app\":\"ewm-main-service\",\"uri\":\"/events/2\",\"hits\":2}," +
+                        "{\"app\":\"ewm-main-service\",\"uri\":\"/events/1\",\"hits\":1}]", true));
+    }
+
+    @Test
+    void count_streamWithApprox_return400() throws Exception {
+        mockMvc.perform(get(ENDPOINT)
+                        .param("start", START)
+                        .param("end", END)
+                        .param("unique", "true")
+                        .param("approx", "true")
+                        .param("stream", "true"))
+                .andExpect(status().isBadRequest());
+
+        verifyNoInteractions(statsService);
+    }
+}
@@ -0,0 +1,61 @@
+package ru.practicum.ewm.stats;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.containsString;
+import static org.hamcrest.Matchers.empty;
+import static org.hamcrest.Matchers.is;
+
+@DataJpaTest
+@Import(StatsIndexVerifier.class)
+class StatsIndexVerifierTest {
+
+    @Autowired
+    private StatsIndexVerifier verifier;
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Test
+    void findMissingIndexes_schemaIndexesPresent() {
+        assertThat(verifier.findMissingIndexes(), is(empty()));
+    }
+
+    @Test
+    void findMissingIndexes_reportsDroppedIndex() {
+        jdbcTemplate.execute("DROP INDEX stats_uri_timestamp_idx");
+        try {
+            assertThat(verifier.findMissingIndexes(), is(List.of(List.of("uri_id", "timestamp"))));
+        } finally {
+            jdbcTemplate.execute("CREATE INDEX stats_uri_timestamp_idx ON stats (uri_id, timestamp)");
+        }
+    }
+
+    @Test
+    void uriRangeQuery_usesUriTimestampIndex() {
+        final String plan = jdbcTemplate.queryForObject(
+                "EXPLAIN SELECT app_id, uri_id, COUNT(*) FROM stats " +
+                        "WHERE timestamp BETWEEN ? AND ? AND uri_id IN (?, ?) GROUP BY app_id, uri_id",
+                String.class,
+                LocalDateTime.now().minusDays(1), LocalDateTime.now(), 1, 2);
+
+        assertThat(plan.toUpperCase(), containsString("STATS_URI_TIMESTAMP_IDX"));
+    }
+
+    @Test
+    void rangeQuery_usesTimestampIndex() {
+        final String plan = jdbcTemplate.queryForObject(
+                "EXPLAIN SELECT app_id, uri_id, COUNT(*) FROM stats WHERE timestamp BETWEEN ? AND ? GROUP BY app_id, uri_id",
+                String.class,
+                LocalDateTime.now().minusDays(1), LocalDateTime.now());
+
+        assertThat(plan.toUpperCase(), containsString("STATS_TIMESTAMP_IDX"));
+    }
+}
@@ -5,13 +5,16 @@ import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
 import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.context.annotation.Import;
 import org.springframework.test.context.transaction.AfterTransaction;
+import ru.practicum.ewm.dictionary.StatsDictionary;
 import ru.practicum.ewm.hit.Hit;
 
 import java.time.LocalDateTime;
 import java.util.Arrays;
 import java.util.List;
 import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
 import static org.hamcrest.MatcherAssert.assertThat;
 import static org.hamcrest.Matchers.containsInAnyOrder;
@@ -20,6 +23,7 @@ import static org.hamcrest.Matchers.is;
 import static ru.practicum.ewm.hit.HitTestUtils.getDefaultHit;
 
 @DataJpaTest
+@Import(StatsDictionary.class)
 public class StatsRepositoryTest {
 
     private static final LocalDateTime DEFAULT_TIMESTAMP = LocalDateTime.of(2022, 9, 1, 0, 0, 0);
@@ -34,6 +38,8 @@ public class StatsRepositoryTest {
     @Autowired
     private TestEntityManager em;
     @Autowired
+    private StatsDictionary dictionary;
+    @Autowired
     private StatsRepository repo;
 
     @AfterTransaction
@@ -63,7 +69,7 @@ public class StatsRepositoryTest {
 
     @BeforeEach
     void fillData() {
-        getHits().forEach((hit) -> em.persist(hit));
+        getHits().stream().map(dictionary::encode).forEach(em::persist);
     }
 
     @Test
@@ -79,7 +85,9 @@ public class StatsRepositoryTest {
 
     @Test
     void count_withUriFilter() {
-        List<HitCount> result = repo.countHits(START_TIMESTAMP, END_TIMESTAMP, List.of(URI_1));
+        List<Integer> uriIds = dictionary.findUriIds(List.of(URI_1));
+
+        List<HitCount> result = repo.countHits(START_TIMESTAMP, END_TIMESTAMP, uriIds);
 
         assertThat(result, hasSize(1));
         assertThat(result.get(0).getHits(), is(1L));
@@ -101,10 +109,35 @@ public class StatsRepositoryTest {
 
     @Test
     void countUniq_withUriFilter() {
-        List<HitCount> result = repo.countHitsUniq(START_TIMESTAMP, END_TIMESTAMP, List.of(URI_2));
+        List<Integer> uriIds = dictionary.findUriIds(List.of(URI_2));
+
+        List<HitCount> result = repo.countHitsUniq(START_TIMESTAMP, END_TIMESTAMP, uriIds);
 
         assertThat(result, hasSize(1));
         assertThat(result.get(0).getHits(), is(1L));
         assertThat(result.get(0).getUri(), is(URI_2));
     }
+
+    @Test
+    void streamHits() {
+        try (Stream<HitCount> result = repo.streamHits(START_TIMESTAMP, END_TIMESTAMP)) {
+            List<HitCount> counts = result.collect(Collectors.toList());
+
+            assertThat(counts, hasSize(2));
+            assertThat(counts.get(0).getHits(), is(2L));
+            assertThat(counts.get(0).getUri(), is(URI_2));
+        }
+    }
+
+    @Test
+    void streamHitsUniq_withUriFilter() {
+        List<Integer> uriIds = dictionary.findUriIds(List.of(URI_2));
+
+        try (Stream<HitCount> result = repo.streamHitsUniq(START_TIMESTAMP, END_TIMESTAMP, uriIds)) {
+            List<HitCount> counts = result.collect(Collectors.toList());
+
+            assertThat(counts, hasSize(1));
+            assertThat(counts.get(0).getHits(), is(1L));
+        }
+    }
 }